@@ -84,6 +84,21 @@ public class ArbolAVL<T extends Comparable<T>> extends ArbolBinarioOrdenado<T> {
       return getAltura(verticeAVL(v.izquierdo)) - getAltura(verticeAVL(v.derecho));
     }
 
+    /**
+     * Regresa el balance del vértice AVL: la altura de su subárbol izquierdo
+     * menos la de su subárbol derecho. La altura del vértice se obtiene con
+     * {@link VerticeArbolBinario#altura}; ninguno de los dos construye
+     * cadenas ni recorre el árbol.
+     * @param vertice el vértice del que queremos el balance.
+     * @return el balance del vértice AVL.
+     * @throws ClassCastException si el vértice no es instancia de {@link
+     *         VerticeAVL}.
+     */
+    public int getBalance(VerticeArbolBinario<T> vertice) {
+        if(vertice.getClass() != VerticeAVL.class) throw new ClassCastException();
+        return balance(verticeAVL(vertice));
+    }
+
     /**
      * Construye un nuevo vértice, usando una instancia de {@link VerticeAVL}.
      * @param elemento el elemento dentro del vértice.
@@ -51,7 +51,7 @@ public class Conjunto<T> implements Coleccion<T> {
      * @param elemento el elemento que queremos eliminar del conjunto.
      */
     @Override public void elimina(T elemento) {
-        if(elemento == null) return;
+        if(elemento == null || !conjunto.contiene(elemento)) return;
         conjunto.elimina(elemento);
     }
 
@@ -80,26 +80,47 @@ public class Conjunto<T> implements Coleccion<T> {
     }
 
     /**
-     * Regresa la intersección del conjunto y el conjunto recibido.
+     * Regresa la intersección del conjunto y el conjunto recibido. Se recorre
+     * el menor de los dos conjuntos y el resultado se construye con la
+     * capacidad de éste, por lo que nunca se redimensiona.
      * @param conjunto el conjunto que queremos intersectar con éste.
      * @return la intersección del conjunto y el conjunto recibido.
      */
     public Conjunto<T> interseccion(Conjunto<T> conjunto) {
-        Conjunto<T> interscc = new Conjunto<T>();
-        for(T elemento : this.conjunto){
-          if(conjunto.contiene(elemento))
+        Conjunto<T> menor = getElementos() <= conjunto.getElementos() ? this : conjunto;
+        Conjunto<T> mayor = menor == this ? conjunto : this;
+        Conjunto<T> interscc = new Conjunto<T>(menor.getElementos());
+        for(T elemento : menor.conjunto){
+          if(mayor.contiene(elemento))
             interscc.agrega(elemento);
         }
         return interscc;
     }
 
     /**
-     * Regresa la unión del conjunto y el conjunto recibido.
+     * Regresa el número de elementos que el conjunto comparte con el conjunto
+     * recibido, sin construir la intersección.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     * @return el número de elementos de la intersección.
+     */
+    public int tamanoInterseccion(Conjunto<T> conjunto) {
+        Conjunto<T> menor = getElementos() <= conjunto.getElementos() ? this : conjunto;
+        Conjunto<T> mayor = menor == this ? conjunto : this;
+        int tamano = 0;
+        for(T elemento : menor.conjunto)
+          if(mayor.contiene(elemento))
+            tamano++;
+        return tamano;
+    }
+
+    /**
+     * Regresa la unión del conjunto y el conjunto recibido. El resultado se
+     * construye con capacidad para ambos conjuntos.
      * @param conjunto el conjunto que queremos unir con éste.
      * @return la unión del conjunto y el conjunto recibido.
      */
     public Conjunto<T> union(Conjunto<T> conjunto) {
-        Conjunto<T> uni = new Conjunto<T>();
+        Conjunto<T> uni = new Conjunto<T>(getElementos() + conjunto.getElementos());
         for(T elemento : this.conjunto)
           uni.agrega(elemento);
         for(T elemento : conjunto)
@@ -107,6 +128,56 @@ public class Conjunto<T> implements Coleccion<T> {
         return uni;
     }
 
+    /**
+     * Agrega al conjunto todos los elementos del conjunto recibido; al
+     * terminar, el conjunto es la unión de ambos.
+     * @param conjunto el conjunto cuyos elementos queremos agregar.
+     */
+    public void agregaTodos(Conjunto<T> conjunto) {
+        if(conjunto == this) return;
+        for(T elemento : conjunto)
+          agrega(elemento);
+    }
+
+    /**
+     * Elimina del conjunto los elementos que no están en el conjunto recibido;
+     * al terminar, el conjunto es la intersección de ambos.
+     * @param conjunto el conjunto con los elementos que queremos conservar.
+     */
+    public void retenTodos(Conjunto<T> conjunto) {
+        if(conjunto == this) return;
+        Lista<T> eliminar = new Lista<T>();
+        for(T elemento : this.conjunto)
+          if(!conjunto.contiene(elemento))
+            eliminar.agregaFinal(elemento);
+        for(T elemento : eliminar)
+          this.conjunto.elimina(elemento);
+    }
+
+    /**
+     * Elimina del conjunto todos los elementos del conjunto recibido; al
+     * terminar, el conjunto es la diferencia de ambos. Se recorre el menor de
+     * los dos conjuntos.
+     * @param conjunto el conjunto con los elementos que queremos eliminar.
+     */
+    public void eliminaTodos(Conjunto<T> conjunto) {
+        if(conjunto == this){
+          limpia();
+          return;
+        }
+        if(conjunto.getElementos() <= getElementos()){
+          for(T elemento : conjunto)
+            elimina(elemento);
+          return;
+        }
+        Lista<T> eliminar = new Lista<T>();
+        for(T elemento : this.conjunto)
+          if(conjunto.contiene(elemento))
+            eliminar.agregaFinal(elemento);
+        for(T elemento : eliminar)
+          this.conjunto.elimina(elemento);
+    }
+
     /**
      * Regresa una representación en cadena del conjunto.
      * @return una representación en cadena del conjunto.
@@ -0,0 +1,724 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para conjuntos de enteros representados con mapas de bits
+ * comprimidos (al estilo de los <em>Roaring bitmaps</em>).</p>
+ *
+ * <p>Los enteros se separan en bloques de 2<sup>16</sup> valores según sus 16
+ * bits más significativos. Cada bloque guarda sus 16 bits menos significativos
+ * en un contenedor: un arreglo ordenado cuando el bloque tiene pocos elementos
+ * (a lo más {@link #MAXIMO_ARREGLO}), o un mapa de 2<sup>16</sup> bits cuando
+ * es denso. Así las operaciones entre conjuntos (intersección, unión y
+ * diferencia) se hacen bloque por bloque, y entre mapas de bits palabra por
+ * palabra.</p>
+ *
+ * <p>Los elementos se iteran en orden, comparándolos como enteros sin
+ * signo.</p>
+ */
+public class ConjuntoBits implements Coleccion<Integer> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador implements Iterator<Integer> {
+
+        /* El bloque actual. */
+        private int bloque;
+        /* Los valores del bloque actual. */
+        private char[] valores;
+        /* El índice dentro de los valores del bloque actual. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            bloque = -1;
+            mueveBloque();
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return valores != null;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public Integer next() {
+            if (valores == null)
+                throw new NoSuchElementException();
+            int elemento = (llaves[bloque] << 16) | valores[indice++];
+            if (indice == valores.length)
+                mueveBloque();
+            return elemento;
+        }
+
+        /* Mueve el iterador al siguiente bloque no vacío. */
+        private void mueveBloque() {
+            indice = 0;
+            valores = null;
+            while (++bloque < bloques)
+                if (contenedores[bloque].cardinalidad > 0) {
+                    valores = contenedores[bloque].valores();
+                    return;
+                }
+        }
+    }
+
+    /* Clase abstracta privada para los contenedores de cada bloque. */
+    private static abstract class Contenedor {
+
+        /* El número de elementos en el contenedor. */
+        public int cardinalidad;
+
+        /* Agrega un valor; regresa el contenedor que lo contiene. */
+        public abstract Contenedor agrega(char valor);
+
+        /* Elimina un valor; regresa el contenedor resultante. */
+        public abstract Contenedor elimina(char valor);
+
+        /* Nos dice si el contenedor tiene al valor. */
+        public abstract boolean contiene(char valor);
+
+        /* Regresa los valores del contenedor, ordenados. */
+        public abstract char[] valores();
+
+        /* Regresa una copia del contenedor. */
+        public abstract Contenedor copia();
+
+        /* Regresa la intersección con otro contenedor. */
+        public abstract Contenedor interseccion(Contenedor contenedor);
+
+        /* Regresa la unión con otro contenedor. */
+        public abstract Contenedor union(Contenedor contenedor);
+
+        /* Regresa la diferencia con otro contenedor. */
+        public abstract Contenedor diferencia(Contenedor contenedor);
+
+        /* Regresa el tamaño de la intersección con otro contenedor. */
+        public abstract int tamanoInterseccion(Contenedor contenedor);
+    }
+
+    /* Contenedor para bloques dispersos: un arreglo ordenado de valores. */
+    private static class ContenedorArreglo extends Contenedor {
+
+        /* Los valores, ordenados; sólo los primeros cardinalidad son válidos. */
+        public char[] valores;
+
+        /* Construye un contenedor con capacidad para n valores. */
+        public ContenedorArreglo(int n) {
+            valores = new char[Math.max(n, 4)];
+        }
+
+        /* Busca el valor; si no está regresa -(posición de inserción) - 1. */
+        private int busca(char valor) {
+            int a = 0, b = cardinalidad - 1;
+            while (a <= b) {
+                int m = (a + b) >>> 1;
+                if (valores[m] < valor)
+                    a = m + 1;
+                else if (valores[m] > valor)
+                    b = m - 1;
+                else
+                    return m;
+            }
+            return -(a + 1);
+        }
+
+        @Override public Contenedor agrega(char valor) {
+            int i = busca(valor);
+            if (i >= 0)
+                return this;
+            if (cardinalidad == MAXIMO_ARREGLO)
+                return aMapa().agrega(valor);
+            i = -i - 1;
+            if (cardinalidad == valores.length) {
+                char[] nuevos = new char[Math.min(valores.length * 2, MAXIMO_ARREGLO)];
+                System.arraycopy(valores, 0, nuevos, 0, cardinalidad);
+                valores = nuevos;
+            }
+            System.arraycopy(valores, i, valores, i + 1, cardinalidad - i);
+            valores[i] = valor;
+            cardinalidad++;
+            return this;
+        }
+
+        @Override public Contenedor elimina(char valor) {
+            int i = busca(valor);
+            if (i < 0)
+                return this;
+            System.arraycopy(valores, i + 1, valores, i, cardinalidad - i - 1);
+            cardinalidad--;
+            return this;
+        }
+
+        @Override public boolean contiene(char valor) {
+            return busca(valor) >= 0;
+        }
+
+        @Override public char[] valores() {
+            char[] r = new char[cardinalidad];
+            System.arraycopy(valores, 0, r, 0, cardinalidad);
+            return r;
+        }
+
+        @Override public Contenedor copia() {
+            ContenedorArreglo c = new ContenedorArreglo(cardinalidad);
+            System.arraycopy(valores, 0, c.valores, 0, cardinalidad);
+            c.cardinalidad = cardinalidad;
+            return c;
+        }
+
+        /* Convierte el contenedor en un mapa de bits. */
+        public ContenedorMapa aMapa() {
+            ContenedorMapa m = new ContenedorMapa();
+            for (int i = 0; i < cardinalidad; i++)
+                m.palabras[valores[i] >>> 6] |= 1L << valores[i];
+            m.cardinalidad = cardinalidad;
+            return m;
+        }
+
+        @Override public Contenedor interseccion(Contenedor contenedor) {
+            ContenedorArreglo r = new ContenedorArreglo(cardinalidad);
+            if (contenedor instanceof ContenedorMapa) {
+                for (int i = 0; i < cardinalidad; i++)
+                    if (contenedor.contiene(valores[i]))
+                        r.valores[r.cardinalidad++] = valores[i];
+                return r;
+            }
+            ContenedorArreglo c = (ContenedorArreglo)contenedor;
+            int i = 0, j = 0;
+            while (i < cardinalidad && j < c.cardinalidad) {
+                if (valores[i] < c.valores[j])
+                    i++;
+                else if (valores[i] > c.valores[j])
+                    j++;
+                else {
+                    r.valores[r.cardinalidad++] = valores[i];
+                    i++;
+                    j++;
+                }
+            }
+            return r;
+        }
+
+        @Override public Contenedor union(Contenedor contenedor) {
+            if (contenedor instanceof ContenedorMapa)
+                return contenedor.union(this);
+            ContenedorArreglo c = (ContenedorArreglo)contenedor;
+            if (cardinalidad + c.cardinalidad > MAXIMO_ARREGLO) {
+                ContenedorMapa m = aMapa();
+                for (int j = 0; j < c.cardinalidad; j++)
+                    m.agrega(c.valores[j]);
+                return m.cardinalidad > MAXIMO_ARREGLO ? m : m.aArreglo();
+            }
+            ContenedorArreglo r = new ContenedorArreglo(cardinalidad + c.cardinalidad);
+            int i = 0, j = 0;
+            while (i < cardinalidad && j < c.cardinalidad) {
+                if (valores[i] < c.valores[j])
+                    r.valores[r.cardinalidad++] = valores[i++];
+                else if (valores[i] > c.valores[j])
+                    r.valores[r.cardinalidad++] = c.valores[j++];
+                else {
+                    r.valores[r.cardinalidad++] = valores[i++];
+                    j++;
+                }
+            }
+            while (i < cardinalidad)
+                r.valores[r.cardinalidad++] = valores[i++];
+            while (j < c.cardinalidad)
+                r.valores[r.cardinalidad++] = c.valores[j++];
+            return r;
+        }
+
+        @Override public Contenedor diferencia(Contenedor contenedor) {
+            ContenedorArreglo r = new ContenedorArreglo(cardinalidad);
+            for (int i = 0; i < cardinalidad; i++)
+                if (!contenedor.contiene(valores[i]))
+                    r.valores[r.cardinalidad++] = valores[i];
+            return r;
+        }
+
+        @Override public int tamanoInterseccion(Contenedor contenedor) {
+            int tamano = 0;
+            if (contenedor instanceof ContenedorMapa) {
+                for (int i = 0; i < cardinalidad; i++)
+                    if (contenedor.contiene(valores[i]))
+                        tamano++;
+                return tamano;
+            }
+            ContenedorArreglo c = (ContenedorArreglo)contenedor;
+            int i = 0, j = 0;
+            while (i < cardinalidad && j < c.cardinalidad) {
+                if (valores[i] < c.valores[j])
+                    i++;
+                else if (valores[i] > c.valores[j])
+                    j++;
+                else {
+                    tamano++;
+                    i++;
+                    j++;
+                }
+            }
+            return tamano;
+        }
+    }
+
+    /* Contenedor para bloques densos: un mapa de 2^16 bits. */
+    private static class ContenedorMapa extends Contenedor {
+
+        /* Las palabras del mapa de bits. */
+        public long[] palabras = new long[1 << 10];
+
+        @Override public Contenedor agrega(char valor) {
+            long anterior = palabras[valor >>> 6];
+            palabras[valor >>> 6] = anterior | (1L << valor);
+            if (anterior != palabras[valor >>> 6])
+                cardinalidad++;
+            return this;
+        }
+
+        @Override public Contenedor elimina(char valor) {
+            long anterior = palabras[valor >>> 6];
+            palabras[valor >>> 6] = anterior & ~(1L << valor);
+            if (anterior != palabras[valor >>> 6])
+                cardinalidad--;
+            return cardinalidad > MAXIMO_ARREGLO ? this : aArreglo();
+        }
+
+        @Override public boolean contiene(char valor) {
+            return (palabras[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        @Override public char[] valores() {
+            char[] r = new char[cardinalidad];
+            int n = 0;
+            for (int i = 0; i < palabras.length; i++) {
+                long palabra = palabras[i];
+                while (palabra != 0) {
+                    r[n++] = (char)((i << 6) + Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+            return r;
+        }
+
+        @Override public Contenedor copia() {
+            ContenedorMapa m = new ContenedorMapa();
+            System.arraycopy(palabras, 0, m.palabras, 0, palabras.length);
+            m.cardinalidad = cardinalidad;
+            return m;
+        }
+
+        /* Convierte el contenedor en un arreglo ordenado. */
+        public ContenedorArreglo aArreglo() {
+            ContenedorArreglo a = new ContenedorArreglo(cardinalidad);
+            a.valores = valores();
+            if (a.valores.length == 0)
+                a.valores = new char[4];
+            a.cardinalidad = cardinalidad;
+            return a;
+        }
+
+        /* Recalcula la cardinalidad y regresa el contenedor adecuado. */
+        private Contenedor normaliza() {
+            int c = 0;
+            for (int i = 0; i < palabras.length; i++)
+                c += Long.bitCount(palabras[i]);
+            cardinalidad = c;
+            return cardinalidad > MAXIMO_ARREGLO ? this : aArreglo();
+        }
+
+        @Override public Contenedor interseccion(Contenedor contenedor) {
+            if (contenedor instanceof ContenedorArreglo)
+                return contenedor.interseccion(this);
+            ContenedorMapa c = (ContenedorMapa)contenedor;
+            ContenedorMapa r = new ContenedorMapa();
+            for (int i = 0; i < palabras.length; i++)
+                r.palabras[i] = palabras[i] & c.palabras[i];
+            return r.normaliza();
+        }
+
+        @Override public Contenedor union(Contenedor contenedor) {
+            ContenedorMapa r = (ContenedorMapa)copia();
+            if (contenedor instanceof ContenedorArreglo) {
+                ContenedorArreglo c = (ContenedorArreglo)contenedor;
+                for (int j = 0; j < c.cardinalidad; j++)
+                    r.agrega(c.valores[j]);
+                return r;
+            }
+            ContenedorMapa c = (ContenedorMapa)contenedor;
+            for (int i = 0; i < palabras.length; i++)
+                r.palabras[i] |= c.palabras[i];
+            return r.normaliza();
+        }
+
+        @Override public Contenedor diferencia(Contenedor contenedor) {
+            ContenedorMapa r = (ContenedorMapa)copia();
+            if (contenedor instanceof ContenedorArreglo) {
+                ContenedorArreglo c = (ContenedorArreglo)contenedor;
+                for (int j = 0; j < c.cardinalidad; j++)
+                    r.palabras[c.valores[j] >>> 6] &= ~(1L << c.valores[j]);
+                return r.normaliza();
+            }
+            ContenedorMapa c = (ContenedorMapa)contenedor;
+            for (int i = 0; i < palabras.length; i++)
+                r.palabras[i] &= ~c.palabras[i];
+            return r.normaliza();
+        }
+
+        @Override public int tamanoInterseccion(Contenedor contenedor) {
+            if (contenedor instanceof ContenedorArreglo)
+                return contenedor.tamanoInterseccion(this);
+            ContenedorMapa c = (ContenedorMapa)contenedor;
+            int tamano = 0;
+            for (int i = 0; i < palabras.length; i++)
+                tamano += Long.bitCount(palabras[i] & c.palabras[i]);
+            return tamano;
+        }
+    }
+
+    /** Máximo número de elementos de un bloque representado con un arreglo. */
+    public static final int MAXIMO_ARREGLO = 4096;
+
+    /* Los 16 bits más significativos de cada bloque, ordenados. */
+    private char[] llaves;
+    /* Los contenedores de cada bloque. */
+    private Contenedor[] contenedores;
+    /* El número de bloques. */
+    private int bloques;
+    /* El número de elementos. */
+    private int elementos;
+
+    /**
+     * Crea un nuevo conjunto de bits vacío.
+     */
+    public ConjuntoBits() {
+        llaves = new char[4];
+        contenedores = new Contenedor[4];
+    }
+
+    /**
+     * Crea un nuevo conjunto de bits con los enteros del arreglo recibido.
+     * @param arreglo los enteros que tendrá el conjunto.
+     */
+    public ConjuntoBits(int[] arreglo) {
+        this();
+        for (int n : arreglo)
+            agrega(n);
+    }
+
+    /* Busca el bloque; si no está regresa -(posición de inserción) - 1. */
+    private int buscaBloque(char llave) {
+        int a = 0, b = bloques - 1;
+        while (a <= b) {
+            int m = (a + b) >>> 1;
+            if (llaves[m] < llave)
+                a = m + 1;
+            else if (llaves[m] > llave)
+                b = m - 1;
+            else
+                return m;
+        }
+        return -(a + 1);
+    }
+
+    /* Agrega un bloque al final; las llaves deben llegar en orden. */
+    private void agregaBloque(char llave, Contenedor contenedor) {
+        if (contenedor.cardinalidad == 0)
+            return;
+        if (bloques == llaves.length)
+            creceBloques();
+        llaves[bloques] = llave;
+        contenedores[bloques++] = contenedor;
+        elementos += contenedor.cardinalidad;
+    }
+
+    /* Duplica la capacidad de los arreglos de bloques. */
+    private void creceBloques() {
+        char[] nuevasLlaves = new char[llaves.length * 2];
+        Contenedor[] nuevos = new Contenedor[llaves.length * 2];
+        System.arraycopy(llaves, 0, nuevasLlaves, 0, bloques);
+        System.arraycopy(contenedores, 0, nuevos, 0, bloques);
+        llaves = nuevasLlaves;
+        contenedores = nuevos;
+    }
+
+    /**
+     * Agrega un elemento al conjunto.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    @Override public void agrega(Integer elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento inválido");
+        agrega(elemento.intValue());
+    }
+
+    /**
+     * Agrega un entero al conjunto.
+     * @param n el entero a agregar.
+     */
+    public void agrega(int n) {
+        char llave = (char)(n >>> 16);
+        int i = buscaBloque(llave);
+        if (i < 0) {
+            i = -i - 1;
+            if (bloques == llaves.length)
+                creceBloques();
+            System.arraycopy(llaves, i, llaves, i + 1, bloques - i);
+            System.arraycopy(contenedores, i, contenedores, i + 1, bloques - i);
+            llaves[i] = llave;
+            contenedores[i] = new ContenedorArreglo(4);
+            bloques++;
+        }
+        int anterior = contenedores[i].cardinalidad;
+        contenedores[i] = contenedores[i].agrega((char)n);
+        elementos += contenedores[i].cardinalidad - anterior;
+    }
+
+    /**
+     * Elimina un elemento del conjunto, si está.
+     * @param elemento el elemento a eliminar.
+     */
+    @Override public void elimina(Integer elemento) {
+        if (elemento == null)
+            return;
+        elimina(elemento.intValue());
+    }
+
+    /**
+     * Elimina un entero del conjunto, si está.
+     * @param n el entero a eliminar.
+     */
+    public void elimina(int n) {
+        int i = buscaBloque((char)(n >>> 16));
+        if (i < 0)
+            return;
+        int anterior = contenedores[i].cardinalidad;
+        contenedores[i] = contenedores[i].elimina((char)n);
+        elementos -= anterior - contenedores[i].cardinalidad;
+        if (contenedores[i].cardinalidad == 0) {
+            System.arraycopy(llaves, i + 1, llaves, i, bloques - i - 1);
+            System.arraycopy(contenedores, i + 1, contenedores, i, bloques - i - 1);
+            contenedores[--bloques] = null;
+        }
+    }
+
+    /**
+     * Nos dice si un elemento está en el conjunto.
+     * @param elemento el elemento que queremos verificar.
+     * @return <code>true</code> si el elemento está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean contiene(Integer elemento) {
+        if (elemento == null)
+            return false;
+        return contiene(elemento.intValue());
+    }
+
+    /**
+     * Nos dice si un entero está en el conjunto.
+     * @param n el entero que queremos verificar.
+     * @return <code>true</code> si el entero está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int n) {
+        int i = buscaBloque((char)(n >>> 16));
+        return i >= 0 && contenedores[i].contiene((char)n);
+    }
+
+    /**
+     * Nos dice si el conjunto es vacío.
+     * @return <code>true</code> si el conjunto es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa el número de elementos en el conjunto.
+     * @return el número de elementos en el conjunto.
+     */
+    @Override public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Limpia el conjunto de elementos, dejándolo vacío.
+     */
+    @Override public void limpia() {
+        llaves = new char[4];
+        contenedores = new Contenedor[4];
+        bloques = elementos = 0;
+    }
+
+    /**
+     * Regresa la intersección (AND) del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     * @return la intersección del conjunto y el conjunto recibido.
+     */
+    public ConjuntoBits interseccion(ConjuntoBits conjunto) {
+        ConjuntoBits r = new ConjuntoBits();
+        int i = 0, j = 0;
+        while (i < bloques && j < conjunto.bloques) {
+            if (llaves[i] < conjunto.llaves[j])
+                i++;
+            else if (llaves[i] > conjunto.llaves[j])
+                j++;
+            else
+                r.agregaBloque(llaves[i],
+                               contenedores[i++].interseccion(conjunto.contenedores[j++]));
+        }
+        return r;
+    }
+
+    /**
+     * Regresa la unión (OR) del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos unir con éste.
+     * @return la unión del conjunto y el conjunto recibido.
+     */
+    public ConjuntoBits union(ConjuntoBits conjunto) {
+        ConjuntoBits r = new ConjuntoBits();
+        int i = 0, j = 0;
+        while (i < bloques || j < conjunto.bloques) {
+            if (j == conjunto.bloques ||
+                (i < bloques && llaves[i] < conjunto.llaves[j])) {
+                r.agregaBloque(llaves[i], contenedores[i].copia());
+                i++;
+            } else if (i == bloques || llaves[i] > conjunto.llaves[j]) {
+                r.agregaBloque(conjunto.llaves[j], conjunto.contenedores[j].copia());
+                j++;
+            } else
+                r.agregaBloque(llaves[i],
+                               contenedores[i++].union(conjunto.contenedores[j++]));
+        }
+        return r;
+    }
+
+    /**
+     * Regresa la diferencia (AND NOT) del conjunto y el conjunto recibido: los
+     * elementos de este conjunto que no están en el recibido.
+     * @param conjunto el conjunto cuyos elementos queremos quitar.
+     * @return la diferencia del conjunto y el conjunto recibido.
+     */
+    public ConjuntoBits diferencia(ConjuntoBits conjunto) {
+        ConjuntoBits r = new ConjuntoBits();
+        int j = 0;
+        for (int i = 0; i < bloques; i++) {
+            while (j < conjunto.bloques && conjunto.llaves[j] < llaves[i])
+                j++;
+            if (j < conjunto.bloques && conjunto.llaves[j] == llaves[i])
+                r.agregaBloque(llaves[i],
+                               contenedores[i].diferencia(conjunto.contenedores[j]));
+            else
+                r.agregaBloque(llaves[i], contenedores[i].copia());
+        }
+        return r;
+    }
+
+    /**
+     * Regresa el número de elementos que el conjunto comparte con el conjunto
+     * recibido, sin construir la intersección.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     * @return el número de elementos de la intersección.
+     */
+    public int tamanoInterseccion(ConjuntoBits conjunto) {
+        int tamano = 0;
+        int i = 0, j = 0;
+        while (i < bloques && j < conjunto.bloques) {
+            if (llaves[i] < conjunto.llaves[j])
+                i++;
+            else if (llaves[i] > conjunto.llaves[j])
+                j++;
+            else
+                tamano += contenedores[i++].tamanoInterseccion(conjunto.contenedores[j++]);
+        }
+        return tamano;
+    }
+
+    /**
+     * Regresa el número de elementos de la unión del conjunto y el conjunto
+     * recibido, sin construirla.
+     * @param conjunto el conjunto que queremos unir con éste.
+     * @return el número de elementos de la unión.
+     */
+    public int tamanoUnion(ConjuntoBits conjunto) {
+        return elementos + conjunto.elementos - tamanoInterseccion(conjunto);
+    }
+
+    /**
+     * Regresa los elementos del conjunto en un arreglo, en orden.
+     * @return un arreglo con los elementos del conjunto.
+     */
+    public int[] aArreglo() {
+        int[] arreglo = new int[elementos];
+        int n = 0;
+        for (int i = 0; i < bloques; i++) {
+            int alto = llaves[i] << 16;
+            for (char valor : contenedores[i].valores())
+                arreglo[n++] = alto | valor;
+        }
+        return arreglo;
+    }
+
+    /**
+     * Regresa una representación en cadena del conjunto.
+     * @return una representación en cadena del conjunto.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder("{ ");
+        int[] arreglo = aArreglo();
+        for (int i = 0; i < arreglo.length; i++) {
+            sb.append(arreglo[i]);
+            sb.append(i < arreglo.length - 1 ? ", " : " ");
+        }
+        return sb.append("}").toString();
+    }
+
+    /**
+     * Nos dice si el conjunto es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al conjunto.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         ConjuntoBits, y tiene los mismos elementos.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        ConjuntoBits c = (ConjuntoBits)o;
+        if (elementos != c.elementos || bloques != c.bloques)
+            return false;
+        for (int i = 0; i < bloques; i++)
+            if (llaves[i] != c.llaves[i] ||
+                contenedores[i].cardinalidad != c.contenedores[i].cardinalidad ||
+                contenedores[i].tamanoInterseccion(c.contenedores[i]) !=
+                contenedores[i].cardinalidad)
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa una dispersión del conjunto, congruente con {@link #equals}:
+     * se pliegan la llave y los valores de cada bloque, en orden, así que no
+     * depende de si el bloque es un arreglo o un mapa de bits.
+     * @return una dispersión del conjunto.
+     */
+    @Override public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < bloques; i++) {
+            h = 31 * h + llaves[i];
+            for (char valor : contenedores[i].valores())
+                h = 31 * h + valor;
+        }
+        return h;
+    }
+
+    /**
+     * Regresa un iterador para iterar el conjunto en orden.
+     * @return un iterador para iterar el conjunto.
+     */
+    @Override public Iterator<Integer> iterator() {
+        return new Iterador();
+    }
+}
@@ -292,12 +292,15 @@ public class Diccionario<K, V> implements Iterable<V> {
         int i = dispersor.dispersa(llave) & getMascara();
         if(entradas[i] == null) throw new NoSuchElementException("No se encontró la llave");
         for(Entrada entrada : entradas[i]){
-          if(entrada.llave.equals(llave)) entradas[i].elimina(entrada);
-          if(entradas[i].esVacia())
-            entradas[i] = null;
-          elementos--;
-          break;
+          if(entrada.llave.equals(llave)){
+            entradas[i].elimina(entrada);
+            if(entradas[i].esVacia())
+              entradas[i] = null;
+            elementos--;
+            return;
+          }
         }
+        throw new NoSuchElementException("No se encontró la llave");
     }
 
     /**
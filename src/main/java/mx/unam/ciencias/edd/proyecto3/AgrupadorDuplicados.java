@@ -0,0 +1,98 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+
+/**
+* Clase que agrupa a los archivos casi idénticos: aquellos cuyas huellas SimHash están a lo
+* más a cierta distancia de Hamming. La huella se parte en umbral + 1 bandas; si dos huellas
+* difieren en a lo más umbral bits, coinciden por completo en al menos una banda, así que sólo
+* se comparan los archivos que comparten alguna banda.
+* La relación no es transitiva (A puede parecerse a B y B a C sin que A se parezca a C), así que
+* los grupos no son su cerradura: los archivos se recorren en orden y cada uno se une al grupo
+* del representante más cercano (a igual distancia, el de menor índice) que esté a lo más a la
+* distancia umbral, o empieza un grupo si no hay ninguno. Todos los miembros de un grupo están
+* a lo más a esa distancia de su representante, que es el archivo con el menor índice del grupo.
+*/
+public class AgrupadorDuplicados{
+  /* Huellas de los archivos a agrupar; null para las entradas que se ignoran */
+  private Long[] huellas;
+  /* Distancia de Hamming máxima entre dos archivos casi idénticos */
+  private int umbral;
+
+  /**
+  * Constructor de la clase AgrupadorDuplicados
+  * @param Archivo[] archivos a agrupar; se ignoran las entradas null
+  * @param int distancia de Hamming máxima entre dos archivos casi idénticos (entre 0 y 63)
+  */
+  public AgrupadorDuplicados(Archivo[] archivos, int umbral){
+    this(umbral);
+    this.huellas = new Long[archivos.length];
+    for(int i = 0; i < archivos.length; i++)
+      huellas[i] = archivos[i] == null ? null : archivos[i].getHuella();
+  }
+
+  /**
+  * Constructor de la clase AgrupadorDuplicados a partir de las huellas SimHash
+  * @param long[] huellas de los archivos a agrupar
+  * @param int distancia de Hamming máxima entre dos archivos casi idénticos (entre 0 y 63)
+  */
+  public AgrupadorDuplicados(long[] huellas, int umbral){
+    this(umbral);
+    this.huellas = new Long[huellas.length];
+    for(int i = 0; i < huellas.length; i++)
+      this.huellas[i] = huellas[i];
+  }
+
+  /* Constructor que sólo valida y guarda el umbral */
+  private AgrupadorDuplicados(int umbral){
+    if(umbral < 0 || umbral > 63) throw new IllegalArgumentException("Umbral inválido: "+umbral);
+    this.umbral = umbral;
+  }
+
+  /**
+  * Método que agrupa a los archivos
+  * @return int[] el índice del representante del grupo de cada archivo (-1 para las entradas null)
+  */
+  @SuppressWarnings("unchecked")
+  public int[] agrupa(){
+    int bandas = umbral + 1;
+    long[] mascaras = new long[bandas];
+    // Sólo los representantes se guardan en las cubetas de cada banda
+    Diccionario<Long, Lista<Integer>>[] cubetas = (Diccionario<Long, Lista<Integer>>[])new Diccionario[bandas];
+    for(int b = 0; b < bandas; b++){
+      int inicio = b * 64 / bandas;
+      int fin = (b + 1) * 64 / bandas;
+      mascaras[b] = (fin - inicio == 64) ? -1L : ((1L << (fin - inicio)) - 1) << inicio;
+      cubetas[b] = new Diccionario<>(huellas.length);
+    }
+    int[] representantes = new int[huellas.length];
+    for(int i = 0; i < huellas.length; i++){
+      representantes[i] = -1;
+      if(huellas[i] == null) continue;
+      long huella = huellas[i];
+      int mejor = -1, distanciaMejor = umbral + 1;
+      for(int b = 0; b < bandas; b++){
+        Long llave = huella & mascaras[b];
+        if(!cubetas[b].contiene(llave)) continue;
+        for(int r : cubetas[b].get(llave)){
+          int distancia = SimHash.distancia(huella, huellas[r]);
+          if(distancia < distanciaMejor || (distancia == distanciaMejor && r < mejor)){
+            mejor = r;
+            distanciaMejor = distancia;
+          }
+        }
+      }
+      if(mejor != -1){
+        representantes[i] = mejor;
+        continue;
+      }
+      representantes[i] = i;
+      for(int b = 0; b < bandas; b++){
+        Long llave = huella & mascaras[b];
+        if(!cubetas[b].contiene(llave))
+          cubetas[b].agrega(llave, new Lista<Integer>());
+        cubetas[b].get(llave).agregaFinal(i);
+      }
+    }
+    return representantes;
+  }
+}
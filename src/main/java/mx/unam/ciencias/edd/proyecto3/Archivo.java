@@ -8,31 +8,45 @@ import java.util.Iterator;
 * poder generar la gráfica y ver la intersección entre cada archivo
 */
 public class Archivo{
-  /* Conjunto de palabras para cada archivo */
-  private Conjunto<String> palabras;
+  /* Longitud mínima que debe tener una palabra para relacionar dos archivos */
+  public static final int LONGITUD_MINIMA = 7;
+  /* Identificadores de las palabras de cada archivo con al menos LONGITUD_MINIMA caracteres */
+  private ConjuntoBits palabras;
+  /* Vocabulario que comparten todos los archivos */
+  private Vocabulario vocabulario;
   /* Total de palabras que tiene cada archivo */
   private int totalPalabras;
   /* Nombre del archivo (referencia html)*/
   private String nombre;
   /* Nombre original */
   private String nombreOriginal;
+  /* Huella SimHash del archivo */
+  private long huella;
   /**
   * Constructor de la clase Archivo
   * @param String nombre
   * @param Diccionario<String, Integer> palabras
+  * @param String nombre original
+  * @param Vocabulario vocabulario que comparten todos los archivos
   */
-  public Archivo(String nombre, Diccionario<String, Integer> diccionario, String nombreOriginal){
+  public Archivo(String nombre, Diccionario<String, Integer> diccionario, String nombreOriginal, Vocabulario vocabulario){
     this.nombre = nombre;
     this.totalPalabras = 0;
-    this.palabras = new Conjunto<String>();
+    this.palabras = new ConjuntoBits();
+    this.vocabulario = vocabulario;
     this.nombreOriginal = nombreOriginal;
     // Tenemos que llenar al conjunto con los elementos del diccionario
+    SimHash simHash = new SimHash();
     Iterator<String> iteradorLlaves = diccionario.iteradorLlaves();
     while(iteradorLlaves.hasNext()){
       String llave = iteradorLlaves.next();
-      totalPalabras+=diccionario.get(llave);
-      palabras.agrega(llave);
+      int apariciones = diccionario.get(llave);
+      totalPalabras+=apariciones;
+      simHash.agrega(llave, apariciones);
+      if(llave.length() >= LONGITUD_MINIMA)
+        palabras.agrega(vocabulario.identificador(llave));
     }
+    this.huella = simHash.huella();
   }
   /**
   * Método para imprimir la representación en cadena del Archivo
@@ -49,6 +63,13 @@ public class Archivo{
     return this.nombreOriginal;
   }
   /**
+  * Método que regresa la huella SimHash del archivo
+  * @return long huella
+  */
+  public long getHuella(){
+    return this.huella;
+  }
+  /**
   * Método que regresa la cantidad de palabras que tiene el archivo
   * @return int cantidad de palabras
   */
@@ -58,13 +79,50 @@ public class Archivo{
   /**
   * Método que compara dos archivos y te dice si tienen en común palabras con más de 7 dígitos
   * @param Archivo
-  * @return Intersección de las palabras con más de 7 caracteres 
+  * @return Intersección de las palabras con más de 7 caracteres, en el orden del vocabulario
+  */
+  public Lista<String> comparaArchivo(Archivo arch){
+    return comparaArchivo(arch, 0);
+  }
+  /**
+  * Método que regresa las primeras palabras con más de 7 caracteres que tienen en común dos archivos
+  * @param Archivo
+  * @param int número máximo de palabras; 0 para todas
+  * @return Intersección de las palabras con más de 7 caracteres, en el orden del vocabulario
   */
-  public Conjunto<String> comparaArchivo(Archivo arch){
-    Conjunto<String> interseccion = this.palabras.interseccion(arch.palabras);
-    if(interseccion.getElementos() == 0) return interseccion;
-    for(String elemento : interseccion)
-      if(elemento.length() < 7) interseccion.elimina(elemento);
+  public Lista<String> comparaArchivo(Archivo arch, int limite){
+    Lista<String> interseccion = new Lista<>();
+    int[] identificadores = this.palabras.interseccion(arch.palabras).aArreglo();
+    int n = limite > 0 ? Math.min(limite, identificadores.length) : identificadores.length;
+    for(int k = 0; k < n; k++)
+      interseccion.agregaFinal(vocabulario.getPalabra(identificadores[k]));
     return interseccion;
   }
+  /**
+  * Método que cuenta las palabras con más de 7 caracteres que comparten dos archivos
+  * sin construir su intersección
+  * @param Archivo
+  * @return int número de palabras en común
+  */
+  public int palabrasEnComun(Archivo arch){
+    return this.palabras.tamanoInterseccion(arch.palabras);
+  }
+  /**
+  * Método que califica qué tan parecidos son dos archivos
+  * @param Archivo
+  * @param MedidaSimilitud medida que se usará
+  * @return double similitud; 0 si no comparten palabras
+  */
+  public double similitud(Archivo arch, MedidaSimilitud medida){
+    int comunes = palabrasEnComun(arch);
+    if(comunes == 0) return 0;
+    switch(medida){
+      case JACCARD:
+        return (double)comunes / (palabras.getElementos() + arch.palabras.getElementos() - comunes);
+      case TRASLAPE:
+        return (double)comunes / Math.min(palabras.getElementos(), arch.palabras.getElementos());
+      default:
+        return comunes;
+    }
+  }
 }
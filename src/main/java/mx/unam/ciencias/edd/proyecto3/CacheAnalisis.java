@@ -0,0 +1,359 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/**
+* Clase para el manifiesto que se guarda en el directorio de salida y que permite volver a
+* analizar sólo los archivos que cambiaron. Por cada archivo de entrada guarda su ruta,
+* tamaño, fecha de modificación y huella de contenido, el conteo de sus palabras, el nombre
+* de la página que se generó y cada archivo que se escribió para ella (la página y las de su
+* lista de palabras, sin comprimir y comprimidas), con su huella, tamaño y fecha. Si un archivo no cambió se reutiliza su
+* conteo, y si además todos los archivos de su página siguen en el directorio tal y como se
+* escribieron tampoco se vuelve a dibujar.
+*
+* El manifiesto es binario: un encabezado con la versión y la firma de la configuración con
+* la que se generaron las páginas, y después las entradas; las palabras de cada una se guardan
+* sólo con lo que no comparten con la anterior, en el orden en el que las recorre el
+* diccionario. Al leerlas en ese orden en un diccionario nuevo se recorren igual que el
+* conteo original, así que las palabras que empatan quedan en el mismo orden en las páginas
+* que se vuelven a dibujar.
+*/
+public class CacheAnalisis{
+  /* Nombre del manifiesto en el directorio de salida */
+  public static final String NOMBRE = ".manifiesto-analisis";
+  /* Número mágico del manifiesto */
+  private static final int MAGIA = 0x45444433;
+  /* Versión del formato del manifiesto */
+  private static final int VERSION = 3;
+
+  /* Clase para un archivo escrito para la página de una entrada */
+  private static class ArchivoPagina{
+    /* Nombre del archivo en el directorio de salida */
+    private String nombre;
+    /* Huella del contenido (sin comprimir) del archivo */
+    private long huella;
+    /* Tamaño del archivo */
+    private long tamano;
+    /* Fecha de modificación del archivo */
+    private long modificado;
+
+    /* Nos dice si el archivo sigue en el directorio tal y como se escribió. */
+    private boolean intacto(File directorio){
+      File f = new File(directorio, nombre);
+      return f.exists() && f.length() == tamano && f.lastModified() == modificado;
+    }
+  }
+
+  /**
+  * Clase para la información guardada de un archivo de entrada
+  */
+  public static class Entrada{
+    /* Ruta canónica del archivo de entrada */
+    private String ruta;
+    /* Tamaño del archivo de entrada */
+    private long tamano;
+    /* Fecha de modificación del archivo de entrada */
+    private long modificado;
+    /* Huella del contenido del archivo de entrada */
+    private long huella;
+    /* Conteo de las palabras del archivo */
+    private Diccionario<String, Integer> palabras;
+    /* Nombre de la página generada */
+    private String pagina;
+    /* Archivos escritos para la página */
+    private Lista<ArchivoPagina> archivos;
+
+    /* Constructor privado; las entradas sólo las crea el manifiesto. */
+    private Entrada(){}
+
+    /**
+    * Regresa el conteo de las palabras del archivo
+    * @return Diccionario<String, Integer> palabras con sus apariciones
+    */
+    public Diccionario<String, Integer> getPalabras(){
+      return palabras;
+    }
+  }
+
+  /* Directorio de salida */
+  private File directorio;
+  /* Firma de la configuración con la que se generan las páginas */
+  private long configuracion;
+  /* Si las páginas guardadas se generaron con la misma configuración */
+  private boolean mismaConfiguracion;
+  /* Entradas leídas del manifiesto, por ruta */
+  private Diccionario<String, Entrada> anteriores;
+  /* Archivos de las páginas leídos del manifiesto, por nombre */
+  private Diccionario<String, ArchivoPagina> paginas;
+  /* Entradas del análisis actual, en orden */
+  private Lista<Entrada> actuales;
+  /* Número de archivos cuyo conteo se reutilizó */
+  private int reutilizados;
+  /* Número de páginas que no se volvieron a dibujar */
+  private int paginasVigentes;
+
+  /**
+  * Constructor de la clase CacheAnalisis; lee el manifiesto del directorio si existe
+  * @param File directorio de salida
+  * @param long firma de la configuración con la que se generan las páginas
+  */
+  public CacheAnalisis(File directorio, long configuracion){
+    this.directorio = directorio;
+    this.configuracion = configuracion;
+    this.anteriores = new Diccionario<>();
+    this.paginas = new Diccionario<>();
+    this.actuales = new Lista<>();
+    File manifiesto = new File(directorio, NOMBRE);
+    if(manifiesto.exists()){
+      try{
+        lee(manifiesto);
+      }catch(IOException | RuntimeException e){
+        System.out.println("No se ha podido leer el manifiesto; se analizará todo de nuevo");
+        anteriores.limpia();
+        paginas.limpia();
+        mismaConfiguracion = false;
+      }
+    }
+  }
+
+  /**
+  * Busca la información guardada de un archivo de entrada; sólo la regresa si el archivo no
+  * ha cambiado (mismo tamaño y fecha o, si cambió la fecha, mismo contenido)
+  * @param File archivo de entrada
+  * @return Entrada información guardada; null si el archivo es nuevo o cambió
+  * @throws IOException si no se puede leer el archivo
+  */
+  public Entrada busca(File archivo) throws IOException{
+    Entrada e = anteriores.contiene(ruta(archivo)) ? anteriores.get(ruta(archivo)) : null;
+    if(e == null || e.tamano != archivo.length())
+      return null;
+    if(e.modificado != archivo.lastModified()){
+      if(e.huella != HuellaContenido.deArchivo(archivo))
+        return null;
+      e.modificado = archivo.lastModified();
+    }
+    reutilizados++;
+    return e;
+  }
+
+  /**
+  * Nos dice si la página de una entrada sigue en el directorio tal y como se generó, con la
+  * misma configuración y el mismo nombre, de modo que no hay que volver a dibujarla. Basta
+  * con que falte o haya cambiado uno de los archivos que se escribieron para ella
+  * @param Entrada información guardada del archivo
+  * @param String nombre que debe tener la página
+  * @return true si la página se puede conservar
+  */
+  public boolean paginaVigente(Entrada e, String pagina){
+    if(!mismaConfiguracion || e.pagina == null || !e.pagina.equals(pagina))
+      return false;
+    for(ArchivoPagina a : e.archivos)
+      if(!a.intacto(directorio))
+        return false;
+    paginasVigentes++;
+    return true;
+  }
+
+  /**
+  * Regresa la huella (sin comprimir) de una página que ya está en el directorio, para no
+  * reemplazarla si se vuelve a generar igual. Si el manifiesto la registró y ni la página ni
+  * su versión comprimida (si también se registró) se han tocado se usa la huella guardada; si
+  * no, y la página está sin comprimir y no tiene versión comprimida, se calcula. Si una de las
+  * dos falta o cambió no se regresa, para que se vuelvan a escribir ambas.
+  * Sólo se regresa si la página se generó con la misma configuración.
+  * @param String nombre de la página
+  * @return Long huella de la página; null si no existe o no se conoce
+  * @throws IOException si no se puede leer la página
+  */
+  public Long huellaPagina(String pagina) throws IOException{
+    File f = new File(directorio, pagina);
+    if(!mismaConfiguracion || !f.exists())
+      return null;
+    ArchivoPagina a = paginas.contiene(pagina) ? paginas.get(pagina) : null;
+    String comprimida = pagina + ".gz";
+    ArchivoPagina gz = paginas.contiene(comprimida) ? paginas.get(comprimida) : null;
+    if(a != null)
+      return a.intacto(directorio) && (gz == null || gz.intacto(directorio)) ? a.huella : null;
+    if(pagina.endsWith(".gz") || new File(directorio, comprimida).exists())
+      return null;
+    return HuellaContenido.deArchivo(f);
+  }
+
+  /**
+  * Registra la información de un archivo del análisis actual cuya página se conserva
+  * @param Entrada información guardada del archivo
+  */
+  public void conserva(Entrada e){
+    actuales.agrega(e);
+  }
+
+  /**
+  * Registra la información de un archivo del análisis actual
+  * @param File archivo de entrada
+  * @param Entrada información guardada del archivo, si se reutilizó su conteo; null si no
+  * @param Diccionario<String, Integer> conteo de las palabras del archivo
+  * @param String nombre de la página generada
+  * @param Diccionario<String, Long> archivos escritos para la página, con la huella de su contenido
+  * @throws IOException si no se puede leer el archivo de entrada
+  */
+  public void registra(File archivo, Entrada anterior, Diccionario<String, Integer> palabras,
+                       String pagina, Diccionario<String, Long> escritos) throws IOException{
+    Entrada e = new Entrada();
+    e.ruta = ruta(archivo);
+    e.tamano = archivo.length();
+    e.modificado = archivo.lastModified();
+    e.huella = anterior != null ? anterior.huella : HuellaContenido.deArchivo(archivo);
+    e.palabras = palabras;
+    e.pagina = pagina;
+    e.archivos = new Lista<>();
+    Iterator<String> iterador = escritos.iteradorLlaves();
+    while(iterador.hasNext()){
+      ArchivoPagina a = new ArchivoPagina();
+      a.nombre = iterador.next();
+      a.huella = escritos.get(a.nombre);
+      e.archivos.agrega(a);
+    }
+    actuales.agrega(e);
+  }
+
+  /**
+  * Guarda el manifiesto del análisis actual. Se debe llamar cuando ya se terminaron de
+  * escribir todas las páginas, porque se guardan su tamaño y fecha de modificación.
+  * @throws IOException si no se puede escribir el manifiesto
+  */
+  public void guarda() throws IOException{
+    for(Entrada e : actuales)
+      for(ArchivoPagina a : e.archivos){
+        File f = new File(directorio, a.nombre);
+        a.tamano = f.length();
+        a.modificado = f.lastModified();
+      }
+    File temporal = new File(directorio, NOMBRE + ".tmp");
+    try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16))){
+      out.writeInt(MAGIA);
+      out.writeInt(VERSION);
+      out.writeLong(configuracion);
+      out.writeInt(actuales.getLongitud());
+      for(Entrada e : actuales)
+        escribe(out, e);
+    }
+    Files.move(temporal.toPath(), new File(directorio, NOMBRE).toPath(),
+               StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /* Escribe una entrada del manifiesto. */
+  private static void escribe(DataOutputStream out, Entrada e) throws IOException{
+    out.writeUTF(e.ruta);
+    out.writeLong(e.tamano);
+    out.writeLong(e.modificado);
+    out.writeLong(e.huella);
+    out.writeUTF(e.pagina);
+    out.writeInt(e.archivos.getLongitud());
+    for(ArchivoPagina a : e.archivos){
+      out.writeUTF(a.nombre);
+      out.writeLong(a.huella);
+      out.writeLong(a.tamano);
+      out.writeLong(a.modificado);
+    }
+    out.writeInt(e.palabras.getElementos());
+    Iterator<String> iterador = e.palabras.iteradorLlaves();
+    String anterior = "";
+    while(iterador.hasNext()){
+      String palabra = iterador.next();
+      int comun = prefijoComun(anterior, palabra);
+      out.writeShort(comun);
+      out.writeUTF(palabra.substring(comun));
+      out.writeInt(e.palabras.get(palabra));
+      anterior = palabra;
+    }
+  }
+
+  /* Lee el manifiesto. */
+  private void lee(File manifiesto) throws IOException{
+    try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(manifiesto), 1 << 16))){
+      if(in.readInt() != MAGIA || in.readInt() != VERSION)
+        throw new IOException("Manifiesto inválido");
+      mismaConfiguracion = in.readLong() == configuracion;
+      int n = in.readInt();
+      for(int i = 0; i < n; i++){
+        Entrada e = lee(in);
+        anteriores.agrega(e.ruta, e);
+        for(ArchivoPagina a : e.archivos)
+          paginas.agrega(a.nombre, a);
+      }
+    }catch(EOFException eof){
+      throw new IOException("Manifiesto incompleto", eof);
+    }
+  }
+
+  /* Lee una entrada del manifiesto. */
+  private static Entrada lee(DataInputStream in) throws IOException{
+    Entrada e = new Entrada();
+    e.ruta = in.readUTF();
+    e.tamano = in.readLong();
+    e.modificado = in.readLong();
+    e.huella = in.readLong();
+    e.pagina = in.readUTF();
+    int archivos = in.readInt();
+    e.archivos = new Lista<>();
+    for(int i = 0; i < archivos; i++){
+      ArchivoPagina a = new ArchivoPagina();
+      a.nombre = in.readUTF();
+      a.huella = in.readLong();
+      a.tamano = in.readLong();
+      a.modificado = in.readLong();
+      e.archivos.agrega(a);
+    }
+    int palabras = in.readInt();
+    // Con la capacidad predeterminada crece igual que el diccionario del conteo
+    e.palabras = new Diccionario<>();
+    String anterior = "";
+    for(int i = 0; i < palabras; i++){
+      int comun = in.readUnsignedShort();
+      String palabra = anterior.substring(0, comun) + in.readUTF();
+      e.palabras.agrega(palabra, in.readInt());
+      anterior = palabra;
+    }
+    return e;
+  }
+
+  /* Regresa la longitud del prefijo común de dos cadenas. */
+  private static int prefijoComun(String a, String b){
+    int n = Math.min(Math.min(a.length(), b.length()), 0xffff);
+    int i = 0;
+    while(i < n && a.charAt(i) == b.charAt(i)) i++;
+    return i;
+  }
+
+  /* Regresa la ruta canónica de un archivo. */
+  private static String ruta(File archivo) throws IOException{
+    return archivo.getCanonicalPath();
+  }
+
+  /**
+  * Regresa el número de archivos cuyo conteo se reutilizó
+  * @return int archivos reutilizados
+  */
+  public int getReutilizados(){
+    return reutilizados;
+  }
+
+  /**
+  * Regresa el número de páginas que no se volvieron a dibujar
+  * @return int páginas conservadas
+  */
+  public int getPaginasVigentes(){
+    return paginasVigentes;
+  }
+}
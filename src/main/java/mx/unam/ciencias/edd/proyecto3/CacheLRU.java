@@ -0,0 +1,221 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+
+/**
+* Clase para guardar en memoria los resultados más usados recientemente, hasta un tamaño
+* máximo. Cada elemento está en un {@link Diccionario} y a la vez en una lista doblemente
+* ligada ordenada del más reciente al menos reciente; buscar, agregar y expulsar al menos
+* reciente toman tiempo constante. Cada elemento tiene un tamaño (por ejemplo, sus bytes) y
+* se expulsan elementos hasta que la suma de los tamaños no exceda la capacidad.
+* Todos los métodos son sincronizados, así que se puede compartir entre varios hilos.
+* @param <K> tipo de las llaves
+* @param <V> tipo de los valores
+*/
+public class CacheLRU<K, V>{
+  /* Elemento de la cache */
+  private class Nodo{
+    /* Llave del elemento */
+    K llave;
+    /* Valor del elemento */
+    V valor;
+    /* Tamaño del elemento */
+    long tamano;
+    /* Elementos usados antes y después de éste */
+    Nodo anterior;
+    Nodo siguiente;
+  }
+
+  /* Nodo de cada llave */
+  private Diccionario<K, Nodo> nodos;
+  /* Elemento usado más recientemente */
+  private Nodo cabeza;
+  /* Elemento usado menos recientemente */
+  private Nodo rabo;
+  /* Suma máxima de los tamaños */
+  private long capacidad;
+  /* Suma de los tamaños */
+  private long tamano;
+  /* Número de búsquedas que encontraron el elemento */
+  private long aciertos;
+  /* Número de búsquedas que no lo encontraron */
+  private long fallos;
+  /* Número de elementos expulsados para hacer lugar */
+  private long expulsiones;
+
+  /**
+  * Constructor de la clase CacheLRU
+  * @param long suma máxima de los tamaños de los elementos
+  */
+  public CacheLRU(long capacidad){
+    if(capacidad < 1) throw new IllegalArgumentException("Capacidad inválida: "+capacidad);
+    this.capacidad = capacidad;
+    this.nodos = new Diccionario<>();
+  }
+
+  /**
+  * Busca un elemento y lo marca como el usado más recientemente
+  * @param K llave del elemento
+  * @return V valor del elemento; null si no está
+  */
+  public synchronized V get(K llave){
+    Nodo n = nodos.contiene(llave) ? nodos.get(llave) : null;
+    if(n == null){
+      fallos++;
+      return null;
+    }
+    aciertos++;
+    desliga(n);
+    ligaAlInicio(n);
+    return n.valor;
+  }
+
+  /**
+  * Nos dice si un elemento está en la cache, sin marcarlo como usado ni contar la búsqueda
+  * @param K llave del elemento
+  * @return true si está
+  */
+  public synchronized boolean contiene(K llave){
+    return nodos.contiene(llave);
+  }
+
+  /**
+  * Agrega un elemento de tamaño 1
+  * @param K llave del elemento
+  * @param V valor del elemento
+  */
+  public void agrega(K llave, V valor){
+    agrega(llave, valor, 1);
+  }
+
+  /**
+  * Agrega (o reemplaza) un elemento como el usado más recientemente y expulsa a los menos
+  * recientes hasta que quepa; si es más grande que la capacidad no se guarda
+  * @param K llave del elemento
+  * @param V valor del elemento
+  * @param long tamaño del elemento
+  */
+  public synchronized void agrega(K llave, V valor, long tamano){
+    if(tamano < 0) throw new IllegalArgumentException("Tamaño inválido: "+tamano);
+    elimina(llave);
+    if(tamano > capacidad) return;
+    while(this.tamano + tamano > capacidad){
+      Nodo viejo = rabo;
+      desliga(viejo);
+      nodos.elimina(viejo.llave);
+      this.tamano -= viejo.tamano;
+      expulsiones++;
+    }
+    Nodo n = new Nodo();
+    n.llave = llave;
+    n.valor = valor;
+    n.tamano = tamano;
+    ligaAlInicio(n);
+    nodos.agrega(llave, n);
+    this.tamano += tamano;
+  }
+
+  /**
+  * Elimina un elemento
+  * @param K llave del elemento
+  */
+  public synchronized void elimina(K llave){
+    if(!nodos.contiene(llave)) return;
+    Nodo n = nodos.get(llave);
+    desliga(n);
+    nodos.elimina(llave);
+    tamano -= n.tamano;
+  }
+
+  /**
+  * Elimina todos los elementos; las métricas no se reinician
+  */
+  public synchronized void limpia(){
+    nodos.limpia();
+    cabeza = rabo = null;
+    tamano = 0;
+  }
+
+  /* Quita un nodo de la lista. */
+  private void desliga(Nodo n){
+    if(n.anterior != null) n.anterior.siguiente = n.siguiente;
+    else cabeza = n.siguiente;
+    if(n.siguiente != null) n.siguiente.anterior = n.anterior;
+    else rabo = n.anterior;
+    n.anterior = n.siguiente = null;
+  }
+
+  /* Pone un nodo al inicio de la lista. */
+  private void ligaAlInicio(Nodo n){
+    n.siguiente = cabeza;
+    if(cabeza != null) cabeza.anterior = n;
+    cabeza = n;
+    if(rabo == null) rabo = n;
+  }
+
+  /**
+  * Regresa el número de elementos
+  * @return int número de elementos
+  */
+  public synchronized int getElementos(){
+    return nodos.getElementos();
+  }
+
+  /**
+  * Regresa la suma de los tamaños de los elementos
+  * @return long tamaño ocupado
+  */
+  public synchronized long getTamano(){
+    return tamano;
+  }
+
+  /**
+  * Regresa la suma máxima de los tamaños de los elementos
+  * @return long capacidad
+  */
+  public long getCapacidad(){
+    return capacidad;
+  }
+
+  /**
+  * Regresa el número de búsquedas que encontraron el elemento
+  * @return long aciertos
+  */
+  public synchronized long getAciertos(){
+    return aciertos;
+  }
+
+  /**
+  * Regresa el número de búsquedas que no encontraron el elemento
+  * @return long fallos
+  */
+  public synchronized long getFallos(){
+    return fallos;
+  }
+
+  /**
+  * Regresa el número de elementos expulsados para hacer lugar
+  * @return long expulsiones
+  */
+  public synchronized long getExpulsiones(){
+    return expulsiones;
+  }
+
+  /**
+  * Regresa la fracción de búsquedas que encontraron el elemento
+  * @return double tasa de aciertos; 0 si no ha habido búsquedas
+  */
+  public synchronized double getTasaAciertos(){
+    long busquedas = aciertos + fallos;
+    return busquedas == 0 ? 0 : (double)aciertos / busquedas;
+  }
+
+  /**
+  * Regresa un resumen de las métricas
+  * @return String resumen
+  */
+  @Override public synchronized String toString(){
+    return String.format("elementos=%d tamaño=%d/%d aciertos=%d fallos=%d (%.1f%%) expulsiones=%d",
+                         nodos.getElementos(), tamano, capacidad, aciertos, fallos,
+                         100 * getTasaAciertos(), expulsiones);
+  }
+}
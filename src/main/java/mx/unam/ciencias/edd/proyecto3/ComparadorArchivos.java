@@ -0,0 +1,417 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+* Clase que compara todos los pares de archivos para encontrar las palabras que comparten.
+* El triángulo superior de la matriz de pares (i, j) con i menor que j se divide en mosaicos
+* de TAMANO_MOSAICO x TAMANO_MOSAICO archivos, que se procesan en paralelo en un ForkJoinPool.
+* Los resultados se mezclan en el orden (i, j), sin importar el número de hilos.
+* Cada par se califica con una MedidaSimilitud y, si se pide, sólo se conservan los pares
+* que están entre los N vecinos más parecidos de alguno de sus dos archivos.
+* Para gráficas muy grandes se puede reducir el detalle: descartar los pares con similitud
+* menor a un umbral, conservar sólo el esqueleto (bosque generador de máxima similitud),
+* limitar el número de relaciones de cada archivo y el de palabras que se listan por par.
+*/
+public class ComparadorArchivos{
+  /* Número de archivos por lado de cada mosaico */
+  public static final int TAMANO_MOSAICO = 32;
+
+  /**
+  * Clase que representa a dos archivos que comparten palabras
+  */
+  public static class Relacion{
+    /* Índice del primer archivo */
+    private int i;
+    /* Índice del segundo archivo */
+    private int j;
+    /* Similitud entre los archivos */
+    private double similitud;
+    /* Palabras que comparten los archivos */
+    private Lista<String> palabras;
+    /* Número total de palabras que comparten los archivos */
+    private int totalPalabras;
+    /* Nos dice si la relación quedó entre los vecinos de alguno de sus archivos */
+    private boolean seleccionada;
+    /* Constructor de la clase Relacion */
+    private Relacion(int i, int j, double similitud){
+      this.i = i;
+      this.j = j;
+      this.similitud = similitud;
+    }
+    /**
+    * Método que regresa el índice del primer archivo de la relación
+    * @return int índice
+    */
+    public int getPrimero(){
+      return i;
+    }
+    /**
+    * Método que regresa el índice del segundo archivo de la relación
+    * @return int índice
+    */
+    public int getSegundo(){
+      return j;
+    }
+    /**
+    * Método que regresa la similitud entre los archivos
+    * @return double similitud
+    */
+    public double getSimilitud(){
+      return similitud;
+    }
+    /**
+    * Método que regresa las palabras que comparten los archivos
+    * @return Lista<String> palabras en común
+    */
+    public Lista<String> getPalabras(){
+      return palabras;
+    }
+    /**
+    * Método que regresa cuántas palabras comparten los archivos; puede ser más que las que
+    * regresa {@link #getPalabras} si se limitó el número de palabras por par
+    * @return int número de palabras en común
+    */
+    public int getTotalPalabras(){
+      return totalPalabras;
+    }
+  }
+
+  /* Clase que representa a una relación como candidata a vecina de uno de sus archivos */
+  private static class Candidato implements ComparableIndexable<Candidato>{
+    /* La relación */
+    private Relacion relacion;
+    /* Índice del otro archivo de la relación */
+    private int otro;
+    /* Índice en el montículo */
+    private int indice = -1;
+    /* Constructor del candidato */
+    public Candidato(Relacion relacion, int otro){
+      this.relacion = relacion;
+      this.otro = otro;
+    }
+    @Override public int getIndice(){
+      return indice;
+    }
+    @Override public void setIndice(int indice){
+      this.indice = indice;
+    }
+    /* A igual similitud, el candidato con el índice más grande es el menor, de modo
+     * que la selección no depende del orden en que llegan los candidatos. */
+    @Override public int compareTo(Candidato candidato){
+      if(relacion.similitud != candidato.relacion.similitud)
+        return relacion.similitud < candidato.relacion.similitud ? -1 : 1;
+      return candidato.otro - otro;
+    }
+  }
+
+  /* Tarea que procesa un rango de mosaicos, dividiéndolo mientras tenga más de uno */
+  private class TareaMosaicos extends RecursiveAction{
+    /* Primer mosaico del rango */
+    private int inicio;
+    /* Mosaico siguiente al último del rango */
+    private int fin;
+    /* Constructor de la tarea */
+    public TareaMosaicos(int inicio, int fin){
+      this.inicio = inicio;
+      this.fin = fin;
+    }
+    @Override protected void compute(){
+      if(fin - inicio == 1){
+        resultados[inicio] = comparaMosaico(filaMosaico[inicio], columnaMosaico[inicio]);
+        return;
+      }
+      int mitad = (inicio + fin) / 2;
+      invokeAll(new TareaMosaicos(inicio, mitad), new TareaMosaicos(mitad, fin));
+    }
+  }
+
+  /* Tarea que calcula las palabras en común de un rango de relaciones */
+  private class TareaPalabras extends RecursiveAction{
+    /* Relaciones */
+    private Relacion[] relaciones;
+    /* Primera relación del rango */
+    private int inicio;
+    /* Relación siguiente a la última del rango */
+    private int fin;
+    /* Constructor de la tarea */
+    public TareaPalabras(Relacion[] relaciones, int inicio, int fin){
+      this.relaciones = relaciones;
+      this.inicio = inicio;
+      this.fin = fin;
+    }
+    @Override protected void compute(){
+      if(fin - inicio <= TAMANO_MOSAICO){
+        calculaPalabras(relaciones, inicio, fin);
+        return;
+      }
+      int mitad = (inicio + fin) / 2;
+      invokeAll(new TareaPalabras(relaciones, inicio, mitad), new TareaPalabras(relaciones, mitad, fin));
+    }
+  }
+
+  /* Archivos a comparar */
+  private Archivo[] archivos;
+  /* Número de hilos que se usarán */
+  private int hilos;
+  /* Medida con la que se califican los pares */
+  private MedidaSimilitud medida;
+  /* Número de vecinos que se conservan por archivo; 0 para conservarlos todos */
+  private int vecinos;
+  /* Bloque de filas de cada mosaico */
+  private int[] filaMosaico;
+  /* Bloque de columnas de cada mosaico */
+  private int[] columnaMosaico;
+  /* Relaciones encontradas en cada mosaico, ordenadas por (i, j) */
+  private Lista<Relacion>[] resultados;
+  /* Similitud mínima de los pares que se conservan */
+  private double umbral;
+  /* Si sólo se conserva el bosque generador de máxima similitud */
+  private boolean esqueleto;
+  /* Número máximo de relaciones por archivo; 0 para no limitarlas */
+  private int relacionesPorArchivo;
+  /* Número máximo de palabras que se regresan por par; 0 para todas */
+  private int palabrasPorPar;
+
+  /**
+  * Constructor de la clase ComparadorArchivos, que conserva todos los pares que comparten palabras
+  * @param Archivo[] archivos a comparar; se ignoran las entradas null
+  * @param int número de hilos que se usarán
+  */
+  public ComparadorArchivos(Archivo[] archivos, int hilos){
+    this(archivos, hilos, MedidaSimilitud.COMPARTIDAS, 0);
+  }
+
+  /**
+  * Constructor de la clase ComparadorArchivos
+  * @param Archivo[] archivos a comparar; se ignoran las entradas null
+  * @param int número de hilos que se usarán
+  * @param MedidaSimilitud medida con la que se califican los pares
+  * @param int número de vecinos que se conservan por archivo; 0 para conservarlos todos
+  */
+  public ComparadorArchivos(Archivo[] archivos, int hilos, MedidaSimilitud medida, int vecinos){
+    if(hilos < 1) throw new IllegalArgumentException("Número de hilos inválido: "+hilos);
+    if(vecinos < 0) throw new IllegalArgumentException("Número de vecinos inválido: "+vecinos);
+    this.archivos = archivos;
+    this.hilos = hilos;
+    this.medida = medida;
+    this.vecinos = vecinos;
+  }
+
+  /**
+  * Método para definir la similitud mínima de los pares que se conservan
+  * @param double umbral; 0 para conservar todos los pares que comparten palabras
+  */
+  public void setUmbral(double umbral){
+    if(umbral < 0 || Double.isNaN(umbral)) throw new IllegalArgumentException("Umbral inválido: "+umbral);
+    this.umbral = umbral;
+  }
+
+  /**
+  * Método para definir si sólo se conserva el esqueleto: las relaciones de un bosque generador
+  * de máxima similitud (un árbol por cada componente conexa), calculado con Kruskal
+  * @param boolean si sólo se conserva el esqueleto
+  */
+  public void setEsqueleto(boolean esqueleto){
+    this.esqueleto = esqueleto;
+  }
+
+  /**
+  * Método para definir cuántas relaciones puede tener a lo más cada archivo; se conservan las
+  * de mayor similitud
+  * @param int número máximo de relaciones por archivo; 0 para no limitarlas
+  */
+  public void setRelacionesPorArchivo(int relacionesPorArchivo){
+    if(relacionesPorArchivo < 0) throw new IllegalArgumentException("Número de relaciones inválido: "+relacionesPorArchivo);
+    this.relacionesPorArchivo = relacionesPorArchivo;
+  }
+
+  /**
+  * Método para definir cuántas palabras en común se regresan a lo más por par
+  * @param int número máximo de palabras; 0 para todas
+  */
+  public void setPalabrasPorPar(int palabrasPorPar){
+    if(palabrasPorPar < 0) throw new IllegalArgumentException("Número de palabras inválido: "+palabrasPorPar);
+    this.palabrasPorPar = palabrasPorPar;
+  }
+
+  /**
+  * Método que compara todos los pares de archivos
+  * @return Lista<Relacion> pares de archivos que comparten palabras, en orden (i, j)
+  */
+  @SuppressWarnings("unchecked")
+  public Lista<Relacion> compara(){
+    int bloques = (archivos.length + TAMANO_MOSAICO - 1) / TAMANO_MOSAICO;
+    int mosaicos = bloques * (bloques + 1) / 2;
+    Lista<Relacion> relaciones = new Lista<>();
+    if(mosaicos == 0) return relaciones;
+    filaMosaico = new int[mosaicos];
+    columnaMosaico = new int[mosaicos];
+    int m = 0;
+    for(int bi = 0; bi < bloques; bi++)
+      for(int bj = bi; bj < bloques; bj++){
+        filaMosaico[m] = bi;
+        columnaMosaico[m++] = bj;
+      }
+    resultados = (Lista<Relacion>[])new Lista[mosaicos];
+    // Con un hilo no se usa alberca: invocar las tareas fuera de una mandaría sus subtareas
+    // a ForkJoinPool.commonPool() y se usarían más hilos de los pedidos
+    ForkJoinPool alberca = hilos == 1 ? null : new ForkJoinPool(hilos);
+    try{
+      if(alberca == null)
+        for(int k = 0; k < mosaicos; k++)
+          resultados[k] = comparaMosaico(filaMosaico[k], columnaMosaico[k]);
+      else
+        alberca.invoke(new TareaMosaicos(0, mosaicos));
+      mezcla(bloques, relaciones);
+      resultados = null;
+      if(vecinos > 0)
+        relaciones = seleccionaVecinos(relaciones);
+      if(esqueleto || relacionesPorArchivo > 0)
+        relaciones = reduceDetalle(relaciones);
+      Relacion[] arreglo = new Relacion[relaciones.getLongitud()];
+      int k = 0;
+      for(Relacion relacion : relaciones)
+        arreglo[k++] = relacion;
+      if(alberca == null)
+        calculaPalabras(arreglo, 0, arreglo.length);
+      else if(arreglo.length > 0)
+        alberca.invoke(new TareaPalabras(arreglo, 0, arreglo.length));
+    }finally{
+      if(alberca != null) alberca.shutdown();
+    }
+    return relaciones;
+  }
+
+  /* Calcula las palabras en común de un rango de relaciones */
+  private void calculaPalabras(Relacion[] relaciones, int inicio, int fin){
+    for(int k = inicio; k < fin; k++){
+      Relacion r = relaciones[k];
+      r.palabras = archivos[r.i].comparaArchivo(archivos[r.j], palabrasPorPar);
+      r.totalPalabras = palabrasPorPar > 0 ? archivos[r.i].palabrasEnComun(archivos[r.j]) : r.palabras.getLongitud();
+    }
+  }
+
+  /* Compara los archivos de un mosaico */
+  @SuppressWarnings("unchecked")
+  private Lista<Relacion> comparaMosaico(int bi, int bj){
+    Lista<Relacion> relaciones = new Lista<>();
+    int inicioI = bi * TAMANO_MOSAICO, inicioJ = bj * TAMANO_MOSAICO;
+    int finI = Math.min(archivos.length, inicioI + TAMANO_MOSAICO);
+    int finJ = Math.min(archivos.length, inicioJ + TAMANO_MOSAICO);
+    for(int i = inicioI; i < finI; i++){
+      if(archivos[i] == null) continue;
+      for(int j = Math.max(i + 1, inicioJ); j < finJ; j++){
+        if(archivos[j] == null) continue;
+        double similitud = archivos[i].similitud(archivos[j], medida);
+        if(similitud > 0 && similitud >= umbral)
+          relaciones.agregaFinal(new Relacion(i, j, similitud));
+      }
+    }
+    // Un par que no está entre los mejores N de sus archivos dentro del mosaico
+    // tampoco lo está entre todos los pares, así que se descarta desde aquí.
+    if(vecinos > 0 && relaciones.getLongitud() > vecinos){
+      MonticuloMinimo<Candidato>[] monticulos = (MonticuloMinimo<Candidato>[])new MonticuloMinimo[TAMANO_MOSAICO * 2];
+      for(Relacion relacion : relaciones){
+        agregaCandidato(monticulos, relacion.i - inicioI, new Candidato(relacion, relacion.j));
+        agregaCandidato(monticulos, TAMANO_MOSAICO + relacion.j - inicioJ, new Candidato(relacion, relacion.i));
+      }
+      return filtraSeleccionadas(relaciones, monticulos);
+    }
+    return relaciones;
+  }
+
+  /* Agrega un candidato al montículo de su archivo, conservando sólo los mejores */
+  private void agregaCandidato(MonticuloMinimo<Candidato>[] monticulos, int k, Candidato candidato){
+    if(monticulos[k] == null)
+      monticulos[k] = new MonticuloMinimo<>();
+    monticulos[k].agrega(candidato);
+    if(monticulos[k].getElementos() > vecinos)
+      monticulos[k].elimina();
+  }
+
+  /* Regresa las relaciones que quedaron en algún montículo, en el mismo orden */
+  private Lista<Relacion> filtraSeleccionadas(Lista<Relacion> relaciones, MonticuloMinimo<Candidato>[] monticulos){
+    for(Relacion relacion : relaciones)
+      relacion.seleccionada = false;
+    for(MonticuloMinimo<Candidato> monticulo : monticulos)
+      if(monticulo != null)
+        for(Candidato candidato : monticulo)
+          candidato.relacion.seleccionada = true;
+    Lista<Relacion> seleccionadas = new Lista<>();
+    for(Relacion relacion : relaciones)
+      if(relacion.seleccionada)
+        seleccionadas.agregaFinal(relacion);
+    return seleccionadas;
+  }
+
+  /* Conserva los pares que están entre los N vecinos más parecidos de alguno de sus archivos */
+  @SuppressWarnings("unchecked")
+  private Lista<Relacion> seleccionaVecinos(Lista<Relacion> relaciones){
+    MonticuloMinimo<Candidato>[] monticulos = (MonticuloMinimo<Candidato>[])new MonticuloMinimo[archivos.length];
+    for(Relacion relacion : relaciones){
+      agregaCandidato(monticulos, relacion.i, new Candidato(relacion, relacion.j));
+      agregaCandidato(monticulos, relacion.j, new Candidato(relacion, relacion.i));
+    }
+    return filtraSeleccionadas(relaciones, monticulos);
+  }
+
+  /* Conserva el esqueleto y/o las relaciones de mayor similitud de cada archivo, en el mismo
+   * orden (i, j). Las relaciones se revisan de mayor a menor similitud (a igual similitud, en
+   * orden (i, j)); para el esqueleto se unen las componentes con una estructura de conjuntos
+   * disjuntos, como en el algoritmo de Kruskal. */
+  private Lista<Relacion> reduceDetalle(Lista<Relacion> relaciones){
+    Lista<Relacion> ordenadas = relaciones.mergeSort((a, b) -> {
+        if(a.similitud != b.similitud) return a.similitud > b.similitud ? -1 : 1;
+        return a.i != b.i ? a.i - b.i : a.j - b.j;
+      });
+    int[] componente = new int[archivos.length];
+    for(int k = 0; k < componente.length; k++)
+      componente[k] = k;
+    int[] grado = new int[archivos.length];
+    for(Relacion relacion : relaciones)
+      relacion.seleccionada = false;
+    for(Relacion relacion : ordenadas){
+      if(relacionesPorArchivo > 0 &&
+         (grado[relacion.i] >= relacionesPorArchivo || grado[relacion.j] >= relacionesPorArchivo))
+        continue;
+      if(esqueleto){
+        int ci = raiz(componente, relacion.i), cj = raiz(componente, relacion.j);
+        if(ci == cj) continue;
+        componente[ci] = cj;
+      }
+      grado[relacion.i]++;
+      grado[relacion.j]++;
+      relacion.seleccionada = true;
+    }
+    Lista<Relacion> seleccionadas = new Lista<>();
+    for(Relacion relacion : relaciones)
+      if(relacion.seleccionada)
+        seleccionadas.agregaFinal(relacion);
+    return seleccionadas;
+  }
+
+  /* Regresa el representante de la componente de un archivo, acortando el camino */
+  private static int raiz(int[] componente, int k){
+    while(componente[k] != k){
+      componente[k] = componente[componente[k]];
+      k = componente[k];
+    }
+    return k;
+  }
+
+  /* Mezcla los mosaicos de cada bloque de filas para dejar las relaciones en orden (i, j) */
+  private void mezcla(int bloques, Lista<Relacion> relaciones){
+    int primero = 0;
+    for(int bi = 0; bi < bloques; bi++){
+      int mosaicosFila = bloques - bi;
+      int finI = Math.min(archivos.length, (bi + 1) * TAMANO_MOSAICO);
+      for(int i = bi * TAMANO_MOSAICO; i < finI; i++)
+        for(int m = primero; m < primero + mosaicosFila; m++)
+          while(!resultados[m].esVacia() && resultados[m].getPrimero().i == i)
+            relaciones.agregaFinal(resultados[m].eliminaPrimero());
+      primero += mosaicosFila;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package mx.unam.ciencias.edd.proyecto3;
+/**
+* Enumeración para identificar si las páginas del reporte se escriben también comprimidas
+* con gzip (en archivos ".html.gz"), para servirlas así desde un servidor estático.
+*
+* Con AMBAS los enlaces apuntan a las páginas sin comprimir; el servidor puede entregar la
+* versión comprimida a quien la acepte si se lo indica (en nginx, "gzip_static on;").
+* Con SOLO_GZIP los enlaces apuntan a los archivos ".html.gz", y la mayoría de los servidores
+* los entregan como una descarga ("application/gzip"). Para que el navegador los muestre, el
+* servidor debe mandarlos con "Content-Type: text/html" y "Content-Encoding: gzip", por ejemplo:
+* <pre>
+*   # nginx
+*   location ~ \.html\.gz$ {
+*     types { } default_type text/html;
+*     add_header Content-Encoding gzip;
+*   }
+*   # Apache (.htaccess)
+*   AddType text/html .gz
+*   AddEncoding gzip .gz
+* </pre>
+* Abiertos directamente del disco (sin servidor) los archivos ".html.gz" tampoco se muestran.
+*/
+public enum Compresion{
+  /* Sólo se escriben las páginas sin comprimir */
+  NINGUNA,
+  /* Se escriben las páginas sin comprimir y junto a ellas las comprimidas */
+  AMBAS,
+  /* Sólo se escriben las páginas comprimidas; los enlaces apuntan a los archivos ".html.gz",
+   * que el servidor debe entregar con Content-Encoding: gzip */
+  SOLO_GZIP
+}
@@ -0,0 +1,202 @@
+package mx.unam.ciencias.edd.proyecto3;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+* Clase que comprime en formato gzip los bytes de una página conforme el {@link EscritorReporte}
+* los va produciendo. Usa un {@link Deflater} con el nivel que se le indique y escribe el
+* resultado en su propio canal, directamente o por medio de un {@link EscritorAsincrono}.
+*/
+public class CompresorGzip{
+  /* Encabezado gzip: compresión deflate, sin nombre ni fecha */
+  private static final byte[] ENCABEZADO = { 0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+  /* Tamaño de los búferes de entrada y salida */
+  private static final int TAMANO_BUFER = 1 << 16;
+  /* Canal del archivo comprimido */
+  private FileChannel canal;
+  /* Hilo escritor; null para escribir en este hilo */
+  private EscritorAsincrono asincrono;
+  /* Compresor */
+  private Deflater deflater;
+  /* Suma de verificación de los bytes sin comprimir */
+  private CRC32 crc;
+  /* Búfer con los bytes sin comprimir */
+  private byte[] entrada;
+  /* Búfer con los bytes comprimidos */
+  private byte[] salida;
+  /* Número de bytes comprimidos pendientes en la salida */
+  private int pendientes;
+  /* Bytes sin comprimir */
+  private long bytesEntrada;
+  /* Bytes comprimidos (con encabezado y cola) */
+  private long bytesSalida;
+  /* Tiempo dedicado a comprimir, en nanosegundos */
+  private long tiempo;
+
+  /**
+  * Constructor de la clase CompresorGzip
+  * @param FileChannel canal del archivo comprimido
+  * @param EscritorAsincrono hilo escritor; null para escribir en este hilo
+  * @param int nivel de compresión, de 0 a 9
+  */
+  public CompresorGzip(FileChannel canal, EscritorAsincrono asincrono, int nivel){
+    if(nivel < Deflater.NO_COMPRESSION || nivel > Deflater.BEST_COMPRESSION)
+      throw new IllegalArgumentException("Nivel de compresión inválido: "+nivel);
+    this.canal = canal;
+    this.asincrono = asincrono;
+    this.deflater = new Deflater(nivel, true);
+    this.crc = new CRC32();
+    this.entrada = new byte[TAMANO_BUFER];
+    this.salida = new byte[TAMANO_BUFER];
+    System.arraycopy(ENCABEZADO, 0, salida, 0, ENCABEZADO.length);
+    this.pendientes = ENCABEZADO.length;
+  }
+
+  /**
+  * Comprime los bytes que le quedan al búfer, sin moverle la posición
+  * @param ByteBuffer bytes sin comprimir
+  * @throws IOException si no se puede escribir en el archivo
+  */
+  public void comprime(ByteBuffer bytes) throws IOException{
+    long inicio = System.nanoTime();
+    ByteBuffer datos = bytes.duplicate();
+    while(datos.hasRemaining()){
+      int n = Math.min(datos.remaining(), entrada.length);
+      datos.get(entrada, 0, n);
+      crc.update(entrada, 0, n);
+      bytesEntrada += n;
+      deflater.setInput(entrada, 0, n);
+      while(!deflater.needsInput())
+        desinfla();
+    }
+    tiempo += System.nanoTime() - inicio;
+  }
+
+  /**
+  * Termina la compresión, escribe la cola gzip y cierra el archivo
+  * @throws IOException si no se puede escribir en el archivo
+  */
+  public void termina() throws IOException{
+    termina(null, null);
+  }
+
+  /**
+  * Termina la compresión, escribe la cola gzip, cierra el archivo y ejecuta una acción
+  * @param EscritorAsincrono.AlCerrar acción que se ejecuta ya cerrado el archivo; null si no hay
+  * @throws IOException si no se puede escribir en el archivo
+  */
+  public void termina(EscritorAsincrono.AlCerrar despues) throws IOException{
+    termina(despues, null);
+  }
+
+  /**
+  * Termina la compresión, escribe la cola gzip y cierra el archivo; si todo se escribió
+  * ejecuta una acción y si no, otra (para no dejar un archivo truncado en lugar del bueno)
+  * @param EscritorAsincrono.AlCerrar acción si el archivo se escribió completo; null si no hay
+  * @param EscritorAsincrono.AlCerrar acción si falló alguna escritura; null si no hay
+  * @throws IOException si no se puede escribir en el archivo
+  */
+  public void termina(EscritorAsincrono.AlCerrar despues, EscritorAsincrono.AlCerrar siFalla) throws IOException{
+    boolean completo = false;
+    try{
+      long inicio = System.nanoTime();
+      deflater.finish();
+      while(!deflater.finished())
+        desinfla();
+      if(salida.length - pendientes < 8)
+        vacia();
+      escribeEntero((int)crc.getValue());
+      escribeEntero((int)bytesEntrada);
+      vacia();
+      tiempo += System.nanoTime() - inicio;
+      completo = true;
+    }finally{
+      deflater.end();
+      cierra(completo ? despues : siFalla, siFalla);
+    }
+  }
+
+  /**
+  * Deja la compresión sin terminar, cierra el archivo y ejecuta una acción (por ejemplo,
+  * borrarlo)
+  * @param EscritorAsincrono.AlCerrar acción que se ejecuta ya cerrado el archivo; null si no hay
+  * @throws IOException si no se puede cerrar el archivo
+  */
+  public void descarta(EscritorAsincrono.AlCerrar siFalla) throws IOException{
+    deflater.end();
+    cierra(siFalla, siFalla);
+  }
+
+  /* Cierra el canal y ejecuta la acción que corresponda. */
+  private void cierra(EscritorAsincrono.AlCerrar despues, EscritorAsincrono.AlCerrar siFalla) throws IOException{
+    if(asincrono != null){
+      asincrono.cierra(canal, despues, siFalla);
+      return;
+    }
+    try{
+      canal.close();
+      if(despues != null) despues.ejecuta();
+    }catch(IOException e){
+      if(siFalla != null && siFalla != despues)
+        try{ siFalla.ejecuta(); }catch(IOException ignorada){}
+      throw e;
+    }
+  }
+
+  /* Saca bytes comprimidos del deflater; si la salida se llena, la escribe. */
+  private void desinfla() throws IOException{
+    if(pendientes == salida.length)
+      vacia();
+    pendientes += deflater.deflate(salida, pendientes, salida.length - pendientes);
+  }
+
+  /* Escribe un entero en orden little-endian. */
+  private void escribeEntero(int n){
+    for(int i = 0; i < 4; i++)
+      salida[pendientes++] = (byte)(n >>> (8 * i));
+  }
+
+  /* Escribe al archivo los bytes comprimidos pendientes. */
+  private void vacia() throws IOException{
+    if(pendientes == 0) return;
+    bytesSalida += pendientes;
+    if(asincrono != null){
+      ByteBuffer b = asincrono.bufer();
+      b.put(salida, 0, pendientes);
+      b.flip();
+      asincrono.escribe(canal, b);
+    }else{
+      ByteBuffer b = ByteBuffer.wrap(salida, 0, pendientes);
+      while(b.hasRemaining())
+        canal.write(b);
+    }
+    pendientes = 0;
+  }
+
+  /**
+  * Regresa el número de bytes sin comprimir
+  * @return long bytes sin comprimir
+  */
+  public long getBytesEntrada(){
+    return bytesEntrada;
+  }
+
+  /**
+  * Regresa el número de bytes del archivo comprimido
+  * @return long bytes comprimidos
+  */
+  public long getBytesSalida(){
+    return bytesSalida;
+  }
+
+  /**
+  * Regresa el tiempo dedicado a comprimir, en milisegundos
+  * @return double tiempo de compresión
+  */
+  public double getTiempo(){
+    return tiempo / 1e6;
+  }
+}
@@ -0,0 +1,354 @@
+package mx.unam.ciencias.edd.proyecto3;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+* Clase para escribir los archivos del reporte en un hilo aparte. Los {@link EscritorReporte}
+* le entregan sus búferes llenos y siguen generando la página mientras este hilo los escribe,
+* así que contar y dibujar el siguiente archivo se traslapa con la escritura del anterior.
+* La cola de escrituras es acotada: si el disco no alcanza a quien genera las páginas, éste
+* se detiene hasta que haya lugar en la cola.
+*/
+public class EscritorAsincrono implements Closeable{
+  /* Capacidad por omisión de la cola de escrituras */
+  public static final int CAPACIDAD = 32;
+
+  /**
+  * Interfaz para lo que se hace con un archivo después de cerrarlo (renombrarlo o borrarlo)
+  */
+  public interface AlCerrar{
+    /**
+    * Acción que se ejecuta después de cerrar el archivo
+    * @throws IOException si falla la acción
+    */
+    void ejecuta() throws IOException;
+  }
+
+  /* Escritura pendiente */
+  private static class Escritura{
+    /* Canal del archivo */
+    FileChannel canal;
+    /* Búferes que se escriben juntos en el canal */
+    ByteBuffer[] bufers;
+    /* Búfer que se recicla una vez escrito */
+    ByteBuffer reciclable;
+    /* Si después de escribir se cierra el canal */
+    boolean cierra;
+    /* Acción que se ejecuta después de cerrar el canal */
+    AlCerrar despues;
+    /* Acción que se ejecuta en lugar de la anterior si falló alguna escritura */
+    AlCerrar siFalla;
+    /* Momento en que se encoló la escritura */
+    long encolada;
+  }
+
+  /* Escritura que le indica al hilo que ya no hay más */
+  private static final Escritura FIN = new Escritura();
+
+  /* Cola de escrituras pendientes */
+  private ArrayBlockingQueue<Escritura> cola;
+  /* Búferes ya escritos que se pueden volver a usar */
+  private ArrayBlockingQueue<ByteBuffer> reciclados;
+  /* Tamaño de los búferes */
+  private int tamanoBufer;
+  /* Hilo que escribe */
+  private Thread hilo;
+  /* Primer error de escritura */
+  private volatile IOException error;
+  /* Si ya se cerró */
+  private boolean cerrado;
+
+  /* Número de escrituras hechas (lo actualiza el hilo escritor) */
+  private volatile long escrituras;
+  /* Número de bytes escritos (lo actualiza el hilo escritor) */
+  private volatile long bytes;
+  /* Número de archivos cerrados (lo actualiza el hilo escritor) */
+  private volatile long archivos;
+  /* Suma de los tiempos desde que se encola una escritura hasta que termina */
+  private volatile long latenciaTotal;
+  /* Máximo tiempo desde que se encola una escritura hasta que termina */
+  private volatile long latenciaMaxima;
+  /* Número de escrituras encoladas (lo actualiza quien encola) */
+  private long encoladas;
+  /* Suma de las profundidades de la cola al encolar */
+  private long profundidadTotal;
+  /* Profundidad máxima de la cola al encolar */
+  private int profundidadMaxima;
+  /* Tiempo total que se esperó por lugar en la cola */
+  private long esperaTotal;
+
+  /**
+  * Constructor de la clase EscritorAsincrono con la capacidad por omisión
+  * @param int tamaño en bytes de los búferes que entrega
+  */
+  public EscritorAsincrono(int tamanoBufer){
+    this(tamanoBufer, CAPACIDAD);
+  }
+
+  /**
+  * Constructor de la clase EscritorAsincrono
+  * @param int tamaño en bytes de los búferes que entrega
+  * @param int capacidad de la cola de escrituras
+  */
+  public EscritorAsincrono(int tamanoBufer, int capacidad){
+    if(capacidad < 1) throw new IllegalArgumentException("Capacidad inválida: "+capacidad);
+    this.tamanoBufer = tamanoBufer;
+    this.cola = new ArrayBlockingQueue<>(capacidad);
+    this.reciclados = new ArrayBlockingQueue<>(capacidad + 1);
+    this.hilo = new Thread(this::escribe, "escritor-reporte");
+    this.hilo.setDaemon(true);
+    this.hilo.start();
+  }
+
+  /**
+  * Regresa un búfer vacío para llenar; si hay alguno ya escrito se reutiliza
+  * @return ByteBuffer vacío
+  */
+  public ByteBuffer bufer(){
+    ByteBuffer b = reciclados.poll();
+    return b != null ? b : ByteBuffer.allocateDirect(tamanoBufer);
+  }
+
+  /**
+  * Encola la escritura de varios búferes en un canal; el primero se recicla al terminar
+  * @param FileChannel canal del archivo
+  * @param ByteBuffer[] búferes (ya listos para leerse) que se escriben juntos
+  * @throws IOException si alguna escritura anterior falló
+  */
+  public void escribe(FileChannel canal, ByteBuffer... bufers) throws IOException{
+    Escritura e = new Escritura();
+    e.canal = canal;
+    e.bufers = bufers;
+    e.reciclable = bufers[0];
+    encola(e);
+  }
+
+  /**
+  * Encola el cierre de un canal, después de todas sus escrituras
+  * @param FileChannel canal del archivo
+  * @throws IOException si alguna escritura anterior falló
+  */
+  public void cierra(FileChannel canal) throws IOException{
+    cierra(canal, null);
+  }
+
+  /**
+  * Encola el cierre de un canal, después de todas sus escrituras, y una acción que se ejecuta
+  * ya cerrado el canal
+  * @param FileChannel canal del archivo
+  * @param AlCerrar acción que se ejecuta después de cerrar el canal; null si no hay
+  * @throws IOException si alguna escritura anterior falló
+  */
+  public void cierra(FileChannel canal, AlCerrar despues) throws IOException{
+    cierra(canal, despues, null);
+  }
+
+  /**
+  * Encola el cierre de un canal, después de todas sus escrituras; ya cerrado el canal se
+  * ejecuta una acción si todas las escrituras se hicieron, u otra si alguna falló
+  * @param FileChannel canal del archivo
+  * @param AlCerrar acción si no hubo errores (por ejemplo, mover el temporal); null si no hay
+  * @param AlCerrar acción si hubo algún error (por ejemplo, borrar el temporal); null si no hay
+  * @throws IOException si alguna escritura anterior falló; en ese caso el canal se cierra y
+  *                     la acción de error se ejecuta en este hilo
+  */
+  public void cierra(FileChannel canal, AlCerrar despues, AlCerrar siFalla) throws IOException{
+    if(error != null || cerrado){
+      // El cierre ya no se puede encolar: si no se cierra aquí se queda abierto el descriptor
+      try{ canal.close(); }catch(IOException ignorada){}
+      if(siFalla != null)
+        try{ siFalla.ejecuta(); }catch(IOException ignorada){}
+      throw error != null ? error : new IOException("El escritor ya está cerrado");
+    }
+    Escritura e = new Escritura();
+    e.canal = canal;
+    e.cierra = true;
+    e.despues = despues;
+    e.siFalla = siFalla;
+    encola(e);
+  }
+
+  /* Encola una escritura, esperando si la cola está llena. */
+  private void encola(Escritura e) throws IOException{
+    if(error != null) throw error;
+    if(cerrado) throw new IOException("El escritor ya está cerrado");
+    int profundidad = cola.size();
+    encoladas++;
+    profundidadTotal += profundidad;
+    if(profundidad > profundidadMaxima) profundidadMaxima = profundidad;
+    long inicio = System.nanoTime();
+    e.encolada = inicio;
+    try{
+      cola.put(e);
+    }catch(InterruptedException ie){
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrumpido mientras esperaba lugar en la cola", ie);
+    }
+    esperaTotal += System.nanoTime() - inicio;
+  }
+
+  /* Ciclo del hilo escritor. */
+  private void escribe(){
+    while(true){
+      Escritura e;
+      try{
+        e = cola.take();
+      }catch(InterruptedException ie){
+        return;
+      }
+      if(e == FIN) return;
+      try{
+        if(error == null && e.bufers != null){
+          long n = 0;
+          while(quedan(e.bufers))
+            n += e.canal.write(e.bufers);
+          bytes += n;
+          escrituras++;
+        }
+        if(e.cierra){
+          e.canal.close();
+          archivos++;
+          if(error != null){
+            if(e.siFalla != null) e.siFalla.ejecuta();
+          }else if(e.despues != null)
+            e.despues.ejecuta();
+        }
+      }catch(IOException ioe){
+        if(error == null) error = ioe;
+        try{ e.canal.close(); }catch(IOException ignorada){}
+        if(e.cierra && e.siFalla != null)
+          try{ e.siFalla.ejecuta(); }catch(IOException ignorada){}
+      }
+      long latencia = System.nanoTime() - e.encolada;
+      latenciaTotal += latencia;
+      if(latencia > latenciaMaxima) latenciaMaxima = latencia;
+      if(e.reciclable != null){
+        e.reciclable.clear();
+        reciclados.offer(e.reciclable);
+      }
+    }
+  }
+
+  /* Nos dice si a alguno de los búferes le quedan bytes. */
+  private static boolean quedan(ByteBuffer[] bufers){
+    for(ByteBuffer b : bufers)
+      if(b.hasRemaining()) return true;
+    return false;
+  }
+
+  /**
+  * Espera a que terminen todas las escrituras y detiene el hilo
+  * @throws IOException si alguna escritura falló
+  */
+  @Override public void close() throws IOException{
+    if(!cerrado){
+      cerrado = true;
+      try{
+        cola.put(FIN);
+        hilo.join();
+      }catch(InterruptedException ie){
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrumpido mientras terminaban las escrituras", ie);
+      }
+    }
+    if(error != null) throw error;
+  }
+
+  /**
+  * Nos dice si falló alguna escritura; a partir de entonces el escritor ya no escribe nada y
+  * no se le deben dar más archivos
+  * @return true si falló alguna escritura
+  */
+  public boolean fallo(){
+    return error != null;
+  }
+
+  /**
+  * Nos dice si ya se cerró el escritor
+  * @return true si ya no acepta escrituras
+  */
+  public boolean estaCerrado(){
+    return cerrado;
+  }
+
+  /**
+  * Regresa el número de escrituras hechas
+  * @return long escrituras
+  */
+  public long getEscrituras(){
+    return escrituras;
+  }
+
+  /**
+  * Regresa el número de bytes escritos
+  * @return long bytes
+  */
+  public long getBytes(){
+    return bytes;
+  }
+
+  /**
+  * Regresa el número de archivos escritos y cerrados
+  * @return long archivos
+  */
+  public long getArchivos(){
+    return archivos;
+  }
+
+  /**
+  * Regresa el número máximo de escrituras que había en la cola al encolar una nueva
+  * @return int profundidad máxima de la cola
+  */
+  public int getProfundidadMaxima(){
+    return profundidadMaxima;
+  }
+
+  /**
+  * Regresa el número promedio de escrituras que había en la cola al encolar una nueva
+  * @return double profundidad promedio de la cola
+  */
+  public double getProfundidadPromedio(){
+    return encoladas == 0 ? 0 : (double)profundidadTotal / encoladas;
+  }
+
+  /**
+  * Regresa el tiempo promedio, en milisegundos, desde que se encola una escritura hasta que
+  * termina
+  * @return double latencia promedio
+  */
+  public double getLatenciaPromedio(){
+    long n = encoladas;
+    return n == 0 ? 0 : latenciaTotal / 1e6 / n;
+  }
+
+  /**
+  * Regresa el tiempo máximo, en milisegundos, desde que se encola una escritura hasta que
+  * termina
+  * @return double latencia máxima
+  */
+  public double getLatenciaMaxima(){
+    return latenciaMaxima / 1e6;
+  }
+
+  /**
+  * Regresa el tiempo total, en milisegundos, que se esperó por lugar en la cola
+  * @return double tiempo de espera
+  */
+  public double getEsperaTotal(){
+    return esperaTotal / 1e6;
+  }
+
+  /**
+  * Regresa un resumen de las métricas
+  * @return String resumen
+  */
+  @Override public String toString(){
+    return String.format("archivos=%d escrituras=%d bytes=%d cola(max=%d prom=%.2f) "+
+                         "latencia(prom=%.3f ms max=%.3f ms) espera=%.3f ms",
+                         archivos, escrituras, bytes, profundidadMaxima, getProfundidadPromedio(),
+                         getLatenciaPromedio(), getLatenciaMaxima(), getEsperaTotal());
+  }
+}
@@ -0,0 +1,408 @@
+package mx.unam.ciencias.edd.proyecto3;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+* Clase para escribir las páginas del reporte conforme se van generando. Los fragmentos
+* de cada página se acumulan en un búfer de tamaño fijo que se codifica en UTF-8 y se vacía
+* al archivo, así que la memoria necesaria no depende del tamaño de la página.
+* Las {@link Plantilla}s ya vienen codificadas: se escriben junto con lo que haya en el búfer
+* en una sola escritura de varios búferes sobre el canal del archivo. Si se le da un
+* {@link EscritorAsincrono}, los búferes llenos se le entregan para que los escriba en otro hilo.
+* Además de (o en lugar de) la página, puede escribir la página comprimida con gzip en un
+* archivo con la extensión ".gz".
+* La página se escribe en un archivo temporal que sólo reemplaza al existente cuando se
+* terminó de escribir sin errores; si algo falla (o la página se descarta con
+* {@link #descarta()}) el temporal se borra y la página anterior queda en su lugar. Si se
+* conoce la huella de la página que ya existe y la nueva tiene la misma, el temporal se
+* descarta y el archivo existente queda intacto (con su fecha de modificación).
+*/
+public class EscritorReporte implements Appendable, Closeable{
+  /* Tamaño del búfer de escritura (en caracteres) */
+  public static final int TAMANO_BUFER = 1 << 16;
+  /* Canal del archivo; null si sólo se escribe la página comprimida */
+  private FileChannel canal;
+  /* Compresor de la página; null si no se comprime */
+  private CompresorGzip compresor;
+  /* Codificador a UTF-8 */
+  private CharsetEncoder codificador;
+  /* Caracteres pendientes de codificar */
+  private CharBuffer caracteres;
+  /* Bytes pendientes de escribir */
+  private ByteBuffer bytes;
+  /* Búferes de una escritura con plantilla */
+  private ByteBuffer[] reunidos;
+  /* Número de bytes escritos en el archivo */
+  private long escritos;
+  /* Hilo escritor al que se entregan los búferes; null para escribir en este hilo */
+  private EscritorAsincrono asincrono;
+  /* Huella del contenido (sin comprimir) de la página */
+  private HuellaContenido huella;
+  /* Huella de la página que ya existe; null si no se compara */
+  private Long huellaAnterior;
+  /* Página sin comprimir; null si no se escribe */
+  private File archivoPlano;
+  /* Página comprimida; null si no se escribe */
+  private File archivoGzip;
+  /* Si la página resultó igual a la que ya existía */
+  private boolean sinCambios;
+  /* Si ya se cerró o se descartó */
+  private boolean cerrado;
+
+  /**
+  * Constructor de la clase EscritorReporte
+  * @param File archivo en donde se escribirá la página
+  * @throws IOException si no se puede abrir el archivo
+  */
+  public EscritorReporte(File archivo) throws IOException{
+    this(archivo, null);
+  }
+
+  /**
+  * Constructor de la clase EscritorReporte que entrega las escrituras a un hilo escritor
+  * @param File archivo en donde se escribirá la página
+  * @param EscritorAsincrono hilo escritor; null para escribir en este hilo
+  * @throws IOException si no se puede abrir el archivo
+  */
+  public EscritorReporte(File archivo, EscritorAsincrono asincrono) throws IOException{
+    this(archivo, asincrono, true, -1);
+  }
+
+  /**
+  * Constructor de la clase EscritorReporte que además puede comprimir la página
+  * @param File archivo en donde se escribirá la página
+  * @param EscritorAsincrono hilo escritor; null para escribir en este hilo
+  * @param boolean si se escribe la página sin comprimir
+  * @param int nivel de compresión (de 0 a 9) de la página comprimida en archivo + ".gz";
+  *            negativo para no comprimirla
+  * @throws IOException si no se puede abrir alguno de los archivos
+  */
+  public EscritorReporte(File archivo, EscritorAsincrono asincrono, boolean plano, int nivel) throws IOException{
+    this(archivo, asincrono, plano, nivel, null);
+  }
+
+  /**
+  * Constructor de la clase EscritorReporte que sólo reemplaza la página si cambió
+  * @param File archivo en donde se escribirá la página
+  * @param EscritorAsincrono hilo escritor; null para escribir en este hilo
+  * @param boolean si se escribe la página sin comprimir
+  * @param int nivel de compresión (de 0 a 9) de la página comprimida en archivo + ".gz";
+  *            negativo para no comprimirla
+  * @param Long huella (sin comprimir) de la página que ya existe; null para escribirla siempre
+  * @throws IOException si no se puede abrir alguno de los archivos
+  */
+  public EscritorReporte(File archivo, EscritorAsincrono asincrono, boolean plano, int nivel,
+                         Long huellaAnterior) throws IOException{
+    if(!plano && nivel < 0)
+      throw new IllegalArgumentException("No se escribiría ningún archivo");
+    this.asincrono = asincrono;
+    this.huella = new HuellaContenido();
+    this.huellaAnterior = huellaAnterior;
+    if(plano){
+      this.archivoPlano = archivo;
+      this.canal = abre(destino(archivoPlano));
+    }
+    if(nivel >= 0){
+      try{
+        this.archivoGzip = new File(archivo.getPath()+".gz");
+        this.compresor = new CompresorGzip(abre(destino(archivoGzip)), asincrono, nivel);
+      }catch(IOException | RuntimeException e){
+        if(canal != null){
+          canal.close();
+          Files.deleteIfExists(destino(archivoPlano).toPath());
+        }
+        throw e;
+      }
+    }
+    this.codificador = StandardCharsets.UTF_8.newEncoder()
+                       .onMalformedInput(CodingErrorAction.REPLACE)
+                       .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.caracteres = CharBuffer.allocate(TAMANO_BUFER);
+    this.bytes = asincrono != null ? asincrono.bufer() : ByteBuffer.allocateDirect(tamanoBytes());
+    this.reunidos = new ByteBuffer[2];
+  }
+
+  /**
+  * Método que escribe un fragmento de la página
+  * @param CharSequence fragmento
+  * @return el mismo escritor
+  */
+  @Override public EscritorReporte append(CharSequence fragmento) throws IOException{
+    if(fragmento == null) fragmento = "null";
+    return append(fragmento, 0, fragmento.length());
+  }
+
+  /**
+  * Método que escribe una parte de un fragmento de la página
+  * @param CharSequence fragmento
+  * @param int inicio
+  * @param int fin
+  * @return el mismo escritor
+  */
+  @Override public EscritorReporte append(CharSequence fragmento, int inicio, int fin) throws IOException{
+    if(fragmento == null) fragmento = "null";
+    CharBuffer origen = null;
+    int base = 0;
+    if(fragmento instanceof CharBuffer){
+      origen = ((CharBuffer)fragmento).duplicate();
+      base = origen.position();
+    }
+    while(inicio < fin){
+      if(!caracteres.hasRemaining()) codifica();
+      int n = Math.min(fin - inicio, caracteres.remaining());
+      if(fragmento instanceof String)
+        caracteres.put((String)fragmento, inicio, inicio + n);
+      else if(origen != null){
+        origen.limit(base + inicio + n);
+        origen.position(base + inicio);
+        caracteres.put(origen);
+      }else
+        for(int i = inicio; i < inicio + n; i++)
+          caracteres.put(fragmento.charAt(i));
+      inicio += n;
+    }
+    return this;
+  }
+
+  /**
+  * Método que escribe un carácter de la página
+  * @param char carácter
+  * @return el mismo escritor
+  */
+  @Override public EscritorReporte append(char c) throws IOException{
+    if(!caracteres.hasRemaining()) codifica();
+    caracteres.put(c);
+    return this;
+  }
+
+  /**
+  * Método que escribe una plantilla: lo que haya pendiente en el búfer y los bytes de la
+  * plantilla se escriben juntos en el archivo
+  * @param Plantilla plantilla
+  * @return el mismo escritor
+  * @throws IOException si no se puede escribir en el archivo
+  */
+  public EscritorReporte escribe(Plantilla plantilla) throws IOException{
+    codifica();
+    ByteBuffer fija = plantilla.getBytes();
+    bytes.flip();
+    huella.agrega(bytes);
+    huella.agrega(fija);
+    if(compresor != null){
+      compresor.comprime(bytes);
+      compresor.comprime(fija);
+    }
+    if(canal == null){
+      bytes.clear();
+      return this;
+    }
+    if(asincrono != null){
+      escritos += bytes.remaining() + fija.remaining();
+      asincrono.escribe(canal, bytes, fija);
+      bytes = asincrono.bufer();
+      return this;
+    }
+    reunidos[0] = bytes;
+    reunidos[1] = fija;
+    while(bytes.hasRemaining() || fija.hasRemaining())
+      escritos += canal.write(reunidos);
+    bytes.clear();
+    reunidos[1] = null;
+    return this;
+  }
+
+  /**
+  * Regresa el número de bytes que se han escrito (o entregado al hilo escritor) en el archivo
+  * @return long bytes escritos
+  */
+  public long getBytesEscritos(){
+    return escritos;
+  }
+
+  /* Codifica los caracteres pendientes; si ya no caben, escribe los bytes al archivo. */
+  private void codifica() throws IOException{
+    caracteres.flip();
+    CoderResult r = codificador.encode(caracteres, bytes, false);
+    while(r.isOverflow()){
+      vaciaBytes();
+      r = codificador.encode(caracteres, bytes, false);
+    }
+    caracteres.compact();
+  }
+
+  /* Escribe al archivo los bytes pendientes. */
+  private void vaciaBytes() throws IOException{
+    bytes.flip();
+    huella.agrega(bytes);
+    if(compresor != null)
+      compresor.comprime(bytes);
+    if(canal == null){
+      bytes.clear();
+      return;
+    }
+    if(asincrono != null){
+      if(!bytes.hasRemaining()){
+        bytes.clear();
+        return;
+      }
+      escritos += bytes.remaining();
+      asincrono.escribe(canal, bytes);
+      bytes = asincrono.bufer();
+      return;
+    }
+    while(bytes.hasRemaining())
+      escritos += canal.write(bytes);
+    bytes.clear();
+  }
+
+  /**
+  * Método que vacía el búfer y cierra el archivo; la página sólo reemplaza a la anterior si
+  * se escribió completa
+  */
+  @Override public void close() throws IOException{
+    if(cerrado) return;
+    try{
+      caracteres.flip();
+      CoderResult r = codificador.encode(caracteres, bytes, true);
+      while(r.isOverflow()){
+        vaciaBytes();
+        r = codificador.encode(caracteres, bytes, true);
+      }
+      while(codificador.flush(bytes).isOverflow())
+        vaciaBytes();
+      vaciaBytes();
+    }catch(IOException | RuntimeException e){
+      descarta();
+      throw e;
+    }
+    cerrado = true;
+    sinCambios = huellaAnterior != null && huellaAnterior == huella.getHuella();
+    IOException error = null;
+    if(compresor != null)
+      try{
+        compresor.termina(despues(archivoGzip), falla(archivoGzip));
+      }catch(IOException e){
+        error = e;
+      }
+    if(canal != null)
+      try{
+        cierraCanal(despues(archivoPlano), falla(archivoPlano));
+      }catch(IOException e){
+        if(error == null) error = e;
+      }
+    if(error != null) throw error;
+  }
+
+  /**
+  * Método que descarta la página sin terminarla (por ejemplo, si falló su generación): cierra
+  * los archivos y borra los temporales, así que la página anterior queda en su lugar. Los
+  * errores al cerrar se ignoran
+  */
+  public void descarta(){
+    if(cerrado) return;
+    cerrado = true;
+    if(compresor != null)
+      try{
+        compresor.descarta(falla(archivoGzip));
+      }catch(IOException e){
+        // Ya se está descartando la página
+      }
+    if(canal != null)
+      try{
+        cierraCanal(falla(archivoPlano), falla(archivoPlano));
+      }catch(IOException e){
+        // Ya se está descartando la página
+      }
+  }
+
+  /* Cierra el canal de la página sin comprimir y ejecuta la acción que corresponda. */
+  private void cierraCanal(EscritorAsincrono.AlCerrar despues, EscritorAsincrono.AlCerrar siFalla) throws IOException{
+    if(asincrono != null){
+      asincrono.cierra(canal, despues, siFalla);
+      return;
+    }
+    try{
+      canal.close();
+      despues.ejecuta();
+    }catch(IOException e){
+      if(siFalla != despues)
+        try{ siFalla.ejecuta(); }catch(IOException ignorada){}
+      throw e;
+    }
+  }
+
+  /* Regresa el archivo temporal en donde se escribe realmente una página. */
+  private static File destino(File archivo){
+    return new File(archivo.getPath()+".tmp");
+  }
+
+  /* Regresa lo que hay que hacer con el temporal de una página escrita completa: descartarlo
+   * si la página no cambió y sigue ahí, o moverlo sobre la página en otro caso. */
+  private EscritorAsincrono.AlCerrar despues(File archivo){
+    final File temporal = destino(archivo);
+    final boolean descarta = sinCambios;
+    return () -> {
+      if(descarta && archivo.exists())
+        Files.deleteIfExists(temporal.toPath());
+      else
+        Files.move(temporal.toPath(), archivo.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    };
+  }
+
+  /* Regresa lo que hay que hacer con el temporal de una página que no se terminó: borrarlo. */
+  private static EscritorAsincrono.AlCerrar falla(File archivo){
+    final File temporal = destino(archivo);
+    return () -> Files.deleteIfExists(temporal.toPath());
+  }
+
+  /**
+  * Nos dice si, ya cerrada, la página resultó igual a la que existía y por lo tanto no se
+  * reemplazó
+  * @return true si la página no cambió
+  */
+  public boolean sinCambios(){
+    return sinCambios;
+  }
+
+  /* Abre (o trunca) un archivo para escribirlo. */
+  private static FileChannel abre(File archivo) throws IOException{
+    return FileChannel.open(archivo.toPath(), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+  * Regresa la huella del contenido (sin comprimir) de lo que se ha escrito de la página
+  * @return long huella de la página
+  */
+  public long getHuella(){
+    return huella.getHuella();
+  }
+
+  /**
+  * Regresa el compresor de la página, con sus métricas
+  * @return CompresorGzip compresor; null si la página no se comprime
+  */
+  public CompresorGzip getCompresor(){
+    return compresor;
+  }
+
+  /**
+  * Regresa el tamaño en bytes de los búferes que necesita un EscritorReporte
+  * @return int tamaño de los búferes
+  */
+  public static int tamanoBytes(){
+    return (int)(TAMANO_BUFER * StandardCharsets.UTF_8.newEncoder().maxBytesPerChar());
+  }
+}
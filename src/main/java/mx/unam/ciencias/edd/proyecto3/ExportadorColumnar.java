@@ -0,0 +1,213 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+* Clase que exporta el vocabulario y los conteos del análisis en un formato binario por
+* columnas, pensado para leerse con un {@link LectorColumnar} mapeado a memoria y volver a
+* acumular los conteos de varios análisis sin volver a leer los textos.
+*
+* El archivo tiene, en orden big-endian:
+* <ul>
+* <li>encabezado: {@link #MAGIA}, {@link #VERSION}, número de palabras, de archivos y de
+*     entradas (palabra, archivo), tamaño de bloque y desplazamientos de los nombres y del
+*     vocabulario;</li>
+* <li>int[] con el desplazamiento de cada bloque del vocabulario;</li>
+* <li>int[] con las apariciones de cada palabra en todos los archivos;</li>
+* <li>int[] con la primera entrada de cada archivo (uno más que archivos);</li>
+* <li>int[] con la palabra y int[] con las apariciones de cada entrada;</li>
+* <li>int[] con el desplazamiento del nombre de cada archivo (uno más que archivos) y los
+*     nombres en UTF-8;</li>
+* <li>el vocabulario ordenado, en UTF-8 con codificación de prefijos por bloques: la primera
+*     palabra de cada bloque va completa y las demás sólo con lo que no comparten con la
+*     anterior.</li>
+* </ul>
+* Las palabras de cada archivo van en el orden del vocabulario.
+* Para ordenar el vocabulario hay que conocerlo completo, así que los conteos se acumulan en
+* memoria (sólo enteros, con un {@link Vocabulario} para los identificadores) y el archivo se
+* escribe al final del análisis.
+*/
+public class ExportadorColumnar{
+  /* Nombre del archivo */
+  public static final String ARCHIVO = "vocabulario.bin";
+  /* Número mágico del formato ("EDDV") */
+  public static final int MAGIA = 0x45444456;
+  /* Versión del formato */
+  public static final int VERSION = 1;
+  /* Palabras por bloque del vocabulario */
+  public static final int BLOQUE = 16;
+  /* Bytes del encabezado */
+  public static final int ENCABEZADO = 8 * 4;
+
+  /* Identificadores de las palabras, en el orden en que aparecen */
+  private Vocabulario vocabulario;
+  /* Apariciones de cada palabra en todos los archivos */
+  private int[] conteos;
+  /* Nombres de los archivos */
+  private Lista<String> nombres;
+  /* Palabras de cada archivo */
+  private Lista<int[]> identificadores;
+  /* Apariciones de cada palabra de cada archivo */
+  private Lista<int[]> apariciones;
+  /* Número de entradas (palabra, archivo) */
+  private int entradas;
+
+  /**
+  * Constructor de la clase ExportadorColumnar
+  */
+  public ExportadorColumnar(){
+    this.vocabulario = new Vocabulario();
+    this.conteos = new int[64];
+    this.nombres = new Lista<>();
+    this.identificadores = new Lista<>();
+    this.apariciones = new Lista<>();
+  }
+
+  /**
+  * Agrega los conteos de un archivo
+  * @param String nombre del archivo
+  * @param Diccionario<String, Integer> conteo de las palabras del archivo
+  */
+  public void agrega(String nombre, Diccionario<String, Integer> diccionario){
+    int n = diccionario.getElementos();
+    int[] ids = new int[n];
+    int[] veces = new int[n];
+    int k = 0;
+    Iterator<String> iteradorLlaves = diccionario.iteradorLlaves();
+    while(iteradorLlaves.hasNext()){
+      String palabra = iteradorLlaves.next();
+      int id = vocabulario.identificador(palabra);
+      if(id == conteos.length)
+        conteos = Arrays.copyOf(conteos, conteos.length * 2);
+      int c = diccionario.get(palabra);
+      conteos[id] += c;
+      ids[k] = id;
+      veces[k++] = c;
+    }
+    nombres.agregaFinal(nombre);
+    identificadores.agregaFinal(ids);
+    apariciones.agregaFinal(veces);
+    entradas += n;
+  }
+
+  /**
+  * Escribe el archivo; si ya existe, se reemplaza al terminar de escribirlo
+  * @param File archivo en donde se escribe
+  * @throws IOException si no se puede escribir
+  */
+  public void escribe(File archivo) throws IOException{
+    int v = vocabulario.getElementos();
+    int f = nombres.getLongitud();
+    // El orden del vocabulario y el identificador definitivo de cada palabra
+    Lista<Integer> orden = new Lista<>();
+    for(int i = 0; i < v; i++)
+      orden.agregaFinal(i);
+    orden = orden.mergeSort((a, b) -> vocabulario.getPalabra(a).compareTo(vocabulario.getPalabra(b)));
+    int[] definitivo = new int[v];
+    int[] palabras = new int[v];
+    int k = 0;
+    for(int id : orden){
+      palabras[k] = id;
+      definitivo[id] = k++;
+    }
+    int bloques = (v + BLOQUE - 1) / BLOQUE;
+    int[] desplazamientos = new int[bloques];
+    ByteArrayOutputStream codificado = new ByteArrayOutputStream();
+    DataOutputStream vocab = new DataOutputStream(codificado);
+    byte[] anterior = new byte[0];
+    for(int i = 0; i < v; i++){
+      byte[] actual = vocabulario.getPalabra(palabras[i]).getBytes(StandardCharsets.UTF_8);
+      if(actual.length > 0xffff)
+        throw new IOException("Palabra demasiado larga para el formato");
+      int comun = 0;
+      if(i % BLOQUE == 0)
+        desplazamientos[i / BLOQUE] = vocab.size();
+      else
+        comun = prefijoComun(anterior, actual);
+      vocab.writeShort(comun);
+      vocab.writeShort(actual.length - comun);
+      vocab.write(actual, comun, actual.length - comun);
+      anterior = actual;
+    }
+    byte[][] bytesNombres = new byte[f][];
+    int bytesTotales = 0;
+    k = 0;
+    for(String nombre : nombres){
+      bytesNombres[k] = nombre.getBytes(StandardCharsets.UTF_8);
+      bytesTotales += bytesNombres[k++].length;
+    }
+    long desplazamientoNombres = ENCABEZADO + 4L * ((long)bloques + v + (f + 1) + 2L * entradas + (f + 1));
+    long desplazamientoVocabulario = desplazamientoNombres + bytesTotales;
+    if(desplazamientoVocabulario + vocab.size() > Integer.MAX_VALUE)
+      throw new IOException("Demasiados datos para el formato");
+
+    File temporal = new File(archivo.getPath()+".tmp");
+    try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16))){
+      out.writeInt(MAGIA);
+      out.writeInt(VERSION);
+      out.writeInt(v);
+      out.writeInt(f);
+      out.writeInt(entradas);
+      out.writeInt(BLOQUE);
+      out.writeInt((int)desplazamientoNombres);
+      out.writeInt((int)desplazamientoVocabulario);
+      for(int d : desplazamientos)
+        out.writeInt(d);
+      for(int i = 0; i < v; i++)
+        out.writeInt(conteos[palabras[i]]);
+      int inicio = 0;
+      for(int[] ids : identificadores){
+        out.writeInt(inicio);
+        inicio += ids.length;
+      }
+      out.writeInt(inicio);
+      // Las entradas de cada archivo se ordenan por su identificador definitivo
+      long[][] ordenadas = new long[f][];
+      Iterator<int[]> veces = apariciones.iterator();
+      k = 0;
+      for(int[] ids : identificadores){
+        int[] c = veces.next();
+        long[] pares = new long[ids.length];
+        for(int i = 0; i < ids.length; i++)
+          pares[i] = ((long)definitivo[ids[i]] << 32) | (c[i] & 0xffffffffL);
+        Arrays.sort(pares);
+        ordenadas[k++] = pares;
+      }
+      for(long[] pares : ordenadas)
+        for(long par : pares)
+          out.writeInt((int)(par >>> 32));
+      for(long[] pares : ordenadas)
+        for(long par : pares)
+          out.writeInt((int)par);
+      int desplazamiento = 0;
+      for(byte[] nombre : bytesNombres){
+        out.writeInt(desplazamiento);
+        desplazamiento += nombre.length;
+      }
+      out.writeInt(desplazamiento);
+      for(byte[] nombre : bytesNombres)
+        out.write(nombre);
+      codificado.writeTo(out);
+    }
+    Files.move(temporal.toPath(), archivo.toPath(),
+               StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /* Regresa la longitud del prefijo común de dos palabras en UTF-8. */
+  private static int prefijoComun(byte[] a, byte[] b){
+    int n = Math.min(a.length, b.length);
+    int i = 0;
+    while(i < n && a[i] == b[i]) i++;
+    return i;
+  }
+}
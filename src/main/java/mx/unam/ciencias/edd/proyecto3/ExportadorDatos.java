@@ -0,0 +1,210 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+* Clase que exporta los resultados del análisis para que otros programas no tengan que leerlos
+* de las páginas html. Escribe en formato JSON Lines ("datos.jsonl", un objeto por renglón) y/o
+* en CSV ("archivos.csv", "palabras.csv" y "relaciones.csv").
+* Cada renglón se escribe conforme se recorre el {@link Diccionario} de cada archivo, sobre un
+* {@link EscritorReporte}, así que la memoria necesaria no depende del número de palabras.
+* Las palabras de cada archivo salen en el orden del diccionario, que no está garantizado.
+*/
+public class ExportadorDatos implements Closeable{
+  /* Archivo JSON Lines */
+  public static final String JSON = "datos.jsonl";
+  /* Archivo CSV con el total de palabras de cada archivo */
+  public static final String CSV_ARCHIVOS = "archivos.csv";
+  /* Archivo CSV con las apariciones de cada palabra en cada archivo */
+  public static final String CSV_PALABRAS = "palabras.csv";
+  /* Archivo CSV con las palabras que comparte cada par de archivos */
+  public static final String CSV_RELACIONES = "relaciones.csv";
+  /* Dígitos hexadecimales para escapar caracteres de control */
+  private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+  /* Salida JSON Lines; null si no se exporta */
+  private EscritorReporte json;
+  /* Salidas CSV; null si no se exporta */
+  private EscritorReporte archivos;
+  private EscritorReporte palabras;
+  private EscritorReporte relaciones;
+  /* Totales que se escriben al final */
+  private int totalArchivos;
+  private long totalPalabras;
+  private int totalRelaciones;
+
+  /**
+  * Constructor de la clase ExportadorDatos
+  * @param File directorio en donde se escriben los archivos
+  * @param EscritorAsincrono hilo escritor; null para escribir en este hilo
+  * @param boolean si se exporta en formato JSON Lines
+  * @param boolean si se exporta en formato CSV
+  * @throws IOException si no se puede abrir alguno de los archivos
+  */
+  public ExportadorDatos(File directorio, EscritorAsincrono asincrono, boolean json, boolean csv) throws IOException{
+    try{
+      if(json)
+        this.json = new EscritorReporte(new File(directorio, JSON), asincrono);
+      if(csv){
+        this.archivos = new EscritorReporte(new File(directorio, CSV_ARCHIVOS), asincrono);
+        this.archivos.append("archivo,pagina,palabras,distintas\n");
+        this.palabras = new EscritorReporte(new File(directorio, CSV_PALABRAS), asincrono);
+        this.palabras.append("archivo,palabra,apariciones\n");
+        this.relaciones = new EscritorReporte(new File(directorio, CSV_RELACIONES), asincrono);
+        this.relaciones.append("primero,segundo,similitud,palabra\n");
+      }
+    }catch(IOException | RuntimeException e){
+      cierraTodos();
+      throw e;
+    }
+  }
+
+  /**
+  * Exporta el total de palabras de un archivo y las apariciones de cada una
+  * @param Archivo archivo analizado
+  * @param Diccionario<String, Integer> conteo de las palabras del archivo
+  * @throws IOException si no se puede escribir
+  */
+  public void exportaArchivo(Archivo archivo, Diccionario<String, Integer> diccionario) throws IOException{
+    String nombre = archivo.getNombre();
+    totalArchivos++;
+    totalPalabras += archivo.getTotalPalabras();
+    if(json != null){
+      json.append("{\"tipo\":\"archivo\",\"archivo\":");
+      cadenaJSON(json, nombre);
+      json.append(",\"pagina\":");
+      cadenaJSON(json, archivo.toString());
+      json.append(",\"palabras\":").append(String.valueOf(archivo.getTotalPalabras()))
+          .append(",\"distintas\":").append(String.valueOf(diccionario.getElementos())).append("}\n");
+    }
+    if(archivos != null){
+      campoCSV(archivos, nombre);
+      archivos.append(',');
+      campoCSV(archivos, archivo.toString());
+      archivos.append(',').append(String.valueOf(archivo.getTotalPalabras()))
+              .append(',').append(String.valueOf(diccionario.getElementos())).append('\n');
+    }
+    Iterator<String> iteradorLlaves = diccionario.iteradorLlaves();
+    while(iteradorLlaves.hasNext()){
+      String palabra = iteradorLlaves.next();
+      String apariciones = String.valueOf(diccionario.get(palabra));
+      if(json != null){
+        json.append("{\"tipo\":\"palabra\",\"archivo\":");
+        cadenaJSON(json, nombre);
+        json.append(",\"palabra\":");
+        cadenaJSON(json, palabra);
+        json.append(",\"apariciones\":").append(apariciones).append("}\n");
+      }
+      if(palabras != null){
+        campoCSV(palabras, nombre);
+        palabras.append(',');
+        campoCSV(palabras, palabra);
+        palabras.append(',').append(apariciones).append('\n');
+      }
+    }
+  }
+
+  /**
+  * Exporta un par de archivos relacionados junto con las palabras que comparten
+  * @param Archivo primer archivo
+  * @param Archivo segundo archivo
+  * @param double similitud entre los archivos
+  * @throws IOException si no se puede escribir
+  */
+  public void exportaRelacion(Archivo primero, Archivo segundo, double similitud) throws IOException{
+    totalRelaciones++;
+    Lista<String> comunes = primero.comparaArchivo(segundo);
+    String valor = String.valueOf(similitud);
+    if(json != null){
+      json.append("{\"tipo\":\"relacion\",\"primero\":");
+      cadenaJSON(json, primero.getNombre());
+      json.append(",\"segundo\":");
+      cadenaJSON(json, segundo.getNombre());
+      json.append(",\"similitud\":").append(valor).append(",\"palabras\":[");
+      boolean primera = true;
+      for(String palabra : comunes){
+        if(!primera) json.append(',');
+        primera = false;
+        cadenaJSON(json, palabra);
+      }
+      json.append("]}\n");
+    }
+    if(relaciones != null)
+      for(String palabra : comunes){
+        campoCSV(relaciones, primero.getNombre());
+        relaciones.append(',');
+        campoCSV(relaciones, segundo.getNombre());
+        relaciones.append(',').append(valor).append(',');
+        campoCSV(relaciones, palabra);
+        relaciones.append('\n');
+      }
+  }
+
+  /* Escribe una cadena JSON entre comillas, escapando lo necesario. */
+  private static void cadenaJSON(Appendable salida, String cadena) throws IOException{
+    salida.append('"');
+    for(int i = 0; i < cadena.length(); i++){
+      char c = cadena.charAt(i);
+      if(c == '"' || c == '\\')
+        salida.append('\\').append(c);
+      else if(c < 0x20)
+        salida.append("\\u00").append(HEXADECIMAL[c >> 4]).append(HEXADECIMAL[c & 0xf]);
+      else
+        salida.append(c);
+    }
+    salida.append('"');
+  }
+
+  /* Escribe un campo CSV; si tiene comas, comillas o saltos de línea va entre comillas. */
+  private static void campoCSV(Appendable salida, String campo) throws IOException{
+    boolean comillas = false;
+    for(int i = 0; i < campo.length() && !comillas; i++){
+      char c = campo.charAt(i);
+      comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if(!comillas){
+      salida.append(campo);
+      return;
+    }
+    salida.append('"');
+    for(int i = 0; i < campo.length(); i++){
+      char c = campo.charAt(i);
+      if(c == '"') salida.append('"');
+      salida.append(c);
+    }
+    salida.append('"');
+  }
+
+  /**
+  * Escribe los totales y cierra los archivos
+  * @throws IOException si no se pudo terminar de escribir alguno
+  */
+  @Override public void close() throws IOException{
+    try{
+      if(json != null)
+        json.append("{\"tipo\":\"totales\",\"archivos\":").append(String.valueOf(totalArchivos))
+            .append(",\"palabras\":").append(String.valueOf(totalPalabras))
+            .append(",\"relaciones\":").append(String.valueOf(totalRelaciones)).append("}\n");
+    }finally{
+      cierraTodos();
+    }
+  }
+
+  /* Cierra todos los archivos abiertos; lanza el primer error. */
+  private void cierraTodos() throws IOException{
+    IOException error = null;
+    for(EscritorReporte er : new EscritorReporte[]{ json, archivos, palabras, relaciones }){
+      if(er == null) continue;
+      try{
+        er.close();
+      }catch(IOException e){
+        if(error == null) error = e;
+      }
+    }
+    json = archivos = palabras = relaciones = null;
+    if(error != null) throw error;
+  }
+}
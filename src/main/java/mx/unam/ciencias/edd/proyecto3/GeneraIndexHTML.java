@@ -10,12 +10,116 @@ import java.io.*;
 * Clase que analiza archivo por archivo y genera el cuerpo html de todo el proyecto
 */
 public class GeneraIndexHTML{
+  /* Inicio del index, hasta antes de la lista de archivos */
+  private static final Plantilla ENCABEZADO = new Plantilla("<!DOCTYPE html>\n<html lang='en'>\n<title>Analizador de Palabras</title>\n<meta charset='UTF-8'>\n"+
+    "<link rel='stylesheet' href='https://www.w3schools.com/w3css/4/w3.css'>\n"+
+    "<link rel='stylesheet' href='https://fonts.googleapis.com/css?family=Lato'>\n"+
+    "<link rel='stylesheet' href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/4.7.0/css/font-awesome.min.css'>\n"+
+    "\n<body>\n<div class='w3-container w3-display-container w3-padding-16'>\n<h3 class='w3-wide'><b>Estructuras de Datos</b></h3>\n"+
+    "\n</div>\n<div class='w3-content' style='max-width:2000px;'>\n"+
+    "\n<div class='w3-container w3-content w3-center w3-padding-64' style='max-width:800px' id='band'>"+
+    "\n<h2 class='w3-wide'>Analizador de Palabras</h2>\n<p class='w3-opacity'>\n<i>Ciencias de la Computación: Estructuras de Datos</i></p>"+
+    "\n<p class='w3-justify'>Proyecto de estructuras de datos. Analizador de palabras, que realiza el conteo de palabras por archivo"+
+    "\ny en número de apariciones. Además, la gráfica que se presenta abajo indica cuando dos archivos tienen palabras en común con una"+
+    "\nlongitud de caracteres mayor a 7.</p>\n<p class='w3-justify'>Estructuras de Datos utilizadas:</p>\n<br>"+
+    "\n<ol class='w3-wide'><li>Diccionario: Se utilizó para hacer el conteo de apariciones por palabra. </li>"+
+    "\n<li>Listas ligadas: Se utilizaron para ordenar las llaves de los diccionarios. </li>"+
+    "\n<li>Árboles Rojinegros: Se utilizaron para desplegar las apariciones de palabras. </li>"+
+    "\n<li>Árboles Autobalanceables (AVL): Se utilizaron para desplegar las apariciones de palabras. </li>"+
+    "\n<li>Conjuntos: Se utilizaron para hallar la palabras en común entre archivos. </li>"+
+    "\n<li>Gráficas: Se utilizaron para representar a los archivos que comparten palabras. </li>"+
+    "\n</ol></div><div class=' w3-justify w3-container w3-content w3-center w3-padding-64' style='max-width:800px' id='band'>"+
+    "\n<h2>Archivos que se analizaron: </h2><ol>");
+  /* Fragmento entre la lista de archivos y la gráfica */
+  private static final Plantilla TITULO_GRAFICA = new Plantilla("\n</ol></div><div class='w3-black' id='tour'><div class='w3-container w3-content w3-padding-64' style='max-width:800px'>"+
+    "\n<h2 class='w3-wide w3-center'>Relación entre archivos (representada por una gráfica)</h2>"+
+    "\n<p class='w3-opacity w3-center'><i>Aquellos que comparten aristas, tienen palabras en común de al menos 7 caracteres.</i></p><br>");
+  /* Cierre del index */
+  private static final Plantilla CIERRE = new Plantilla("\n</div>\n</div>\n</div>\n</body>\n</html>");
+  /* Número de archivos a partir del cual el nivel de detalle automático muestra el resumen */
+  public static final int ARCHIVOS_RESUMEN = 1000;
+  /* Número de palabras que se listan por par en el resumen, si no se definió otro */
+  public static final int PALABRAS_RESUMEN = 10;
+  /* Capacidad (en caracteres) de la cache de árboles ya dibujados */
+  public static final long CAPACIDAD_FRAGMENTOS = 16L << 20;
   /* Variable que tiene el directorio donde se guardará todo el cuerpo del proyecto */
   private File directorioF;
   /* Lista con todos los archivos a analizar */
   private Lista<String> archivos;
   /* Archivos con su información */
   private Archivo[] listaArchivos;
+  /* Vocabulario que comparten todos los archivos */
+  private Vocabulario vocabulario;
+  /* Número de hilos para comparar los archivos */
+  private int hilos;
+  /* Medida con la que se califica qué tan parecidos son dos archivos */
+  private MedidaSimilitud medida;
+  /* Número de vecinos más parecidos que se conservan por archivo en la gráfica */
+  private int vecinos;
+  /* Distancia de Hamming máxima entre las huellas de dos archivos casi idénticos; negativa para no agruparlos */
+  private int umbralDuplicados;
+  /* Representante del grupo de casi idénticos de cada archivo */
+  private int[] representantes;
+  /* Si las páginas se escriben en un hilo aparte */
+  private boolean escrituraAsincrona;
+  /* Capacidad de la cola de escrituras del hilo escritor */
+  private int capacidadEscrituras;
+  /* Hilo escritor del último análisis; null si se escribió en el mismo hilo */
+  private EscritorAsincrono escritor;
+  /* Si las páginas se escriben también comprimidas con gzip */
+  private Compresion compresion;
+  /* Nivel de compresión de las páginas comprimidas */
+  private int nivelCompresion;
+  /* Bytes, sin comprimir y comprimidos, y tiempo de compresión de cada página del último análisis */
+  private Lista<String> reporteCompresion;
+  /* Total de bytes sin comprimir del último análisis */
+  private long bytesPlanos;
+  /* Total de bytes comprimidos del último análisis */
+  private long bytesComprimidos;
+  /* Tiempo total de compresión del último análisis, en milisegundos */
+  private double tiempoCompresion;
+  /* Si se usa el manifiesto del directorio para no volver a analizar los archivos que no cambiaron */
+  private boolean usaCache;
+  /* Manifiesto del último análisis; null si no se usó */
+  private CacheAnalisis cache;
+  /* Cuánto detalle se muestra en la gráfica del index */
+  private NivelDetalle nivelDetalle;
+  /* Similitud mínima de las relaciones que se dibujan */
+  private double umbralSimilitud;
+  /* Número máximo de relaciones por archivo en la gráfica; 0 para no limitarlas */
+  private int relacionesPorArchivo;
+  /* Número máximo de palabras que se listan por par; 0 para todas */
+  private int palabrasPorPar;
+  /* Iteraciones para acomodar la gráfica de archivos; 0 para acomodarlos en una circunferencia */
+  private int iteracionesGrafica;
+  /* Número máximo de palabras en los árboles de cada página; 0 para todas */
+  private int palabrasArbol;
+  /* Árboles ya dibujados, compartidos por las páginas de todos los archivos */
+  private CacheLRU<LlaveFragmento, String> fragmentos;
+  /* Si los dibujos se escriben en SVG compacto */
+  private boolean svgCompacto;
+  /* Número de palabras en cada página de la lista de palabras de un archivo */
+  private int palabrasPorPagina;
+  /* Número de páginas del último análisis que se generaron iguales y no se reemplazaron */
+  private int paginasSinCambios;
+  /* Si se exportan los resultados en formato JSON Lines */
+  private boolean exportaJSON;
+  /* Si se exportan los resultados en formato CSV */
+  private boolean exportaCSV;
+  /* Si se exportan el vocabulario y los conteos en formato binario */
+  private boolean exportaBinario;
+  /* Si las páginas se generan para servirlas (con analiza()) y no para escribirlas */
+  private boolean sirviendo;
+  /* Exportador de los resultados; null si no se exportan */
+  private ExportadorDatos exportador;
+  /* Exportador binario; null si no se exporta */
+  private ExportadorColumnar columnar;
+  /* Conteo de las palabras de cada archivo, si las páginas se generan cuando se piden */
+  private Diccionario<String, Integer>[] diccionarios;
+  /* Número de archivos analizados */
+  private int analizados;
+  /* Relaciones que se dibujaron en la gráfica del index */
+  private Lista<ComparadorArchivos.Relacion> relaciones;
   /**
   * Constructor de la clase GeneraIndexHTML
   * @param Lista<Strin lista con los archivos a analizar
@@ -24,6 +128,233 @@ public class GeneraIndexHTML{
   public GeneraIndexHTML(Lista<String> archivos, String dir){
     this.archivos = archivos;
     this.directorioF = new File(dir);
+    this.vocabulario = new Vocabulario();
+    this.hilos = Runtime.getRuntime().availableProcessors();
+    this.medida = MedidaSimilitud.JACCARD;
+    this.vecinos = 5;
+    this.umbralDuplicados = 3;
+    this.escrituraAsincrona = true;
+    this.capacidadEscrituras = EscritorAsincrono.CAPACIDAD;
+    this.compresion = Compresion.NINGUNA;
+    this.nivelCompresion = 6;
+    this.reporteCompresion = new Lista<>();
+    this.usaCache = true;
+    this.palabrasArbol = 15;
+    this.palabrasPorPagina = ManejaPalabras.PALABRAS_POR_PAGINA;
+    this.fragmentos = new CacheLRU<>(CAPACIDAD_FRAGMENTOS);
+    this.iteracionesGrafica = DisposicionFuerzas.ITERACIONES;
+    this.nivelDetalle = NivelDetalle.AUTOMATICO;
+  }
+  /**
+  * Método para definir el número de hilos con los que se comparan los archivos
+  * @param int número de hilos
+  */
+  public void setHilos(int hilos){
+    if(hilos < 1) throw new IllegalArgumentException("Número de hilos inválido: "+hilos);
+    this.hilos = hilos;
+  }
+  /**
+  * Método para definir la medida con la que se califica qué tan parecidos son dos archivos
+  * @param MedidaSimilitud medida
+  */
+  public void setMedida(MedidaSimilitud medida){
+    this.medida = medida;
+  }
+  /**
+  * Método para definir cuántos vecinos (los más parecidos) se conservan por archivo en la gráfica
+  * @param int número de vecinos; 0 para conservar todas las relaciones
+  */
+  public void setVecinos(int vecinos){
+    if(vecinos < 0) throw new IllegalArgumentException("Número de vecinos inválido: "+vecinos);
+    this.vecinos = vecinos;
+  }
+  /**
+  * Método para definir qué tan parecidas deben ser las huellas SimHash de dos archivos
+  * para considerarlos casi idénticos
+  * @param int distancia de Hamming máxima (a lo más 63); negativa para no agrupar archivos
+  */
+  public void setUmbralDuplicados(int umbral){
+    if(umbral > 63) throw new IllegalArgumentException("Umbral inválido: "+umbral);
+    this.umbralDuplicados = umbral;
+  }
+  /**
+  * Método para definir cuánto detalle se muestra en la gráfica del index: completo, sólo el
+  * esqueleto de máxima similitud con pocas palabras por par, o automático (el resumen a partir
+  * de ARCHIVOS_RESUMEN archivos)
+  * @param NivelDetalle nivel de detalle
+  */
+  public void setNivelDetalle(NivelDetalle nivelDetalle){
+    this.nivelDetalle = nivelDetalle;
+  }
+  /**
+  * Método para definir la similitud mínima de las relaciones que se dibujan en el index
+  * @param double similitud mínima; 0 para dibujar todas
+  */
+  public void setUmbralSimilitud(double umbral){
+    if(umbral < 0 || Double.isNaN(umbral)) throw new IllegalArgumentException("Umbral inválido: "+umbral);
+    this.umbralSimilitud = umbral;
+  }
+  /**
+  * Método para definir cuántas relaciones puede tener a lo más cada archivo en la gráfica
+  * @param int número máximo de relaciones; 0 para no limitarlas
+  */
+  public void setRelacionesPorArchivo(int relaciones){
+    if(relaciones < 0) throw new IllegalArgumentException("Número de relaciones inválido: "+relaciones);
+    this.relacionesPorArchivo = relaciones;
+  }
+  /**
+  * Método para definir cuántas palabras en común se listan a lo más por cada par de archivos
+  * @param int número máximo de palabras; 0 para todas (en el resumen, PALABRAS_RESUMEN)
+  */
+  public void setPalabrasPorPar(int palabras){
+    if(palabras < 0) throw new IllegalArgumentException("Número de palabras inválido: "+palabras);
+    this.palabrasPorPar = palabras;
+  }
+  /**
+  * Método para definir si las páginas se escriben en un hilo aparte, de modo que la escritura
+  * de un archivo se traslape con el análisis del siguiente
+  * @param boolean true para escribir en un hilo aparte
+  */
+  public void setEscrituraAsincrona(boolean asincrona){
+    this.escrituraAsincrona = asincrona;
+  }
+  /**
+  * Método para definir cuántas escrituras pueden esperar en la cola del hilo escritor antes
+  * de que el análisis se detenga a esperarlo
+  * @param int capacidad de la cola
+  */
+  public void setCapacidadEscrituras(int capacidad){
+    if(capacidad < 1) throw new IllegalArgumentException("Capacidad inválida: "+capacidad);
+    this.capacidadEscrituras = capacidad;
+  }
+  /**
+  * Regresa el hilo escritor del último análisis, con sus métricas (profundidad de la cola y
+  * latencia de las escrituras)
+  * @return EscritorAsincrono hilo escritor; null si no se usó
+  */
+  public EscritorAsincrono getEscritor(){
+    return escritor;
+  }
+  /**
+  * Método para definir si las páginas se escriben también comprimidas con gzip
+  * @param Compresion compresión de las páginas
+  */
+  public void setCompresion(Compresion compresion){
+    this.compresion = compresion;
+  }
+  /**
+  * Método para definir el nivel de compresión de las páginas comprimidas
+  * @param int nivel, de 0 (sin compresión) a 9 (máxima compresión)
+  */
+  public void setNivelCompresion(int nivel){
+    if(nivel < 0 || nivel > 9) throw new IllegalArgumentException("Nivel de compresión inválido: "+nivel);
+    this.nivelCompresion = nivel;
+  }
+  /**
+  * Regresa, por cada página comprimida del último análisis, sus bytes sin comprimir y
+  * comprimidos y el tiempo que tomó comprimirla
+  * @return Lista<String> una línea por página
+  */
+  public Lista<String> getReporteCompresion(){
+    return reporteCompresion;
+  }
+  /**
+  * Regresa un resumen de la compresión del último análisis
+  * @return String total de bytes escritos y tiempo de compresión
+  */
+  public String getResumenCompresion(){
+    double razon = bytesComprimidos == 0 ? 0 : (double)bytesPlanos / bytesComprimidos;
+    return String.format("páginas=%d sin comprimir=%d bytes comprimidas=%d bytes (%.1f:1) tiempo=%.3f ms",
+                         reporteCompresion.getLongitud(), bytesPlanos, bytesComprimidos, razon, tiempoCompresion);
+  }
+  /**
+  * Método para definir si se usa el manifiesto del directorio de salida para no volver a
+  * contar ni dibujar los archivos que no cambiaron desde el análisis anterior
+  * @param boolean true para usar el manifiesto
+  */
+  public void setCache(boolean usaCache){
+    this.usaCache = usaCache;
+  }
+  /**
+  * Método para definir cuántas iteraciones se simulan para acomodar la gráfica de archivos
+  * @param int número de iteraciones; 0 para acomodarlos en una circunferencia
+  */
+  public void setIteracionesGrafica(int iteraciones){
+    if(iteraciones < 0) throw new IllegalArgumentException("Número de iteraciones inválido: "+iteraciones);
+    this.iteracionesGrafica = iteraciones;
+  }
+  /**
+  * Método para definir cuántas de las palabras con más apariciones se dibujan en los árboles
+  * de cada página
+  * @param int número máximo de palabras; 0 para todas las del archivo
+  */
+  public void setPalabrasArbol(int palabrasArbol){
+    if(palabrasArbol < 0) throw new IllegalArgumentException("Número de palabras inválido: "+palabrasArbol);
+    this.palabrasArbol = palabrasArbol;
+  }
+  /**
+  * Método para definir si los resultados (palabras de cada archivo, totales y relaciones) se
+  * exportan en formato JSON Lines, en el archivo "datos.jsonl"
+  * @param boolean true para exportarlos
+  */
+  public void setExportaJSON(boolean exportaJSON){
+    this.exportaJSON = exportaJSON;
+  }
+  /**
+  * Método para definir si los resultados se exportan en formato CSV, en los archivos
+  * "archivos.csv", "palabras.csv" y "relaciones.csv"
+  * @param boolean true para exportarlos
+  */
+  public void setExportaCSV(boolean exportaCSV){
+    this.exportaCSV = exportaCSV;
+  }
+  /**
+  * Método para definir si el vocabulario ordenado y los conteos de cada archivo se exportan
+  * en formato binario por columnas, en el archivo "vocabulario.bin", para leerlos con un
+  * {@link LectorColumnar}
+  * @param boolean true para exportarlos
+  */
+  public void setExportaBinario(boolean exportaBinario){
+    this.exportaBinario = exportaBinario;
+  }
+  /**
+  * Método para definir cuántas palabras se listan en cada página de la lista de palabras de
+  * un archivo; la primera página va en la del archivo y las demás en "archivoN-palabrasK.html"
+  * @param int número de palabras por página
+  */
+  public void setPalabrasPorPagina(int palabrasPorPagina){
+    if(palabrasPorPagina < 1) throw new IllegalArgumentException("Número de palabras inválido: "+palabrasPorPagina);
+    this.palabrasPorPagina = palabrasPorPagina;
+  }
+  /**
+  * Método para definir si las gráficas, los árboles y la gráfica del index se escriben en SVG
+  * compacto: estilos en clases de CSS, rebanadas del pastel como arcos y un decimal
+  * @param boolean true para el modo compacto
+  */
+  public void setSVGCompacto(boolean svgCompacto){
+    this.svgCompacto = svgCompacto;
+  }
+  /**
+  * Regresa la cache de árboles ya dibujados, con sus aciertos y fallos
+  * @return CacheLRU<LlaveFragmento, String> árboles dibujados
+  */
+  public CacheLRU<LlaveFragmento, String> getFragmentos(){
+    return fragmentos;
+  }
+  /**
+  * Regresa el manifiesto del último análisis, con cuántos archivos y páginas se reutilizaron
+  * @return CacheAnalisis manifiesto; null si no se usó
+  */
+  public CacheAnalisis getCache(){
+    return cache;
+  }
+  /**
+  * Regresa el número de páginas del último análisis que se volvieron a generar idénticas y
+  * por lo tanto no se reemplazaron
+  * @return int páginas sin cambios
+  */
+  public int getPaginasSinCambios(){
+    return paginasSinCambios;
   }
   /* Método main del proyecto que se encarga de analizar todo */
   public void generaAnalisis(){
@@ -34,36 +365,364 @@ public class GeneraIndexHTML{
     File file;
     int i = 0;
     listaArchivos = new Archivo[archivos.getLongitud()];
+    diccionarios = null;
+    sirviendo = false;
+    escritor = escrituraAsincrona ? new EscritorAsincrono(EscritorReporte.tamanoBytes(), capacidadEscrituras) : null;
+    reporteCompresion = new Lista<>();
+    bytesPlanos = bytesComprimidos = 0;
+    tiempoCompresion = 0;
+    paginasSinCambios = 0;
+    cache = usaCache ? new CacheAnalisis(directorioF, firmaConfiguracion()) : null;
+    exportador = null;
+    if(exportaJSON || exportaCSV)
+      try{
+        exportador = new ExportadorDatos(directorioF, escritor, exportaJSON, exportaCSV);
+      }catch(IOException e){
+        System.out.println("No se han podido crear los archivos de exportación: "+e.getMessage());
+      }
+    columnar = exportaBinario ? new ExportadorColumnar() : null;
     for(String archivo : archivos){
       file = new File(archivo);
       if(file.exists()){
-        diccionario = ConteoPalabras.contarApariciones(archivo);
+        CacheAnalisis.Entrada guardada = buscaEnCache(file);
+        diccionario = guardada != null ? guardada.getPalabras() : ConteoPalabras.contarApariciones(archivo);
         if(diccionario != null && diccionario.getElementos() > 0){
-          ManejaPalabras ap = new ManejaPalabras(diccionario, 20);
-          try{
-            FileWriter mw = new FileWriter(new File(directorioF, "archivo"+i+".html"));
-            mw.write(ap.generaHTML());
-            mw.close();
-          }catch(IOException e){
-            System.out.println("No se ha podido escribir el archivo: "+archivo);
-          }
-          listaArchivos[i] = new Archivo("archivo"+i+".html", diccionario, archivo);
+          String pagina = nombrePagina("archivo"+i+".html");
+          if(guardada != null && cache.paginaVigente(guardada, pagina))
+            cache.conserva(guardada);
+          else
+            escribePagina(file, guardada, diccionario, i);
+          listaArchivos[i] = new Archivo(pagina, diccionario, archivo, vocabulario);
+          exporta(listaArchivos[i], diccionario);
           i++;
         }
       }else
           System.out.println("No existe el archivo: "+archivo);
     }
+    analizados = i;
+    agrupaDuplicados();
     escribeIndexHTML();
+    terminaExportacion();
+    if(escritor != null)
+      try{
+        escritor.close();
+      }catch(IOException e){
+        System.out.println("No se han podido escribir todos los archivos: "+e.getMessage());
+      }
+    if(cache != null)
+      try{
+        cache.guarda();
+      }catch(IOException e){
+        System.out.println("No se ha podido guardar el manifiesto: "+e.getMessage());
+      }
+  }
+  /**
+  * Método que cuenta las palabras de los archivos sin escribir ninguna página; los conteos se
+  * quedan en memoria y las páginas se generan cuando se piden, con
+  * {@link #escribePagina(int, Appendable)} y {@link #escribeIndexHTML(Appendable)}
+  */
+  @SuppressWarnings("unchecked") public void analiza(){
+    Diccionario<String, Integer> diccionario;
+    File file;
+    int i = 0;
+    listaArchivos = new Archivo[archivos.getLongitud()];
+    diccionarios = (Diccionario<String, Integer>[])new Diccionario[archivos.getLongitud()];
+    escritor = null;
+    sirviendo = true;
+    // El manifiesto sólo se lee para no volver a contar; no se actualiza
+    cache = usaCache && directorioF.isDirectory() ? new CacheAnalisis(directorioF, firmaConfiguracion()) : null;
+    for(String archivo : archivos){
+      file = new File(archivo);
+      if(file.exists()){
+        CacheAnalisis.Entrada guardada = buscaEnCache(file);
+        diccionario = guardada != null ? guardada.getPalabras() : ConteoPalabras.contarApariciones(archivo);
+        if(diccionario != null && diccionario.getElementos() > 0){
+          listaArchivos[i] = new Archivo(nombrePagina("archivo"+i+".html"), diccionario, archivo, vocabulario);
+          diccionarios[i] = diccionario;
+          i++;
+        }
+      }else
+          System.out.println("No existe el archivo: "+archivo);
+    }
+    analizados = i;
+    agrupaDuplicados();
+  }
+  /**
+  * Regresa el número de archivos analizados (los que existen y tienen palabras)
+  * @return int número de archivos
+  */
+  public int getAnalizados(){
+    return analizados;
+  }
+  /**
+  * Método que escribe la página de un archivo analizado con {@link #analiza()}
+  * @param int número de la página
+  * @param Appendable salida en donde se escribe la página
+  * @throws IOException si no se puede escribir en la salida
+  * @throws ExcepcionIndiceInvalido si no hay un archivo analizado con ese número
+  */
+  public void escribePagina(int i, Appendable salida) throws IOException{
+    if(diccionarios == null || i < 0 || i >= analizados)
+      throw new ExcepcionIndiceInvalido("No hay página para el archivo: "+i);
+    manejaPalabras(diccionarios[i], i).escribeHTML(salida);
+  }
+  /**
+  * Método que escribe una de las páginas aparte de la lista de palabras de un archivo
+  * analizado con {@link #analiza()}
+  * @param int número de la página del archivo
+  * @param int número de la página de la lista, a partir de 1
+  * @param Appendable salida en donde se escribe la página
+  * @throws IOException si no se puede escribir en la salida
+  * @throws ExcepcionIndiceInvalido si no existe la página
+  */
+  public void escribePaginaPalabras(int i, int k, Appendable salida) throws IOException{
+    if(diccionarios == null || i < 0 || i >= analizados)
+      throw new ExcepcionIndiceInvalido("No hay página para el archivo: "+i);
+    manejaPalabras(diccionarios[i], i).escribePaginaPalabras(k, salida);
+  }
+  /**
+  * Regresa el generador de la página de un archivo
+  * @param Diccionario<String, Integer> conteo de las palabras del archivo
+  * @param int número de la página
+  * @return ManejaPalabras generador de la página
+  */
+  private ManejaPalabras manejaPalabras(Diccionario<String, Integer> diccionario, int i){
+    ManejaPalabras ap = new ManejaPalabras(diccionario, 20);
+    ap.setIndice(nombrePagina("index.html"));
+    ap.setPalabrasArbol(palabrasArbol);
+    ap.setPalabrasPorPagina(palabrasPorPagina);
+    ap.setSVGCompacto(svgCompacto);
+    ap.setFragmentos(fragmentos);
+    ap.setPaginasPalabras(nombrePagina("archivo"+i+".html"), "archivo"+i+"-palabras", nombrePagina(".html"));
+    return ap;
+  }
+  /**
+  * Método que exporta las palabras de un archivo
+  * @param Archivo archivo analizado
+  * @param Diccionario<String, Integer> conteo de las palabras del archivo
+  */
+  private void exporta(Archivo archivo, Diccionario<String, Integer> diccionario){
+    if(columnar != null)
+      columnar.agrega(archivo.getNombre(), diccionario);
+    if(exportador == null) return;
+    try{
+      exportador.exportaArchivo(archivo, diccionario);
+    }catch(IOException e){
+      System.out.println("No se ha podido exportar el archivo: "+archivo.getNombre());
+    }
+  }
+  /**
+  * Método que exporta las relaciones de la gráfica del index, escribe el archivo binario y
+  * cierra los archivos de exportación
+  */
+  private void terminaExportacion(){
+    if(columnar != null)
+      try{
+        columnar.escribe(new File(directorioF, ExportadorColumnar.ARCHIVO));
+      }catch(IOException e){
+        System.out.println("No se ha podido escribir el archivo: "+ExportadorColumnar.ARCHIVO);
+      }finally{
+        columnar = null;
+      }
+    if(exportador == null) return;
+    try{
+      try{
+        if(relaciones != null)
+          for(ComparadorArchivos.Relacion relacion : relaciones)
+            exportador.exportaRelacion(listaArchivos[relacion.getPrimero()], listaArchivos[relacion.getSegundo()],
+                                       relacion.getSimilitud());
+      }finally{
+        exportador.close();
+        exportador = null;
+      }
+    }catch(IOException e){
+      System.out.println("No se han podido exportar los resultados: "+e.getMessage());
+    }
+  }
+  /**
+  * Método que busca un archivo en el manifiesto
+  * @param File archivo de entrada
+  * @return CacheAnalisis.Entrada información guardada; null si no hay o el archivo cambió
+  */
+  private CacheAnalisis.Entrada buscaEnCache(File file){
+    if(cache == null) return null;
+    try{
+      return cache.busca(file);
+    }catch(IOException e){
+      return null;
+    }
+  }
+  /**
+  * Método que escribe la página de un archivo y la registra en el manifiesto
+  * @param File archivo de entrada
+  * @param CacheAnalisis.Entrada información guardada del archivo; null si se contaron sus palabras
+  * @param Diccionario<String, Integer> conteo de las palabras del archivo
+  * @param int número de la página
+  */
+  private void escribePagina(File file, CacheAnalisis.Entrada guardada,
+                             Diccionario<String, Integer> diccionario, int i){
+    ManejaPalabras ap = manejaPalabras(diccionario, i);
+    // Cada archivo escrito para la página se registra para saber si sigue vigente
+    Diccionario<String, Long> escritos = new Diccionario<>();
+    try{
+      EscritorReporte er = abreReporte("archivo"+i+".html");
+      try{
+        ap.escribeHTML(er);
+      }catch(IOException | RuntimeException e){
+        // La página anterior se queda en lugar de una a medias
+        er.descarta();
+        throw e;
+      }
+      cierraReporte("archivo"+i+".html", er);
+      registraEscritos(escritos, "archivo"+i+".html", er);
+      for(int k = 1; k < ap.getPaginasPalabras(); k++){
+        String lista = "archivo"+i+"-palabras"+k+".html";
+        EscritorReporte el = abreReporte(lista);
+        try{
+          ap.escribePaginaPalabras(k, el);
+        }catch(IOException | RuntimeException e){
+          el.descarta();
+          throw e;
+        }
+        cierraReporte(lista, el);
+        registraEscritos(escritos, lista, el);
+      }
+      if(cache != null)
+        cache.registra(file, guardada, diccionario, nombrePagina("archivo"+i+".html"), escritos);
+    }catch(IOException e){
+      System.out.println("No se ha podido escribir el archivo: "+file.getPath());
+    }
+  }
+  /**
+  * Método que agrega a los archivos de una página los que se escribieron para una de sus
+  * partes: la versión sin comprimir, la comprimida o ambas, según la compresión
+  * @param Diccionario<String, Long> archivos escritos con la huella de su contenido
+  * @param String nombre de la parte
+  * @param EscritorReporte escritor de la parte, ya cerrado
+  */
+  private void registraEscritos(Diccionario<String, Long> escritos, String nombre, EscritorReporte er){
+    if(compresion != Compresion.SOLO_GZIP)
+      escritos.agrega(nombre, er.getHuella());
+    if(compresion != Compresion.NINGUNA)
+      escritos.agrega(nombre+".gz", er.getHuella());
+  }
+  /**
+  * Regresa la firma de la configuración con la que se generan las páginas; si cambia, las
+  * páginas guardadas no se reutilizan. Los campos no caben juntos en 64 bits sin encimarse,
+  * así que se mezclan uno por uno
+  * @return long firma de la configuración
+  */
+  private long firmaConfiguracion(){
+    long firma = 0;
+    firma = mezclaFirma(firma, svgCompacto ? 1 : 0);
+    firma = mezclaFirma(firma, palabrasPorPagina);
+    firma = mezclaFirma(firma, palabrasArbol);
+    firma = mezclaFirma(firma, compresion.ordinal());
+    firma = mezclaFirma(firma, nivelCompresion);
+    return firma;
+  }
+  /* Agrega un campo a la firma; el multiplicador impar grande hace que cambios chicos en
+   * campos distintos no se compensen entre sí, como pasaría con 31 */
+  private static long mezclaFirma(long firma, long campo){
+    return (firma + campo) * 0x9E3779B97F4A7C15L;
+  }
+  /**
+  * Método que abre una página del reporte en el directorio de salida
+  * @param String nombre de la página
+  * @return EscritorReporte en donde se escribe la página
+  * @throws IOException si no se puede abrir el archivo
+  */
+  private EscritorReporte abreReporte(String nombre) throws IOException{
+    // Si el hilo escritor ya falló, las páginas que faltan se escriben en este hilo
+    boolean activo = escritor != null && !escritor.estaCerrado() && !escritor.fallo();
+    return new EscritorReporte(new File(directorioF, nombre), activo ? escritor : null,
+                               compresion != Compresion.SOLO_GZIP,
+                               compresion == Compresion.NINGUNA ? -1 : nivelCompresion,
+                               huellaAnterior(nombre));
+  }
+  /**
+  * Regresa la huella de la página que ya está en el directorio de salida, para que el
+  * {@link EscritorReporte} no la reemplace si la vuelve a generar igual
+  * @param String nombre de la página
+  * @return Long huella de la página; null si no existe o no se puede comparar
+  */
+  private Long huellaAnterior(String nombre){
+    try{
+      if(cache != null)
+        return cache.huellaPagina(nombrePagina(nombre));
+      File f = new File(directorioF, nombre);
+      // Sin el manifiesto no se sabe con qué nivel se comprimió la página anterior
+      if(compresion == Compresion.NINGUNA && f.exists())
+        return HuellaContenido.deArchivo(f);
+    }catch(IOException e){
+      // Si no se puede leer la página anterior simplemente se reemplaza
+    }
+    return null;
+  }
+  /**
+  * Método que cierra una página del reporte y registra cuánto se comprimió
+  * @param String nombre de la página
+  * @param EscritorReporte escritor de la página
+  * @throws IOException si no se pudo terminar de escribir la página
+  */
+  private void cierraReporte(String nombre, EscritorReporte er) throws IOException{
+    er.close();
+    if(er.sinCambios()) paginasSinCambios++;
+    CompresorGzip gz = er.getCompresor();
+    if(gz == null) return;
+    bytesPlanos += gz.getBytesEntrada();
+    bytesComprimidos += gz.getBytesSalida();
+    tiempoCompresion += gz.getTiempo();
+    reporteCompresion.agrega(String.format("%s: %d -> %d bytes en %.3f ms", nombre+".gz",
+                                           gz.getBytesEntrada(), gz.getBytesSalida(), gz.getTiempo()));
+  }
+  /**
+  * Regresa el nombre con el que se enlaza una página: si sólo se escriben las páginas
+  * comprimidas, el del archivo ".gz" (el servidor debe entregarlo con Content-Encoding: gzip,
+  * ver {@link Compresion}); al servir el reporte las páginas no se comprimen
+  * @param String nombre de la página
+  * @return String nombre del archivo al que se enlaza
+  */
+  private String nombrePagina(String nombre){
+    return !sirviendo && compresion == Compresion.SOLO_GZIP ? nombre+".gz" : nombre;
+  }
+  /**
+  * Método que agrupa a los archivos casi idénticos; sólo el representante de cada grupo
+  * participa en la gráfica
+  */
+  private void agrupaDuplicados(){
+    if(umbralDuplicados >= 0){
+      representantes = new AgrupadorDuplicados(listaArchivos, umbralDuplicados).agrupa();
+      return;
+    }
+    representantes = new int[listaArchivos.length];
+    for(int i = 0; i < listaArchivos.length; i++)
+      representantes[i] = listaArchivos[i] == null ? -1 : i;
+  }
+  /**
+  * Método que regresa los archivos que representan a su grupo de casi idénticos
+  * @return Archivo[] con null en lugar de los archivos duplicados
+  */
+  private Archivo[] archivosUnicos(){
+    Archivo[] unicos = new Archivo[listaArchivos.length];
+    for(int i = 0; i < listaArchivos.length; i++)
+      if(representantes[i] == i)
+        unicos[i] = listaArchivos[i];
+    return unicos;
   }
   /**
   * Método que escribe el cuerpo del Index.html
   */
   public void escribeIndexHTML(){
     try{
-      //LectorEntrada.escribirArchivo("archivo"+i+".html", ap.generaHTML());
-      FileWriter mw = new FileWriter(new File(directorioF, "index.html"));
-      mw.write(generaIndexHTML());
-      mw.close();
+      EscritorReporte er = abreReporte("index.html");
+      try{
+        escribeIndexHTML(er);
+      }catch(IOException | RuntimeException e){
+        er.descarta();
+        throw e;
+      }
+      cierraReporte("index.html", er);
     }catch(IOException e){
       System.out.println("No se ha podido escribir el archivo: index.html");
     }catch(Exception n){
@@ -75,60 +734,108 @@ public class GeneraIndexHTML{
   * @return representación en string del html del index.html
   */
   public String generaIndexHTML(){
-    String cadena = "<!DOCTYPE html>\n<html lang='en'>\n<title>Analizador de Palabras</title>\n<meta charset='UTF-8'>\n"+
-    "<link rel='stylesheet' href='https://www.w3schools.com/w3css/4/w3.css'>\n"+
-    "<link rel='stylesheet' href='https://fonts.googleapis.com/css?family=Lato'>\n"+
-    "<link rel='stylesheet' href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/4.7.0/css/font-awesome.min.css'>\n"+
-    "\n<body>\n<div class='w3-container w3-display-container w3-padding-16'>\n<h3 class='w3-wide'><b>Estructuras de Datos</b></h3>\n"+
-    "\n</div>\n<div class='w3-content' style='max-width:2000px;'>\n"+
-    "\n<div class='w3-container w3-content w3-center w3-padding-64' style='max-width:800px' id='band'>"+
-    "\n<h2 class='w3-wide'>Analizador de Palabras</h2>\n<p class='w3-opacity'>\n<i>Ciencias de la Computación: Estructuras de Datos</i></p>"+
-    "\n<p class='w3-justify'>Proyecto de estructuras de datos. Analizador de palabras, que realiza el conteo de palabras por archivo"+
-    "\ny en número de apariciones. Además, la gráfica que se presenta abajo indica cuando dos archivos tienen palabras en común con una"+
-    "\nlongitud de caracteres mayor a 7.</p>\n<p class='w3-justify'>Estructuras de Datos utilizadas:</p>\n<br>"+
-    "\n<ol class='w3-wide'><li>Diccionario: Se utilizó para hacer el conteo de apariciones por palabra. </li>"+
-    "\n<li>Listas ligadas: Se utilizaron para ordenar las llaves de los diccionarios. </li>"+
-    "\n<li>Árboles Rojinegros: Se utilizaron para desplegar las apariciones de palabras. </li>"+
-    "\n<li>Árboles Autobalanceables (AVL): Se utilizaron para desplegar las apariciones de palabras. </li>"+
-    "\n<li>Conjuntos: Se utilizaron para hallar la palabras en común entre archivos. </li>"+
-    "\n<li>Gráficas: Se utilizaron para representar a los archivos que comparten palabras. </li>"+
-    "\n</ol></div><div class=' w3-justify w3-container w3-content w3-center w3-padding-64' style='max-width:800px' id='band'>"+
-    "\n<h2>Archivos que se analizaron: </h2><ol>";
+    StringBuilder cadena = new StringBuilder();
+    try{
+      escribeIndexHTML(cadena);
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return cadena.toString();
+  }
+  /**
+  * Método que escribe el index html conforme se va generando
+  * @param Appendable salida en donde se escribe el index
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribeIndexHTML(Appendable cadena) throws IOException{
+    ENCABEZADO.escribe(cadena);
 
-    String link = "";
-    for(Archivo arch : listaArchivos){
-      if(arch != null){
-        link = "<a "+" href= "+arch.toString()+" style='color:blue;'>"+ arch.getNombre()+" </a>";
-        cadena+="\n<li >"+link+" tiene "+arch.getTotalPalabras()+" palabras. </li>";
+    for(int i = 0; i < listaArchivos.length; i++){
+      Archivo arch = listaArchivos[i];
+      if(arch != null && representantes[i] == i){
+        cadena.append("\n<li ><a "+" href= ").append(arch.toString()).append(" style='color:blue;'>")
+              .append(arch.getNombre()).append(" </a> tiene ").append(String.valueOf(arch.getTotalPalabras())).append(" palabras.");
+        boolean primero = true;
+        for(int j = i + 1; j < listaArchivos.length; j++)
+          if(representantes[j] == i){
+            if(primero) cadena.append(" Casi idénticos:");
+            primero = false;
+            cadena.append(" <a "+" href= ").append(listaArchivos[j].toString()).append(" style='color:blue;'>")
+                  .append(listaArchivos[j].getNombre()).append(" </a>");
+          }
+        cadena.append(" </li>");
       }
     }
-    cadena+="\n</ol></div><div class='w3-black' id='tour'><div class='w3-container w3-content w3-padding-64' style='max-width:800px'>"+
-    "\n<h2 class='w3-wide w3-center'>Relación entre archivos (representada por una gráfica)</h2>"+
-    "\n<p class='w3-opacity w3-center'><i>Aquellos que comparten aristas, tienen palabras en común de al menos 7 caracteres.</i></p><br>";
-    cadena+=generaGrafica();
-    return cadena+="\n</div>\n</div>\n</div>\n</body>\n</html>";
+    TITULO_GRAFICA.escribe(cadena);
+    if(esResumen())
+      cadena.append("\n<p class='w3-opacity w3-center'><i>Se muestra sólo el esqueleto de la gráfica: las relaciones de mayor similitud ")
+            .append("que conectan a los archivos, sin formar ciclos.</i></p><br>");
+    else if(vecinos > 0)
+      cadena.append("\n<p class='w3-opacity w3-center'><i>Cada archivo se conecta con sus ").append(String.valueOf(vecinos))
+            .append(" archivos más parecidos.</i></p><br>");
+    escribeGrafica(cadena);
+    CIERRE.escribe(cadena);
+  }
+  /**
+  * Nos dice si la gráfica del index se muestra resumida
+  * @return true si sólo se dibuja el esqueleto
+  */
+  private boolean esResumen(){
+    if(nivelDetalle == NivelDetalle.AUTOMATICO){
+      int unicos = 0;
+      for(int i = 0; i < listaArchivos.length; i++)
+        if(listaArchivos[i] != null && representantes[i] == i) unicos++;
+      return unicos >= ARCHIVOS_RESUMEN;
+    }
+    return nivelDetalle == NivelDetalle.RESUMIDO;
   }
   /**
   * Método para generar la gŕafica de los archivos (aquellos que tienen intersección de palabras)
   * @return String representación en SVG de la gráfica
   */
   public String generaGrafica(){
-    String etiqueta = "<p class='w3-opacity w3-center'><i>A continuación mostramos las palabras que comparten los archivos. </i></p><br>";
+    StringBuilder grafica = new StringBuilder();
+    try{
+      escribeGrafica(grafica);
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return grafica.toString();
+  }
+  /**
+  * Método que escribe la gráfica de los archivos seguida de las palabras que comparte cada par
+  * @param Appendable salida en donde se escribe la gráfica
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribeGrafica(Appendable grafica) throws IOException{
     DibujaGrafica<String> db = new DibujaGrafica<>();
-    for(int i = 0; i < listaArchivos.length; i++)
-      if(listaArchivos[i] != null) db.agrega(listaArchivos[i].getNombre());
-    for(int i = 0; i < listaArchivos.length - 1; i++){
-      for(int j = i + 1; j < listaArchivos.length; j++){
-        Conjunto<String> interseccion = listaArchivos[i].comparaArchivo(listaArchivos[j]);
-        if(listaArchivos[i] != null && listaArchivos[j] != null && interseccion.getElementos() > 0){
-          db.conecta(listaArchivos[i].getNombre(), listaArchivos[j].getNombre());
-          etiqueta+="<p class='w3-justify'>Los archivos "+listaArchivos[i].getNombre()+" y "+listaArchivos[j].getNombre()+" tienen en comun las palabras ";
-          for(String elemento : interseccion)
-            etiqueta+=elemento+" , ";
-          etiqueta+="</p>";
-        }
-      }
+    db.setIteraciones(iteracionesGrafica);
+    db.setHilos(hilos);
+    Archivo[] unicos = archivosUnicos();
+    for(int i = 0; i < unicos.length; i++)
+      if(unicos[i] != null) db.agrega(unicos[i].getNombre());
+    ComparadorArchivos comparador = new ComparadorArchivos(unicos, hilos, medida, vecinos);
+    comparador.setUmbral(umbralSimilitud);
+    comparador.setRelacionesPorArchivo(relacionesPorArchivo);
+    comparador.setEsqueleto(esResumen());
+    comparador.setPalabrasPorPar(palabrasPorPar == 0 && esResumen() ? PALABRAS_RESUMEN : palabrasPorPar);
+    relaciones = comparador.compara();
+    for(ComparadorArchivos.Relacion relacion : relaciones)
+      db.conecta(listaArchivos[relacion.getPrimero()].getNombre(),
+                 listaArchivos[relacion.getSegundo()].getNombre(), relacion.getSimilitud());
+    EscritorSVG svg = new EscritorSVG(grafica, svgCompacto);
+    db.escribeGrafica(svg);
+    svg.vacia();
+    grafica.append("<p class='w3-opacity w3-center'><i>A continuación mostramos las palabras que comparten los archivos. </i></p><br>");
+    for(ComparadorArchivos.Relacion relacion : relaciones){
+      grafica.append("<p class='w3-justify'>Los archivos ").append(listaArchivos[relacion.getPrimero()].getNombre())
+             .append(" y ").append(listaArchivos[relacion.getSegundo()].getNombre()).append(" tienen en comun las palabras ");
+      for(String elemento : relacion.getPalabras())
+        grafica.append(elemento).append(" , ");
+      int restantes = relacion.getTotalPalabras() - relacion.getPalabras().getLongitud();
+      if(restantes > 0)
+        grafica.append("y ").append(String.valueOf(restantes)).append(" más");
+      grafica.append("</p>");
     }
-    return db.dibujaGrafica()+etiqueta;
   }
 }
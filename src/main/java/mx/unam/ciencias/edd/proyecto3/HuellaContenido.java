@@ -0,0 +1,78 @@
+package mx.unam.ciencias.edd.proyecto3;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+* Clase que calcula, por partes, una huella de 64 bits (FNV-1a) del contenido de un archivo
+* o de una página conforme se escribe. Sirve para saber si un archivo cambió sin tener
+* que guardar su contenido.
+*/
+public class HuellaContenido{
+  /* Valor inicial de FNV-1a de 64 bits */
+  private static final long BASE = 0xcbf29ce484222325L;
+  /* Primo de FNV-1a de 64 bits */
+  private static final long PRIMO = 0x100000001b3L;
+  /* Huella de los bytes agregados hasta ahora */
+  private long huella;
+  /* Número de bytes agregados */
+  private long bytes;
+
+  /**
+  * Constructor de la clase HuellaContenido
+  */
+  public HuellaContenido(){
+    this.huella = BASE;
+  }
+
+  /**
+  * Agrega a la huella los bytes que le quedan al búfer, sin moverle la posición
+  * @param ByteBuffer bytes
+  */
+  public void agrega(ByteBuffer b){
+    long h = huella;
+    for(int i = b.position(); i < b.limit(); i++){
+      h ^= b.get(i) & 0xff;
+      h *= PRIMO;
+    }
+    bytes += b.remaining();
+    huella = h;
+  }
+
+  /**
+  * Regresa la huella de los bytes agregados
+  * @return long huella
+  */
+  public long getHuella(){
+    return huella;
+  }
+
+  /**
+  * Regresa el número de bytes agregados
+  * @return long bytes
+  */
+  public long getBytes(){
+    return bytes;
+  }
+
+  /**
+  * Calcula la huella del contenido de un archivo
+  * @param File archivo
+  * @return long huella del archivo
+  * @throws IOException si no se puede leer el archivo
+  */
+  public static long deArchivo(File archivo) throws IOException{
+    HuellaContenido h = new HuellaContenido();
+    ByteBuffer b = ByteBuffer.allocateDirect(1 << 16);
+    try(FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)){
+      while(canal.read(b) >= 0){
+        b.flip();
+        h.agrega(b);
+        b.clear();
+      }
+    }
+    return h.getHuella();
+  }
+}
@@ -0,0 +1,262 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+* Clase que lee un archivo escrito por {@link ExportadorColumnar} mapeándolo a memoria: los
+* conteos se leen directamente del archivo, sin interpretarlo, y las palabras se decodifican
+* sólo cuando se piden. Con él se pueden acumular los conteos de varios análisis en un
+* {@link Diccionario} sin volver a leer los textos.
+*/
+public class LectorColumnar{
+  /* Contenido del archivo */
+  private ByteBuffer datos;
+  /* Enteros del archivo, desde el fin del encabezado */
+  private IntBuffer enteros;
+  /* Número de palabras, archivos y entradas */
+  private int palabras;
+  private int archivos;
+  private int entradas;
+  /* Palabras por bloque del vocabulario */
+  private int bloque;
+  /* Posición (en enteros) de cada arreglo */
+  private int bloques;
+  private int conteos;
+  private int inicios;
+  private int identificadores;
+  private int apariciones;
+  private int nombres;
+  /* Posición (en bytes) de los nombres y del vocabulario */
+  private int bytesNombres;
+  private int vocabulario;
+
+  /**
+  * Constructor de la clase LectorColumnar
+  * @param File archivo escrito por un ExportadorColumnar
+  * @throws IOException si no se puede leer o no tiene el formato
+  */
+  public LectorColumnar(File archivo) throws IOException{
+    try(FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)){
+      MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+      datos = mapeo;
+    }
+    if(datos.capacity() < ExportadorColumnar.ENCABEZADO ||
+       datos.getInt(0) != ExportadorColumnar.MAGIA || datos.getInt(4) != ExportadorColumnar.VERSION)
+      throw new IOException("Archivo inválido: "+archivo);
+    palabras = datos.getInt(8);
+    archivos = datos.getInt(12);
+    entradas = datos.getInt(16);
+    bloque = datos.getInt(20);
+    bytesNombres = datos.getInt(24);
+    vocabulario = datos.getInt(28);
+    if(palabras < 0 || archivos < 0 || entradas < 0 || bloque < 1 || bytesNombres < 0 ||
+       vocabulario > datos.capacity() || bytesNombres > vocabulario)
+      throw new IOException("Archivo inválido: "+archivo);
+    // Las columnas se calculan en long para que un encabezado corrupto no se desborde; todas,
+    // hasta los desplazamientos de los nombres, tienen que caber antes de los nombres
+    long n = (palabras + (long)bloque - 1) / bloque;
+    long c = n;
+    long in = c + palabras;
+    long id = in + archivos + 1;
+    long ap = id + entradas;
+    long no = ap + entradas;
+    if(ExportadorColumnar.ENCABEZADO + 4 * (no + archivos + 1) > bytesNombres)
+      throw new IOException("Archivo inválido: "+archivo);
+    datos.position(ExportadorColumnar.ENCABEZADO);
+    enteros = datos.slice().asIntBuffer();
+    bloques = 0;
+    conteos = (int)c;
+    inicios = (int)in;
+    identificadores = (int)id;
+    apariciones = (int)ap;
+    nombres = (int)no;
+  }
+
+  /**
+  * Regresa el número de palabras distintas
+  * @return int número de palabras
+  */
+  public int getPalabras(){
+    return palabras;
+  }
+
+  /**
+  * Regresa el número de archivos
+  * @return int número de archivos
+  */
+  public int getArchivos(){
+    return archivos;
+  }
+
+  /**
+  * Regresa el número de pares (palabra, archivo)
+  * @return int número de entradas
+  */
+  public int getEntradas(){
+    return entradas;
+  }
+
+  /**
+  * Regresa la i-ésima palabra del vocabulario, en orden
+  * @param int índice de la palabra
+  * @return String palabra
+  * @throws ExcepcionIndiceInvalido si el índice no es válido
+  */
+  public String getPalabra(int i){
+    if(i < 0 || i >= palabras)
+      throw new ExcepcionIndiceInvalido("Índice inválido: "+i);
+    Cursor c = new Cursor(i / bloque);
+    String palabra = c.siguiente();
+    for(int j = i % bloque; j > 0; j--)
+      palabra = c.siguiente();
+    return palabra;
+  }
+
+  /**
+  * Regresa las apariciones de la i-ésima palabra en todos los archivos
+  * @param int índice de la palabra
+  * @return int apariciones
+  * @throws ExcepcionIndiceInvalido si el índice no es válido
+  */
+  public int getConteo(int i){
+    if(i < 0 || i >= palabras)
+      throw new ExcepcionIndiceInvalido("Índice inválido: "+i);
+    return enteros.get(conteos + i);
+  }
+
+  /**
+  * Busca una palabra en el vocabulario
+  * @param String palabra
+  * @return int índice de la palabra; -1 si no está
+  */
+  public int busca(String palabra){
+    // Búsqueda binaria sobre la primera palabra de cada bloque
+    int a = 0, b = (palabras + bloque - 1) / bloque - 1;
+    while(a <= b){
+      int m = (a + b) >>> 1;
+      if(new Cursor(m).siguiente().compareTo(palabra) <= 0) a = m + 1;
+      else b = m - 1;
+    }
+    if(b < 0) return -1;
+    Cursor c = new Cursor(b);
+    for(int i = b * bloque; i < palabras && i < (b + 1) * bloque; i++){
+      int comparacion = c.siguiente().compareTo(palabra);
+      if(comparacion == 0) return i;
+      if(comparacion > 0) break;
+    }
+    return -1;
+  }
+
+  /**
+  * Regresa el nombre de un archivo
+  * @param int índice del archivo
+  * @return String nombre del archivo
+  * @throws ExcepcionIndiceInvalido si el índice no es válido
+  */
+  public String getNombre(int archivo){
+    if(archivo < 0 || archivo >= archivos)
+      throw new ExcepcionIndiceInvalido("Índice inválido: "+archivo);
+    int inicio = enteros.get(nombres + archivo);
+    int fin = enteros.get(nombres + archivo + 1);
+    byte[] bytes = new byte[fin - inicio];
+    ByteBuffer b = datos.duplicate();
+    b.position(bytesNombres + inicio);
+    b.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+  * Regresa el conteo de las palabras de un archivo
+  * @param int índice del archivo
+  * @return Diccionario<String, Integer> palabras del archivo con sus apariciones
+  * @throws ExcepcionIndiceInvalido si el índice no es válido
+  */
+  public Diccionario<String, Integer> conteo(int archivo){
+    if(archivo < 0 || archivo >= archivos)
+      throw new ExcepcionIndiceInvalido("Índice inválido: "+archivo);
+    int inicio = enteros.get(inicios + archivo);
+    int fin = enteros.get(inicios + archivo + 1);
+    Diccionario<String, Integer> diccionario = new Diccionario<>(fin - inicio);
+    // Las palabras de cada archivo van en orden, así que el vocabulario se recorre una vez
+    Cursor c = null;
+    int actual = -1;
+    String palabra = null;
+    for(int e = inicio; e < fin; e++){
+      int id = enteros.get(identificadores + e);
+      if(c == null || id / bloque != actual / bloque || id < actual){
+        c = new Cursor(id / bloque);
+        actual = id / bloque * bloque - 1;
+      }
+      while(actual < id){
+        palabra = c.siguiente();
+        actual++;
+      }
+      diccionario.agrega(palabra, enteros.get(apariciones + e));
+    }
+    return diccionario;
+  }
+
+  /**
+  * Regresa el conteo de las palabras en todos los archivos
+  * @return Diccionario<String, Integer> palabras con sus apariciones
+  */
+  public Diccionario<String, Integer> conteo(){
+    Diccionario<String, Integer> diccionario = new Diccionario<>(palabras);
+    acumula(diccionario);
+    return diccionario;
+  }
+
+  /**
+  * Suma las apariciones de cada palabra en todos los archivos a las de un diccionario, para
+  * juntar los conteos de varios análisis
+  * @param Diccionario<String, Integer> diccionario en donde se acumula
+  */
+  public void acumula(Diccionario<String, Integer> diccionario){
+    if(palabras == 0) return;
+    Cursor c = new Cursor(0);
+    for(int i = 0; i < palabras; i++){
+      String palabra = c.siguiente();
+      int veces = enteros.get(conteos + i);
+      if(diccionario.contiene(palabra))
+        veces += diccionario.get(palabra);
+      diccionario.agrega(palabra, veces);
+    }
+  }
+
+  /* Recorre el vocabulario en orden a partir del inicio de un bloque. */
+  private class Cursor{
+    /* Posición de la siguiente palabra */
+    private int posicion;
+    /* Bytes de la palabra anterior */
+    private byte[] anterior;
+
+    /* Coloca el cursor al inicio de un bloque. */
+    Cursor(int b){
+      posicion = vocabulario + enteros.get(bloques + b);
+      anterior = new byte[64];
+    }
+
+    /* Decodifica la siguiente palabra. */
+    String siguiente(){
+      int comun = datos.getShort(posicion) & 0xffff;
+      int sufijo = datos.getShort(posicion + 2) & 0xffff;
+      int longitud = comun + sufijo;
+      if(longitud > anterior.length){
+        byte[] nuevo = new byte[Math.max(longitud, anterior.length * 2)];
+        System.arraycopy(anterior, 0, nuevo, 0, comun);
+        anterior = nuevo;
+      }
+      for(int i = 0; i < sufijo; i++)
+        anterior[comun + i] = datos.get(posicion + 4 + i);
+      posicion += 4 + sufijo;
+      return new String(anterior, 0, longitud, StandardCharsets.UTF_8);
+    }
+  }
+}
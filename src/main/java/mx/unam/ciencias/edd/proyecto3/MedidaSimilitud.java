@@ -0,0 +1,13 @@
+package mx.unam.ciencias.edd.proyecto3;
+/**
+* Enumeración para identificar la medida con la que se califica qué tan parecidos son
+* dos archivos, a partir de las palabras (de al menos 7 caracteres) que comparten.
+*/
+public enum MedidaSimilitud{
+  /* Número de palabras en común */
+  COMPARTIDAS,
+  /* Coeficiente de Jaccard: palabras en común entre palabras de la unión */
+  JACCARD,
+  /* Coeficiente de traslape: palabras en común entre palabras del archivo más pequeño */
+  TRASLAPE
+}
@@ -0,0 +1,15 @@
+package mx.unam.ciencias.edd.proyecto3;
+/**
+* Enumeración para identificar cuánto detalle se muestra en la gráfica del index. Con miles de
+* archivos, dibujar todas las relaciones y listar todas las palabras de cada par produce un
+* index de cientos de MB; el resumen deja sólo el esqueleto de máxima similitud y unas
+* cuantas palabras por par.
+*/
+public enum NivelDetalle{
+  /* Todas las relaciones seleccionadas, con todas sus palabras */
+  COMPLETO,
+  /* Sólo el esqueleto (bosque de máxima similitud) y pocas palabras por par */
+  RESUMIDO,
+  /* Completo con pocos archivos y resumido con muchos */
+  AUTOMATICO
+}
@@ -0,0 +1,58 @@
+package mx.unam.ciencias.edd.proyecto3;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+* Clase para los fragmentos fijos de las páginas (encabezados, hojas de estilo, pies).
+* El texto se codifica en UTF-8 una sola vez, al crear la plantilla, y el {@link EscritorReporte}
+* lo escribe directamente al archivo junto con las partes que sí cambian en cada página.
+*/
+public class Plantilla{
+  /* Texto de la plantilla */
+  private final String texto;
+  /* Texto de la plantilla ya codificado en UTF-8 */
+  private final ByteBuffer bytes;
+
+  /**
+  * Constructor de la clase Plantilla
+  * @param String texto fijo de la plantilla
+  */
+  public Plantilla(String texto){
+    this.texto = texto;
+    byte[] codificado = texto.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer b = ByteBuffer.allocateDirect(codificado.length);
+    b.put(codificado);
+    b.flip();
+    this.bytes = b.asReadOnlyBuffer();
+  }
+
+  /**
+  * Método que regresa una vista, de sólo lectura, de los bytes de la plantilla
+  * @return ByteBuffer con la plantilla codificada en UTF-8
+  */
+  public ByteBuffer getBytes(){
+    return bytes.duplicate();
+  }
+
+  /**
+  * Método que escribe la plantilla; si la salida es un {@link EscritorReporte} se usan
+  * los bytes ya codificados
+  * @param Appendable salida
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribe(Appendable salida) throws IOException{
+    if(salida instanceof EscritorReporte)
+      ((EscritorReporte)salida).escribe(this);
+    else
+      salida.append(texto);
+  }
+
+  /**
+  * Regresa el texto de la plantilla
+  * @return String texto de la plantilla
+  */
+  @Override public String toString(){
+    return texto;
+  }
+}
@@ -17,27 +17,146 @@ public class Proyecto3{
 
   public static void main(String[] args){
     if(args.length == 0)
-      uso("Uso: java -jar proyecto3.jar archivo(s)");
+      uso("Uso: java -jar proyecto3.jar [--metricas] [--sincrono] [--gzip | --solo-gzip] [--sin-cache] [--arbol n] [--duplicados n] [--resumido | --completo] [--json] [--csv] [--binario] [--svg-compacto] archivo(s) -o directorio\n"+
+          "     java -jar proyecto3.jar --servidor puerto [--arbol n] [--duplicados n] [--resumido | --completo] archivo(s) [-o directorio]\n"+
+          "Con --gzip los enlaces apuntan a las páginas sin comprimir (nginx: gzip_static on; sirve las .gz).\n"+
+          "Con --solo-gzip los enlaces apuntan a los archivos .html.gz: el servidor debe entregarlos con\n"+
+          "Content-Type: text/html y Content-Encoding: gzip (nginx: add_header Content-Encoding gzip;\n"+
+          "Apache: AddType text/html .gz y AddEncoding gzip .gz); si no, el navegador los descarga.");
     Lista<String> archivos = new Lista<>();
     String directorio = "";
     // Vamos a agregar todos los argumentos
     for(int i = 0; i < args.length; i++){
       if(!archivos.contiene(args[i]))archivos.agrega(args[i]);
     }
-    // Verificamos si el usuario pasó el directorio
+    // Banderas opcionales
+    boolean metricas = archivos.contiene("--metricas");
+    boolean sincrono = archivos.contiene("--sincrono");
+    Compresion compresion = archivos.contiene("--solo-gzip") ? Compresion.SOLO_GZIP :
+                            archivos.contiene("--gzip") ? Compresion.AMBAS : Compresion.NINGUNA;
+    boolean sinCache = archivos.contiene("--sin-cache");
+    NivelDetalle nivelDetalle = archivos.contiene("--resumido") ? NivelDetalle.RESUMIDO :
+                                archivos.contiene("--completo") ? NivelDetalle.COMPLETO : NivelDetalle.AUTOMATICO;
+    boolean json = archivos.contiene("--json");
+    boolean csv = archivos.contiene("--csv");
+    archivos.elimina("--json");
+    archivos.elimina("--csv");
+    boolean svgCompacto = archivos.contiene("--svg-compacto");
+    archivos.elimina("--svg-compacto");
+    boolean binario = archivos.contiene("--binario");
+    archivos.elimina("--binario");
+    archivos.elimina("--resumido");
+    archivos.elimina("--completo");
+    archivos.elimina("--sin-cache");
+    archivos.elimina("--metricas");
+    archivos.elimina("--sincrono");
+    archivos.elimina("--gzip");
+    archivos.elimina("--solo-gzip");
+    // Número de palabras en los árboles (0 para todas las del archivo)
+    int palabrasArbol = 15;
+    int arbol = archivos.indiceDe("--arbol");
+    if(arbol != -1){
+      if(arbol+1 >= archivos.getLongitud())
+        uso("Falta el número de palabras de --arbol");
+      String n = archivos.get(arbol + 1);
+      try{
+        palabrasArbol = Integer.parseInt(n);
+      }catch(NumberFormatException e){
+        uso("Número de palabras inválido: "+n);
+      }
+      if(palabrasArbol < 0)
+        uso("Número de palabras inválido: "+n);
+      archivos.elimina("--arbol");
+      archivos.elimina(n);
+    }
+    // Distancia de Hamming máxima entre las huellas de dos archivos casi idénticos (negativa
+    // para no agruparlos)
+    int umbralDuplicados = 3;
+    int duplicados = archivos.indiceDe("--duplicados");
+    if(duplicados != -1){
+      if(duplicados+1 >= archivos.getLongitud())
+        uso("Falta la distancia de --duplicados");
+      String n = archivos.get(duplicados + 1);
+      try{
+        umbralDuplicados = Integer.parseInt(n);
+      }catch(NumberFormatException e){
+        uso("Distancia inválida: "+n);
+      }
+      if(umbralDuplicados > 63)
+        uso("Distancia inválida (a lo más 63, o negativa para no agrupar): "+n);
+      archivos.elimina("--duplicados");
+      archivos.elimina(n);
+    }
+    // Puerto en el que se sirve el reporte (-1 para escribirlo en el directorio)
+    int puerto = -1;
+    int servidor = archivos.indiceDe("--servidor");
+    if(servidor != -1){
+      if(servidor+1 >= archivos.getLongitud())
+        uso("Falta el puerto de --servidor");
+      String n = archivos.get(servidor + 1);
+      try{
+        puerto = Integer.parseInt(n);
+      }catch(NumberFormatException e){
+        uso("Puerto inválido: "+n);
+      }
+      if(puerto < 0 || puerto > 65535)
+        uso("Puerto inválido: "+n);
+      archivos.elimina("--servidor");
+      archivos.elimina(n);
+    }
+    // Verificamos si el usuario pasó el directorio; al servir el reporte sólo se usa su manifiesto
     int posicion = archivos.indiceDe("-o");
     if(posicion != -1 && posicion+1 < archivos.getLongitud())
       directorio = archivos.get(posicion + 1);
-    else
+    else if(puerto == -1)
       uso("No has ingresado el directorio");
     // Eliminamos tanto la bandera como el directorio para solo quedarnos con los archivos a analizar
-    archivos.elimina("-o");
-    archivos.elimina(directorio);
+    if(posicion != -1){
+      archivos.elimina("-o");
+      archivos.elimina(directorio);
+    }
     if(archivos.getLongitud() == 0)
       uso("Debes ingresar archivos para leer");
     // Le pasamos los archivos que analizará y el directorio en donde guardará el resultado del programa
     GeneraIndexHTML gen = new GeneraIndexHTML(archivos, directorio);
+    gen.setEscrituraAsincrona(!sincrono);
+    gen.setCompresion(compresion);
+    gen.setCache(!sinCache);
+    gen.setPalabrasArbol(palabrasArbol);
+    gen.setUmbralDuplicados(umbralDuplicados);
+    gen.setNivelDetalle(nivelDetalle);
+    gen.setExportaJSON(json);
+    gen.setExportaCSV(csv);
+    gen.setExportaBinario(binario);
+    gen.setSVGCompacto(svgCompacto);
+    if(puerto != -1){
+      gen.analiza();
+      try{
+        ServidorReporte sr = new ServidorReporte(gen, puerto, ServidorReporte.CAPACIDAD,
+                                                 Runtime.getRuntime().availableProcessors());
+        sr.inicia();
+        System.out.println("Sirviendo el reporte en http://localhost:"+sr.getPuerto()+"/ (métricas en "+
+                           ServidorReporte.METRICAS+")");
+      }catch(IOException e){
+        uso("No se ha podido abrir el puerto "+puerto+": "+e.getMessage());
+      }
+      return;
+    }
     gen.generaAnalisis();
+    if(metricas && gen.getEscritor() != null)
+      System.out.println("Escritura: "+gen.getEscritor());
+    if(metricas && gen.getCache() != null)
+      System.out.println("Manifiesto: archivos reutilizados="+gen.getCache().getReutilizados()+
+                         " páginas conservadas="+gen.getCache().getPaginasVigentes());
+    if(metricas)
+      System.out.println("Árboles: "+gen.getFragmentos());
+    if(metricas)
+      System.out.println("Páginas generadas sin cambios (no reemplazadas): "+gen.getPaginasSinCambios());
+    if(metricas && compresion != Compresion.NINGUNA){
+      for(String pagina : gen.getReporteCompresion())
+        System.out.println(pagina);
+      System.out.println("Compresión: "+gen.getResumenCompresion());
+    }
   }
 
 }
@@ -0,0 +1,205 @@
+package mx.unam.ciencias.edd.proyecto3;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import mx.unam.ciencias.edd.ExcepcionIndiceInvalido;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+* Clase que sirve el reporte desde localhost en lugar de escribirlo en un directorio. Los
+* archivos se analizan una vez con {@link GeneraIndexHTML#analiza()} y cada página se genera
+* la primera vez que se pide; las páginas generadas se guardan en una {@link CacheLRU}
+* acotada por su tamaño en bytes.
+* En "/metricas" se consultan los aciertos y fallos de la cache y el tiempo de generación.
+*/
+public class ServidorReporte{
+  /* Capacidad por omisión de la cache de páginas, en bytes */
+  public static final long CAPACIDAD = 64L << 20;
+  /* Ruta de las métricas */
+  public static final String METRICAS = "/metricas";
+
+  /* Generador de las páginas, ya con los archivos analizados */
+  private GeneraIndexHTML generador;
+  /* Servidor http */
+  private HttpServer servidor;
+  /* Hilos que atienden las peticiones */
+  private ExecutorService hilos;
+  /* Páginas ya generadas, en UTF-8 */
+  private CacheLRU<String, byte[]> paginas;
+  /* Número de páginas generadas */
+  private long generadas;
+  /* Suma de los tiempos de generación */
+  private long tiempoTotal;
+  /* Máximo tiempo de generación */
+  private long tiempoMaximo;
+
+  /**
+  * Constructor de la clase ServidorReporte
+  * @param GeneraIndexHTML generador con los archivos ya analizados
+  * @param int puerto; 0 para que el sistema elija uno libre
+  * @param long capacidad de la cache de páginas, en bytes
+  * @param int número de hilos que atienden las peticiones
+  * @throws IOException si no se puede abrir el puerto
+  */
+  public ServidorReporte(GeneraIndexHTML generador, int puerto, long capacidad, int hilos) throws IOException{
+    if(hilos < 1) throw new IllegalArgumentException("Número de hilos inválido: "+hilos);
+    this.generador = generador;
+    this.paginas = new CacheLRU<>(capacidad);
+    this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+    this.hilos = Executors.newFixedThreadPool(hilos);
+    this.servidor.setExecutor(this.hilos);
+    this.servidor.createContext("/", this::atiende);
+  }
+
+  /**
+  * Empieza a atender peticiones
+  */
+  public void inicia(){
+    servidor.start();
+  }
+
+  /**
+  * Deja de atender peticiones
+  */
+  public void detiene(){
+    servidor.stop(0);
+    hilos.shutdown();
+  }
+
+  /**
+  * Regresa el puerto en el que se atienden las peticiones
+  * @return int puerto
+  */
+  public int getPuerto(){
+    return servidor.getAddress().getPort();
+  }
+
+  /**
+  * Regresa la cache de páginas
+  * @return CacheLRU<String, byte[]> páginas generadas
+  */
+  public CacheLRU<String, byte[]> getPaginas(){
+    return paginas;
+  }
+
+  /* Atiende una petición. */
+  private void atiende(HttpExchange intercambio) throws IOException{
+    try{
+      String metodo = intercambio.getRequestMethod();
+      boolean cabeza = metodo.equals("HEAD");
+      if(!cabeza && !metodo.equals("GET")){
+        intercambio.getResponseHeaders().set("Allow", "GET, HEAD");
+        responde(intercambio, 405, "text/plain; charset=UTF-8", "Método no permitido\n", false);
+        return;
+      }
+      String ruta = intercambio.getRequestURI().getPath();
+      if(ruta.equals(METRICAS)){
+        responde(intercambio, 200, "text/plain; charset=UTF-8", toString()+"\n", cabeza);
+        return;
+      }
+      String nombre = ruta.equals("/") ? "index.html" : ruta.substring(1);
+      byte[] pagina = paginas.get(nombre);
+      if(pagina == null){
+        pagina = genera(nombre);
+        if(pagina == null){
+          responde(intercambio, 404, "text/plain; charset=UTF-8", "No existe la página: "+nombre+"\n", cabeza);
+          return;
+        }
+        paginas.agrega(nombre, pagina, pagina.length);
+      }
+      responde(intercambio, 200, "text/html; charset=UTF-8", pagina, cabeza);
+    }catch(IOException | RuntimeException e){
+      responde(intercambio, 500, "text/plain; charset=UTF-8", "No se ha podido generar la página\n", false);
+    }finally{
+      intercambio.close();
+    }
+  }
+
+  /**
+  * Genera una página
+  * @param String nombre de la página
+  * @return byte[] página en UTF-8; null si no existe
+  * @throws IOException si no se puede generar
+  */
+  private byte[] genera(String nombre) throws IOException{
+    long inicio = System.nanoTime();
+    StringBuilder pagina = new StringBuilder();
+    if(nombre.equals("index.html")){
+      // La gráfica del index usa el estado del generador
+      synchronized(generador){
+        generador.escribeIndexHTML(pagina);
+      }
+    }else if(nombre.contains("-palabras")){
+      // Página de la lista de palabras: "archivoN-palabrasK.html"
+      int guion = nombre.indexOf("-palabras");
+      int i = numero(nombre, "archivo".length(), guion);
+      int k = numero(nombre, guion + "-palabras".length(), nombre.length() - ".html".length());
+      if(!nombre.startsWith("archivo") || !nombre.endsWith(".html") || i < 0 || i >= generador.getAnalizados())
+        return null;
+      try{
+        generador.escribePaginaPalabras(i, k, pagina);
+      }catch(ExcepcionIndiceInvalido e){
+        return null;
+      }
+    }else{
+      if(!nombre.startsWith("archivo") || !nombre.endsWith(".html")) return null;
+      int i = numero(nombre, "archivo".length(), nombre.length() - ".html".length());
+      if(i < 0 || i >= generador.getAnalizados()) return null;
+      generador.escribePagina(i, pagina);
+    }
+    byte[] bytes = pagina.toString().getBytes(StandardCharsets.UTF_8);
+    registra(System.nanoTime() - inicio);
+    return bytes;
+  }
+
+  /* Regresa el número entre dos posiciones de un nombre; -1 si no es un número. */
+  private static int numero(String nombre, int inicio, int fin){
+    if(inicio >= fin || fin - inicio > 9) return -1;
+    for(int i = inicio; i < fin; i++)
+      if(!Character.isDigit(nombre.charAt(i))) return -1;
+    return Integer.parseInt(nombre.substring(inicio, fin));
+  }
+
+  /* Registra el tiempo de generación de una página. */
+  private synchronized void registra(long tiempo){
+    generadas++;
+    tiempoTotal += tiempo;
+    if(tiempo > tiempoMaximo) tiempoMaximo = tiempo;
+  }
+
+  /* Envía una respuesta de texto. */
+  private static void responde(HttpExchange intercambio, int codigo, String tipo, String cuerpo,
+                               boolean cabeza) throws IOException{
+    responde(intercambio, codigo, tipo, cuerpo.getBytes(StandardCharsets.UTF_8), cabeza);
+  }
+
+  /* Envía una respuesta; si la petición es HEAD sólo los encabezados. */
+  private static void responde(HttpExchange intercambio, int codigo, String tipo, byte[] cuerpo,
+                               boolean cabeza) throws IOException{
+    intercambio.getResponseHeaders().set("Content-Type", tipo);
+    if(cabeza){
+      intercambio.getResponseHeaders().set("Content-Length", String.valueOf(cuerpo.length));
+      intercambio.sendResponseHeaders(codigo, -1);
+      return;
+    }
+    intercambio.sendResponseHeaders(codigo, cuerpo.length);
+    try(OutputStream out = intercambio.getResponseBody()){
+      out.write(cuerpo);
+    }
+  }
+
+  /**
+  * Regresa un resumen de las métricas
+  * @return String resumen
+  */
+  @Override public synchronized String toString(){
+    return String.format("páginas: %s\nárboles: %s\ngeneradas=%d generación(prom=%.3f ms max=%.3f ms)",
+                         paginas, generador.getFragmentos(), generadas, generadas == 0 ? 0 : tiempoTotal / 1e6 / generadas,
+                         tiempoMaximo / 1e6);
+  }
+}
@@ -0,0 +1,63 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+* Clase que calcula la huella SimHash de 64 bits de un archivo. Cada palabra se dispersa
+* a 64 bits con los dispersores de Bob Jenkins y Daniel J. Bernstein, y cada bit de la
+* huella es el voto, ponderado por el número de apariciones, de los bits de todas las palabras.
+* Dos archivos casi idénticos tienen huellas a muy poca distancia de Hamming.
+*/
+public class SimHash{
+  /* Votos de cada uno de los 64 bits */
+  private long[] votos;
+  /**
+  * Constructor de la clase SimHash
+  */
+  public SimHash(){
+    this.votos = new long[64];
+  }
+  /**
+  * Método que agrega una palabra a la huella
+  * @param String palabra
+  * @param int apariciones de la palabra
+  */
+  public void agrega(String palabra, int apariciones){
+    long dispersion = dispersa(palabra);
+    for(int i = 0; i < 64; i++){
+      if(((dispersion >>> i) & 1L) == 1L)
+        votos[i]+=apariciones;
+      else
+        votos[i]-=apariciones;
+    }
+  }
+  /**
+  * Método que regresa la huella de las palabras agregadas
+  * @return long huella
+  */
+  public long huella(){
+    long huella = 0;
+    for(int i = 0; i < 64; i++)
+      if(votos[i] > 0)
+        huella |= 1L << i;
+    return huella;
+  }
+  /**
+  * Método que dispersa una palabra a 64 bits
+  * @param String palabra
+  * @return long dispersión
+  */
+  public static long dispersa(String palabra){
+    byte[] bytes = palabra.getBytes(StandardCharsets.UTF_8);
+    return ((long)Dispersores.dispersaBJ(bytes) << 32) | (Dispersores.dispersaDJB(bytes) & 0xFFFFFFFFL);
+  }
+  /**
+  * Método que regresa la distancia de Hamming entre dos huellas
+  * @param long huella 1
+  * @param long huella 2
+  * @return int número de bits en que difieren
+  */
+  public static int distancia(long a, long b){
+    return Long.bitCount(a ^ b);
+  }
+}
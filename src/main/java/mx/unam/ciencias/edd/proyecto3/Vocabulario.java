@@ -0,0 +1,59 @@
+package mx.unam.ciencias.edd.proyecto3;
+import mx.unam.ciencias.edd.*;
+
+/**
+* Clase que asigna a cada palabra distinta del corpus un identificador entero,
+* en el orden en que las palabras aparecen por primera vez. Con los identificadores
+* el vocabulario de cada archivo se puede guardar en un ConjuntoBits.
+*/
+public class Vocabulario{
+  /* Identificador de cada palabra */
+  private Diccionario<String, Integer> identificadores;
+  /* Palabra de cada identificador */
+  private String[] palabras;
+  /* Número de palabras en el vocabulario */
+  private int elementos;
+  /**
+  * Constructor de la clase Vocabulario
+  */
+  public Vocabulario(){
+    this.identificadores = new Diccionario<String, Integer>();
+    this.palabras = new String[64];
+  }
+  /**
+  * Método que regresa el identificador de una palabra, asignándole uno nuevo
+  * si es la primera vez que aparece
+  * @param String palabra
+  * @return int identificador de la palabra
+  */
+  public int identificador(String palabra){
+    if(identificadores.contiene(palabra))
+      return identificadores.get(palabra);
+    if(elementos == palabras.length){
+      String[] nuevas = new String[palabras.length * 2];
+      System.arraycopy(palabras, 0, nuevas, 0, elementos);
+      palabras = nuevas;
+    }
+    palabras[elementos] = palabra;
+    identificadores.agrega(palabra, elementos);
+    return elementos++;
+  }
+  /**
+  * Método que regresa la palabra que corresponde a un identificador
+  * @param int identificador
+  * @return String palabra
+  * @throws ExcepcionIndiceInvalido si el identificador no ha sido asignado
+  */
+  public String getPalabra(int identificador){
+    if(identificador < 0 || identificador >= elementos)
+      throw new ExcepcionIndiceInvalido("Identificador inválido: "+identificador);
+    return palabras[identificador];
+  }
+  /**
+  * Método que regresa el número de palabras en el vocabulario
+  * @return int número de palabras
+  */
+  public int getElementos(){
+    return this.elementos;
+  }
+}
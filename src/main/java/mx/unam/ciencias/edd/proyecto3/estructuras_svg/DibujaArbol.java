@@ -1,28 +1,30 @@
 package mx.unam.ciencias.edd.proyecto3.estructuras_svg;
 import mx.unam.ciencias.edd.*;
+import mx.unam.ciencias.edd.proyecto3.CacheLRU;
+import java.io.IOException;
 /**
 * Clase que dibuja árboles utilizando herramientas de la clase
-* DibujaElementosArbolBinario
-* Implementaremos el método toSVG que será el método mediante el cual el arbol se imprima.
+* DibujaElmArbol; las coordenadas de los vértices las calcula {@link DisposicionArbol}
+* en tiempo lineal, así que se pueden dibujar árboles con muchos vértices.
 */
 public class DibujaArbol<T extends Comparable<T>>{
-  /*Cadena que contendrá la representación en SVG del árbol */
-  private String arbolSVG = "";
   /*Lista que contendrá los elementos del árbol binario */
   private Lista<T> elementos;
-  /* Variable que indica si el arbol que se quiere imprimir es AVL */
-  private boolean esArbolAVL = false;
+  /* Fragmentos ya dibujados que se pueden reutilizar; null si no se guardan */
+  private CacheLRU<LlaveFragmento, String> fragmentos;
 
   /**
   * Método que establece las dimensiones del svg en donde se presentará el árbol
+  * @param EscritorSVG svg en donde se dibuja
+  * @param DisposicionArbol coordenadas de los vértices del árbol
   */
-  public void estableceDimensiones(EstructuraDatos estructura){
-    if(this.elementos.getLongitud() > 0 && estructura != EstructuraDatos.ARBOLORDENADO){
-      int altura = (int)Math.floor(Math.log(elementos.getLongitud())/Math.log(2));
-      this.arbolSVG+= "\n<svg width='"+(elementos.getLongitud()*50)+"'  height= '" + altura*80+ "' >\n";
-    }else{
-      this.arbolSVG+= "\n<svg width='"+(elementos.getLongitud()*50)+"'  height= '" + elementos.getLongitud()*50+ "' >\n";
+  public void estableceDimensiones(EscritorSVG svg, DisposicionArbol disposicion) throws IOException{
+    if(svg.esCompacto()){
+      svg.append("\n<svg width='").numero(disposicion.getAncho()).append("' height='").numero(disposicion.getAlto()).append("'>")
+         .append(DibujaElmArbol.ESTILO);
+      return;
     }
+    svg.append("\n<svg width='").numero(disposicion.getAncho()).append("'  height= '").numero(disposicion.getAlto()).append("' >\n");
   }
   /**
   * Constructor de la clase DibujaArbol
@@ -32,178 +34,115 @@ public class DibujaArbol<T extends Comparable<T>>{
     this.elementos = l;
   }
 
+  /**
+  * Método para definir en dónde se guardan los árboles ya dibujados; si se vuelve a dibujar
+  * un árbol del mismo tipo con los mismos elementos, se copia el fragmento guardado
+  * @param CacheLRU<LlaveFragmento, String> fragmentos; null para dibujar siempre
+  */
+  public void setFragmentos(CacheLRU<LlaveFragmento, String> fragmentos){
+    this.fragmentos = fragmentos;
+  }
+
+  /**
+  * Método que regresa la representación en svg del árbol
+  * @param EstructuraDatos tipo de árbol que se dibujará
+  * @return String representación en svg del árbol
+  */
   public String dibujaArbol(EstructuraDatos estructura){
-    /* Establecemos dimensiones con base en el tipo de árbol */
-    estableceDimensiones(estructura);
+    StringBuilder arbolSVG = new StringBuilder();
+    try{
+      EscritorSVG svg = new EscritorSVG(arbolSVG);
+      escribeArbol(svg, estructura);
+      svg.vacia();
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return arbolSVG.toString();
+  }
+
+  /**
+  * Método que escribe la representación en svg del árbol
+  * @param EscritorSVG svg en donde se dibuja
+  * @param EstructuraDatos tipo de árbol que se dibujará
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribeArbol(EscritorSVG svg, EstructuraDatos estructura) throws IOException{
     /* En caso de no tener elementos, no se dibuja nada */
-    if(elementos.getLongitud() == 0)
-      return "";
+    if(elementos.getLongitud() == 0 || estructura == EstructuraDatos.NINGUNO)
+      return;
+    if(fragmentos == null){
+      dibujaEstructura(svg, estructura);
+      return;
+    }
+    LlaveFragmento llave = new LlaveFragmento(estructura, svg.esCompacto(), elementos);
+    String fragmento = fragmentos.get(llave);
+    if(fragmento == null){
+      StringBuilder nuevo = new StringBuilder();
+      EscritorSVG escritor = new EscritorSVG(nuevo, svg.esCompacto());
+      dibujaEstructura(escritor, estructura);
+      escritor.vacia();
+      fragmento = nuevo.toString();
+      fragmentos.agrega(llave, fragmento, fragmento.length());
+    }
+    svg.append(fragmento);
+  }
+
+  /* Construye el árbol y lo dibuja. */
+  private void dibujaEstructura(EscritorSVG svg, EstructuraDatos estructura) throws IOException{
+    ArbolBinario<T> arbol;
     /* Checaremos de qué tipo de arbol se trata */
     switch(estructura){
-      /* En caso de ser un arbol ordenado, se concatena su representación en svg */
       case ARBOLORDENADO:
-        arbolSVG+=dibujaArbolOrdenadoCompleto(estructura);
+        arbol = new ArbolBinarioOrdenado<>(this.elementos);
         break;
-      /* En caso de ser un arbol completo, se concatena su representación en svg */
       case ARBOLCOMPLETO:
-        arbolSVG+=dibujaArbolOrdenadoCompleto(estructura);
+        arbol = new ArbolBinarioCompleto<>(this.elementos);
         break;
-      /* En caso de ser un arbol rojinegro, se concatena su representación en svg */
       case ARBOLROJINEGRO:
-        arbolSVG+=dibujaARbolAVLRojinegro(estructura);
+        arbol = new ArbolRojinegro<>(this.elementos);
         break;
-      /* En caso de ser un arbol avl, se concatena su representación en svg */
       case ARBOLAVL:
-        esArbolAVL = true;
-        arbolSVG+=dibujaARbolAVLRojinegro(estructura);
-        break;
-      case NINGUNO:
-        arbolSVG="";
+        arbol = new ArbolAVL<>(this.elementos);
         break;
+      default:
+        return;
     }
-    /* Concatenamos la etiqueta de cierre */
-    return arbolSVG;
+    DisposicionArbol disposicion = new DisposicionArbol(arbol);
+    estableceDimensiones(svg, disposicion);
+    dibujaArbol(svg, disposicion, arbol);
+    svg.append("</svg>\n");
   }
 
   /**
-  * Método que dibuja un arbol binario ordenado / completo
+  * Método para dibujar un árbol binario ya dispuesto; cada vértice, en pre-orden, escribe su
+  * etiqueta, la arista desde su padre y su nodo, sin construir cadenas intermedias. El color
+  * (rojinegros) y la altura y el balance (AVL) se le piden al árbol.
+  * @param EscritorSVG svg en donde se dibuja
+  * @param DisposicionArbol coordenadas de los vértices del árbol
+  * @param ArbolBinario<T> árbol que se dibuja
   */
-  public  String dibujaArbolOrdenadoCompleto(EstructuraDatos estructura){
-      ArbolBinario<T> arbol;
-      if(estructura.equals(EstructuraDatos.ARBOLORDENADO))
-        arbol = new ArbolBinarioOrdenado<>(this.elementos);
-      else
-        arbol = new ArbolBinarioCompleto<>(this.elementos);
-      /* Vamos a trabajar con la raíz del arbol qeu creamos */
-      VerticeArbolBinario raiz = arbol.raiz();
-
-      /* Calculamos la cantidad de vértices que hay en el subarbol izquierdo */
-      int verticesEnIzquierdo, verticesEnDerecho;
-      verticesEnDerecho = verticesEnIzquierdo = 0;
-      if(raiz.hayIzquierdo())
-        verticesEnIzquierdo = DibujaElmArbol.cuentaVerticesSubarbol(raiz.izquierdo());
-      /* Calculamos la cantidad de vértices que hay en el subarbol derecho */
-      if(raiz.hayDerecho())
-        verticesEnDerecho = DibujaElmArbol.cuentaVerticesSubarbol(raiz.derecho());
-
-      /* Calculamos la coordenada en x de la raíz */
-      int xNueva = verticesEnIzquierdo*40+40;
-      /* Inicializamos la coordenada en y de la raíz */
-      int yNueva = 30;
-      /* Calculamos el límite inferior del margen del arbol */
-      int limiteInferior = 0;
-      /* Calculamos el límite supperior del margen del arbol */
-      int limiteSuperior = xNueva + (verticesEnDerecho)*40;
-
-      String izq , der;
-      izq = der = "";
-      if(raiz.hayIzquierdo())
-        izq = dibujaArbol(xNueva, yNueva, raiz.izquierdo(), limiteInferior, xNueva);
-      if(raiz.hayDerecho())
-        der = dibujaArbol(xNueva, yNueva, raiz.derecho(), xNueva, limiteSuperior);
-
-      return DibujaElmArbol.dibujaNodo(xNueva, yNueva, raiz, Color.NINGUNO)+ der + izq+"</svg>";
-  }
-
-  /**
-  * Método que dibuja un arbol binario avl/rojinegro
-  */
-  public String dibujaARbolAVLRojinegro(EstructuraDatos estructura){
-    ArbolBinario<T> arbol;
-    if(estructura.equals(EstructuraDatos.ARBOLAVL))
-      arbol = new ArbolAVL<>(this.elementos);
-    else
-      arbol = new ArbolRojinegro<>(this.elementos);
-    /* Vamos a trabajar con la raíz del arbol qeu creamos */
-    VerticeArbolBinario raiz = arbol.raiz();
-
-    /* Calculamos la cantidad de vértices que hay en el subarbol izquierdo */
-    int verticesEnIzquierdo, verticesEnDerecho;
-    verticesEnDerecho = verticesEnIzquierdo = 0;
-    if(raiz.hayIzquierdo())
-      verticesEnIzquierdo = DibujaElmArbol.cuentaVerticesSubarbol(raiz.izquierdo());
-    /* Calculamos la cantidad de vértices que hay en el subarbol derecho */
-    if(raiz.hayDerecho())
-      verticesEnDerecho = DibujaElmArbol.cuentaVerticesSubarbol(raiz.derecho());
-
-    /* Calculamos la coordenada en x de la raíz */
-    int xNueva = verticesEnIzquierdo*40+40;
-    /* Inicializamos la coordenada en y de la raíz */
-    int yNueva = 30;
-    /* Calculamos el límite inferior del margen del arbol */
-    int limiteInferior = 0;
-    /* Calculamos el límite supperior del margen del arbol */
-    int limiteSuperior = xNueva + (verticesEnDerecho)*40;
-    /* Obtenemos las respectivas etiquetas de cada vértice en caso de ser avl */
-    String etiqueta, balance_altura;
-    etiqueta = balance_altura = "";
-    /* EN caso de ser rojinegro necesitamos el color de la raíz que es negro */
-    Color color = Color.NINGUNO;
-    /* Si es arbol avl creamos la etiqueta del nodo, sino, cambiamos el color del nodo por NEGRO */
-    if(estructura.equals(EstructuraDatos.ARBOLAVL)){
-      balance_altura = raiz.toString().substring(raiz.toString().length()-4, raiz.toString().length());
-      etiqueta = DibujaElmArbol.dibujaEtiqueta(xNueva+5, yNueva-12, balance_altura);
-    }else
-      color = Color.NEGRO;
-    String izq , der;
-    izq = der = "";
-    if(raiz.hayIzquierdo())
-      izq = dibujaArbol(xNueva, yNueva, raiz.izquierdo(), limiteInferior, xNueva);
-    if(raiz.hayDerecho())
-      der = dibujaArbol(xNueva, yNueva, raiz.derecho(), xNueva, limiteSuperior);
-
-    return etiqueta + DibujaElmArbol.dibujaNodo(xNueva, yNueva, raiz, color)+ der + izq+"</svg>\n";
-  }
-  /**
-  * Método para dibujar un árbol binario
-  * @param int[] coordenadas en x
-  * @param int coordY coordenada del nodo pasado, por lo que la nueva coordenada debe ser coordY+incremento
-  * @param int mitad Posición en donde se encuentra la coordenada en X pasada (se usará para dibujar el arista)
-  * @param VerticeArbolBinario vértice actual que se representará en svg (se tiene que ver si es o no hoja)
-  * @param int i corresponde al límite inferior del arreglo
-  * @param int j corresponde al límite superior del arreglo
-  * i, j nos ayudarán a poder ir calculando las mitades de cada subarreglo para encontrar la coordenada en x para cada nodo
-  */
-  public String dibujaArbol(int coorXAnterior, int coordYAnterior, VerticeArbolBinario v, int inferior, int superior){
-    /* Caso en donde el vértice no existe (Caso base 1) */
-    if(v == null)
-      return "";
-    /* Recalculamos la nueva coordenada en X, Y */
-    int xNueva = DibujaElmArbol. calculaMitad(inferior, superior);
-    int coordYNueva = coordYAnterior + 40;
-    /* Primero dibujamos el arista del vértice pasado al nuevo vértice */
-    String arista;
-    int coordXAux = (v.padre().hayIzquierdo() && v.padre().izquierdo() == v) ? coorXAnterior -16  : coorXAnterior + 16;
-    arista = DibujaElmArbol.dibujaArista(coordXAux, coordYAnterior, xNueva, coordYNueva);
-
-    /* Tenemos que meternos en el lío de los colores */
-    Color color;
-    if(v.toString().substring(0,1).equals("R"))
-      color = Color.ROJO;
-    else if(v.toString().substring(0,1).equals("N"))
-      color = Color.NEGRO;
-    else
-      color = Color.NINGUNO;
-    String etiqueta, balance_altura;
-    etiqueta = balance_altura = "";
-    if(esArbolAVL){
-      /* Obtenemos la subcadena del nodo que representa su altura/balance */
-      balance_altura = v.toString().substring(v.toString().length()-4, v.toString().length());
-      /*  Creamos la etiqueta txt de svg */
-      coordXAux = (v.padre().hayIzquierdo() && v.padre().izquierdo() == v) ? xNueva-12 : xNueva+12;
-      etiqueta = DibujaElmArbol.dibujaEtiqueta(coordXAux, coordYNueva-12, balance_altura);
+  @SuppressWarnings("unchecked")
+  public void dibujaArbol(EscritorSVG svg, DisposicionArbol disposicion, ArbolBinario<T> arbol) throws IOException{
+    ArbolAVL<T> avl = arbol instanceof ArbolAVL ? (ArbolAVL<T>)arbol : null;
+    ArbolRojinegro<T> rojinegro = arbol instanceof ArbolRojinegro ? (ArbolRojinegro<T>)arbol : null;
+    for(int i = 0; i < disposicion.getVertices(); i++){
+      VerticeArbolBinario<T> v = (VerticeArbolBinario<T>)disposicion.getVertice(i);
+      int x = disposicion.getX(i);
+      int y = disposicion.getY(i);
+      int padre = disposicion.getPadre(i);
+      boolean esIzquierdo = disposicion.esIzquierdo(i);
+      Color color = rojinegro != null ? rojinegro.getColor(v) : Color.NINGUNO;
+      if(avl != null){
+        /*  Dibujamos la etiqueta altura/balance del vértice */
+        int xEtiqueta = padre < 0 ? x+5 : esIzquierdo ? x-12 : x+12;
+        DibujaElmArbol.dibujaEtiqueta(svg, xEtiqueta, y-12, v.altura(), avl.getBalance(v));
+      }
+      /* Dibujamos el arista del vértice padre al vértice */
+      if(padre >= 0){
+        int xPadre = disposicion.getX(padre);
+        DibujaElmArbol.dibujaArista(svg, esIzquierdo ? xPadre - 16 : xPadre + 16, disposicion.getY(padre), x, y);
+      }
+      DibujaElmArbol.dibujaNodo(svg, x, y, v, color);
     }
-    /* Caso base que es cuando el vértice es hoja (Caso base 2) */
-    if(DibujaElmArbol.esHoja(v))
-      return etiqueta + arista + DibujaElmArbol.dibujaNodo(xNueva,coordYNueva,v,color);
-    /* Vamos a ver si tiene hijo izquierdo */
-    String izq, der;
-    izq = der = "";
-    if(v.hayIzquierdo())
-        izq = dibujaArbol(xNueva, coordYNueva, v.izquierdo(), inferior, xNueva);
-    /* Vamos a ver si tiene hijo derecho */
-    if(v.hayDerecho())
-        der = dibujaArbol(xNueva, coordYNueva, v.derecho(), xNueva, superior);
-    return  etiqueta + arista + DibujaElmArbol.dibujaNodo(xNueva,coordYNueva,v,color)+ izq + der;
   }
 }
@@ -1,31 +1,41 @@
 package mx.unam.ciencias.edd.proyecto3.estructuras_svg;
 import mx.unam.ciencias.edd.*;
+import java.io.IOException;
 /**
 * Clase para dibujar todo tipo de árbol binario
 * Árboles Binarios Ordenados, Árboles Binarios Completos.
 */
 public class DibujaElmArbol{
+  /* Estilos del modo compacto */
+  public static final String ESTILO = "<style>.aa{stroke:red;stroke-width:1}.an{stroke:white}"+
+    ".at{text-anchor:middle;font-family:Arial;font-size:10px}.ac{font-size:8px}</style>\n";
 
   /**
   * Método para dibujar una arista de un vértice a su vértice padre
+  * @param EscritorSVG svg en donde se dibuja
   * @param int coordenada1 en x
   * @param int coordenada1 en y
   * @param int coordenada2 en x
   * @param int coordenada2 en y
-  * @return Representación en cadena del arista
   */
-  public  static  String dibujaArista(int x1, int y1, int x2, int y2){
-    return "<line x1='"+x1+"' y1='"+y1+"' x2= '"+x2+"' y2='" + y2 +"' style='stroke:red; stroke-width:1'></line>\n";
+  public  static  void dibujaArista(EscritorSVG svg, int x1, int y1, int x2, int y2) throws IOException{
+    if(svg.esCompacto()){
+      svg.append("<line class='aa' x1='").numero(x1).append("' y1='").numero(y1).append("' x2='").numero(x2)
+         .append("' y2='").numero(y2).append("'/>\n");
+      return;
+    }
+    svg.append("<line x1='").numero(x1).append("' y1='").numero(y1).append("' x2= '").numero(x2)
+       .append("' y2='").numero(y2).append("' style='stroke:red; stroke-width:1'></line>\n");
   }
   /**
   * Método para dibujar en vértice del árbol binario
+  * @param EscritorSVG svg en donde se dibuja
   * @param int coordenada en x
   * @param int coordenada en y
   * @param VerticeArbolBinario vértice que se representará en cadena
   * @param Color color del vértice
-  * @return Representación en cadena del arista
   */
-  public static String dibujaNodo(int x, int y, VerticeArbolBinario vertice, Color c){
+  public static void dibujaNodo(EscritorSVG svg, int x, int y, VerticeArbolBinario vertice, Color c) throws IOException{
     String color = "";
     switch(c){
       case ROJO:
@@ -44,14 +54,22 @@ public class DibujaElmArbol{
       colorletra = "white";
     else
       colorletra = "red";
+    String elemento = vertice.get().toString();
     String tamanio; 
-    if(vertice.get().toString().length() > 15)
+    if(elemento.length() > 15)
 	tamanio = "8px";
     else
 	tamanio = "10px"; 
-    return "<circle cx= '"+x+"' cy= '"+y+"' r='16' stroke='white' fill='"+color+"'  /> \n<text x= '"+x+"' y= '"+y1+
-    "' text-anchor='middle' fill='"+ colorletra+"' font-size='"+tamanio+"' font-family='Arial' dy='.1em'>"+
-    vertice.get()+"</text>\n";
+    if(svg.esCompacto()){
+      svg.append("<circle class='an' cx='").numero(x).append("' cy='").numero(y).append("' r='16' fill='").append(color)
+         .append("'/>\n<text class='").append(elemento.length() > 15 ? "at ac" : "at").append("' x='").numero(x)
+         .append("' y='").numero(y1).append("' fill='").append(colorletra).append("' dy='.1em'>").append(elemento).append("</text>\n");
+      return;
+    }
+    svg.append("<circle cx= '").numero(x).append("' cy= '").numero(y).append("' r='16' stroke='white' fill='").append(color)
+       .append("'  /> \n<text x= '").numero(x).append("' y= '").numero(y1)
+       .append("' text-anchor='middle' fill='").append(colorletra).append("' font-size='").append(tamanio)
+       .append("' font-family='Arial' dy='.1em'>").append(elemento).append("</text>\n");
   }
 
   /**
@@ -71,26 +89,56 @@ public class DibujaElmArbol{
   }
   /**
   * Método exclusivo para árboles binarios AVL
-  * @param
+  * @param EscritorSVG svg en donde se dibuja
+  * @param int coordenada en x
+  * @param int coordenada en y
+  * @param String etiqueta
   */
-  public static String dibujaEtiqueta(int x, int y, String etiqueta){
+  public static void dibujaEtiqueta(EscritorSVG svg, int x, int y, String etiqueta) throws IOException{
+    abreEtiqueta(svg, x, y);
+    svg.append(etiqueta).append("</text>\n");
+  }
+  /**
+  * Método exclusivo para árboles binarios AVL que dibuja la etiqueta altura/balance de un
+  * vértice sin construir la cadena
+  * @param EscritorSVG svg en donde se dibuja
+  * @param int coordenada en x
+  * @param int coordenada en y
+  * @param int altura del vértice
+  * @param int balance del vértice
+  */
+  public static void dibujaEtiqueta(EscritorSVG svg, int x, int y, int altura, int balance) throws IOException{
+    abreEtiqueta(svg, x, y);
+    svg.numero(altura).append('/').numero(balance).append("</text>\n");
+  }
+  /* Escribe el inicio de una etiqueta, hasta antes de su texto. */
+  private static void abreEtiqueta(EscritorSVG svg, int x, int y) throws IOException{
     int y1 = y-3;
     int x1 = x-2;
-    return "<text x= '"+x1+"' y= '"+y1+"' text-anchor='middle' fill='black' font-size='10px' font-family='Arial' dy='.3em'>"+
-    etiqueta+"</text>\n";
+    if(svg.esCompacto()){
+      svg.append("<text class='at' x='").numero(x1).append("' y='").numero(y1).append("' dy='.3em'>");
+      return;
+    }
+    svg.append("<text x= '").numero(x1).append("' y= '").numero(y1)
+       .append("' text-anchor='middle' fill='black' font-size='10px' font-family='Arial' dy='.3em'>");
   }
   /**
-  * Método Auxiliar para calcular la cantidad de nodos en un subarbol Td, Ti
+  * Método Auxiliar para calcular la cantidad de nodos en un subarbol Td, Ti; usa una pila en
+  * lugar de recursión para no desbordar la pila de llamadas con árboles profundos
   * @param VerticeArbolBinario vertice
   */
   public static int cuentaVerticesSubarbol(VerticeArbolBinario v){
-    if(!v.hayIzquierdo() && v.hayDerecho())
-      return 1 + cuentaVerticesSubarbol(v.derecho());
-    if(!v.hayDerecho() && v.hayIzquierdo())
-      return 1 + cuentaVerticesSubarbol(v.izquierdo());
-    if(esHoja(v))
-      return 1;
-    else
-      return 1 + cuentaVerticesSubarbol(v.izquierdo()) + cuentaVerticesSubarbol(v.derecho());
+    Pila<VerticeArbolBinario> pendientes = new Pila<>();
+    pendientes.mete(v);
+    int vertices = 0;
+    while(!pendientes.esVacia()){
+      VerticeArbolBinario u = pendientes.saca();
+      vertices++;
+      if(u.hayIzquierdo())
+        pendientes.mete(u.izquierdo());
+      if(u.hayDerecho())
+        pendientes.mete(u.derecho());
+    }
+    return vertices;
   }
 }
@@ -5,8 +5,7 @@ import java.io.IOException;
 /**
 * Clase para dibujar las estructuras de datos con nodos
 * A pesar que se puede imprimir la gráfica analizando únicamente los datos de entrada,
-* vamos a hacer uso de una estructura gráfica, principalmente para poder usar el método de son vecinos y ver como éste funciona.
-* Cabe aclarar que no es la manera más óptima, sin embargo pretendo utilizar distintos métodos que la clase gráfica me puede ofrecer.
+* vamos a hacer uso de una estructura gráfica; las aristas se dibujan recorriendo sus listas de vecinos.
 */
 public class DibujaGrafica<T extends Comparable<T>>{
   /* Clase interna que nos permitirá representar cada vértice con una coordenada x, y y su respectivo elemento */
@@ -17,6 +16,8 @@ public class DibujaGrafica<T extends Comparable<T>>{
     public double x;
     /* Coordenada en y*/
     public double y;
+    /* Posición del punto en la lista de puntos */
+    public int indice;
     /**
     * Constructor de la clase Punto
     * @param int coordenada en x
@@ -34,14 +35,23 @@ public class DibujaGrafica<T extends Comparable<T>>{
   private Lista<T> elementos;
   /* Gráfica que almacenará los elementos */
   private Grafica<T> graf = new Grafica<>();
-  /*Cadena que contendrá la representación en SVG del árbol */
-  private String estructuraSVG = "";
   /* Coordenada en X del centro de la circunferencia */
   private double xInicial = 300;
   /* Coordenada en Y del centro de la circunferencia*/
   private double yInicial = 300;
   /* Radio de la circunferencia */
   private double radio = 200;
+  /* Radio de los nodos */
+  private static final double RADIO_NODO = 25;
+  /* Estilos del modo compacto */
+  private static final String ESTILO = "<style>.gn{stroke:black;fill:white}.ga{stroke:white;stroke-width:1}"+
+    ".gt{text-anchor:middle;font-family:Arial;font-size:15px;fill:red}</style>\n";
+  /* Iteraciones de la disposición por fuerzas; 0 para acomodar los vértices en la circunferencia */
+  private int iteraciones = DisposicionFuerzas.ITERACIONES;
+  /* Número de hilos con los que se acumulan las fuerzas */
+  private int hilos = 1;
+  /* Lado del lienzo */
+  private int lado = DisposicionFuerzas.LADO_MINIMO;
   /**
   * Constructor por omisión
   */
@@ -59,90 +69,170 @@ public class DibujaGrafica<T extends Comparable<T>>{
       }
   }
   /**
+  * Método para definir cuántas iteraciones se simulan para acomodar los vértices
+  * @param int número de iteraciones; 0 para acomodarlos en una circunferencia
+  */
+  public void setIteraciones(int iteraciones){
+    if(iteraciones < 0) throw new IllegalArgumentException("Número de iteraciones inválido: "+iteraciones);
+    this.iteraciones = iteraciones;
+  }
+  /**
+  * Método para definir con cuántos hilos se acumulan las fuerzas al acomodar los vértices
+  * @param int número de hilos
+  */
+  public void setHilos(int hilos){
+    if(hilos < 1) throw new IllegalArgumentException("Número de hilos inválido: "+hilos);
+    this.hilos = hilos;
+  }
+  /**
   * Método que establece las dimensiones del svg en donde se presentará la estructura
+  * @param EscritorSVG svg en donde se dibuja
   * @param int ancho
   * @param int alto
   */
-  public void estableceDimensiones(int ancho,int alto){
-      this.estructuraSVG+= "<svg width='"+ancho+"'  height= '" + alto+ "' >\n";
+  public void estableceDimensiones(EscritorSVG svg, int ancho,int alto) throws IOException{
+    if(svg.esCompacto()){
+      svg.append("<svg width='").numero(ancho).append("' height='").numero(alto).append("'>").append(ESTILO);
+      return;
+    }
+    svg.append("<svg width='").numero(ancho).append("'  height= '").numero(alto).append("' >\n");
   }
   /**
-  * Método que genera la cadena de los puntos
+  * Método que dibuja los puntos
+  * @param EscritorSVG svg en donde se dibuja
   * @param Lista<Puntos> lista con los puntos que se graficarán
-  * @return String con los puntos representados en svg
   */
-  public String dibujaPuntos(Lista<Punto> listaPuntos){
-    String vertices = "";
+  public void dibujaPuntos(EscritorSVG svg, Lista<Punto> listaPuntos) throws IOException{
     for(Punto p : listaPuntos)
-      vertices+=dibujaVertice(p);
-    return vertices;
+      dibujaVertice(svg, p);
   }
   /**
   * Método para dibujar cada Punto
+  * @param EscritorSVG svg en donde se dibuja
   * @param Punto que se dibujará
-  * @return String representación en svg del putno
   */
-  public String dibujaVertice(Punto p){
-      return dibujaNodo(p.x, p.y, p.elemento);
+  public void dibujaVertice(EscritorSVG svg, Punto p) throws IOException{
+      dibujaNodo(svg, p.x, p.y, p.elemento);
   }
   /**
   * Método que dibuja cada nodo de la gráfica
+  * @param EscritorSVG svg en donde se dibuja
   * @param int coordenada en x
   * @param int coordenada en y
   * @param T elemento
-  * @return Representación en svg del nodo
   */
-  public String dibujaNodo(double x, double y, T elemento){
+  public void dibujaNodo(EscritorSVG svg, double x, double y, T elemento) throws IOException{
     double y1 = y+2;
     String colorletra = "red";
-    String[] splt = elemento.toString().split("/");
-    return "<circle cx= '"+x+"' cy= '"+y+"' r='25' stroke='black' fill='white'  />\n<text x= '"+x+"' y= '"+y1+
-    "' text-anchor='middle' fill='"+ colorletra+"' font-size='15px' font-family='Arial' dy='.1em'>"+
-    splt[splt.length - 1].trim()+"</text>\n";
+    String nombre = elemento.toString();
+    if(svg.esCompacto()){
+      svg.append("<circle class='gn' cx='").numero(x).append("' cy='").numero(y).append("' r='25'/>\n<text class='gt' x='")
+         .numero(x).append("' y='").numero(y1).append("' dy='.1em'>").append(nombre.substring(nombre.lastIndexOf('/') + 1).trim())
+         .append("</text>\n");
+      return;
+    }
+    svg.append("<circle cx= '").numero(x).append("' cy= '").numero(y).append("' r='25' stroke='black' fill='white'  />\n<text x= '")
+       .numero(x).append("' y= '").numero(y1).append("' text-anchor='middle' fill='").append(colorletra)
+       .append("' font-size='15px' font-family='Arial' dy='.1em'>").append(nombre.substring(nombre.lastIndexOf('/') + 1).trim())
+       .append("</text>\n");
   }
   /**
-  * Método para agregar la representación en svg de los aristas
+  * Método para agregar la representación en svg de los aristas. Recorre una sola vez las
+  * listas de vecinos de la gráfica y busca el punto de cada vecino en un diccionario, así que
+  * cuesta O(V + E); cada arista se dibuja una sola vez, desde el punto con menor índice.
+  * @param EscritorSVG svg en donde se dibuja
   * @param Lista<Puntos> puntos que se conectarán
-  * @return String representación de los aristas en svg
-  */
-  public String dibujaAristas(Lista<Punto> listaPuntos){
-    String aristas = "";
-    for(Punto p : listaPuntos){
-      for(Punto q : listaPuntos){
-        if(graf.sonVecinos(p.elemento, q.elemento))
-          aristas+=conectaVertices(p, q);
+  */
+  public void dibujaAristas(EscritorSVG svg, Lista<Punto> listaPuntos) throws IOException{
+    Diccionario<T, Punto> puntos = new Diccionario<>(listaPuntos.getLongitud());
+    for(Punto p : listaPuntos)
+      puntos.agrega(p.elemento, p);
+    Lista<VerticeGrafica<T>> vertices = new Lista<>();
+    graf.paraCadaVertice(v -> vertices.agrega(v));
+    for(VerticeGrafica<T> v : vertices){
+      Punto p = puntos.get(v.get());
+      for(VerticeGrafica<T> vecino : v.vecinos()){
+        Punto q = puntos.get(vecino.get());
+        if(p.indice < q.indice)
+          conectaVertices(svg, p, q);
       }
     }
-    return aristas;
   }
   /**
   * Método para conectar dos Puntos
+  * @param EscritorSVG svg en donde se dibuja
   * @param Punto p1
   * @param Punto p2
-  * @return String representación del arista
   */
-  public String conectaVertices(Punto p1, Punto p2){
-    return dibujaArista(p1.x,p1.y,p2.x,p2.y);
+  public void conectaVertices(EscritorSVG svg, Punto p1, Punto p2) throws IOException{
+    dibujaArista(svg, p1.x,p1.y,p2.x,p2.y);
   }
   /**
   * Método para dibujar una arista de un vértice a su vértice padre
+  * @param EscritorSVG svg en donde se dibuja
   * @param double coordenada1 en x
   * @param double coordenada1 en y
   * @param double coordenada2 en x
   * @param double coordenada2 en y
-  * @return Representación en cadena del arista
   */
-  public String dibujaArista(double x1, double y1, double x2, double y2){
-    double y1N, y2N;
-    y1N = (y1 < yInicial) ? y1+25 : y1 -25;
-    y2N = (y2 < yInicial) ? y2+25 : y2 -25;
-    return "<line x1='"+x1+"' y1='"+y1N+"' x2='"+x2+"' y2='" + y2N+"' style='stroke:white; stroke-width:1'></line>\n";
+  public void dibujaArista(EscritorSVG svg, double x1, double y1, double x2, double y2) throws IOException{
+    /* La arista va del borde de un nodo al borde del otro */
+    double ex = x2 - x1, ey = y2 - y1;
+    double d = Math.sqrt(ex*ex + ey*ey);
+    if(d <= 2*RADIO_NODO) return;
+    ex = ex * RADIO_NODO / d;
+    ey = ey * RADIO_NODO / d;
+    if(svg.esCompacto()){
+      svg.append("<line class='ga' x1='").numero(x1 + ex).append("' y1='").numero(y1 + ey).append("' x2='").numero(x2 - ex)
+         .append("' y2='").numero(y2 - ey).append("'/>\n");
+      return;
+    }
+    svg.append("<line x1='").numero(x1 + ex).append("' y1='").numero(y1 + ey).append("' x2='").numero(x2 - ex)
+       .append("' y2='").numero(y2 - ey).append("' style='stroke:white; stroke-width:1'></line>\n");
   }
   /**
-  * Método que asigna las coordenadas en x, y a cada punto
+  * Método que asigna las coordenadas en x, y a cada punto simulando fuerzas entre los vértices
+  * (ver {@link DisposicionFuerzas}); el lienzo crece con el número de vértices
   * @return lista puntos
   */
   public Lista<Punto> asignaCoordenadas(){
+    if(iteraciones == 0)
+      return asignaCoordenadasCircunferencia();
+    Lista<Punto> listaPuntos = new Lista<>();
+    Diccionario<T, Integer> indices = new Diccionario<>(graf.getElementos());
+    for(T elemento : graf)
+      indices.agrega(elemento, indices.getElementos());
+    int n = indices.getElementos();
+    int[] origen = new int[graf.getAristas()], destino = new int[graf.getAristas()];
+    Lista<VerticeGrafica<T>> vertices = new Lista<>();
+    graf.paraCadaVertice(v -> vertices.agrega(v));
+    int a = 0;
+    for(VerticeGrafica<T> v : vertices){
+      int i = indices.get(v.get());
+      for(VerticeGrafica<T> vecino : v.vecinos()){
+        int j = indices.get(vecino.get());
+        if(i < j){
+          origen[a] = i;
+          destino[a++] = j;
+        }
+      }
+    }
+    DisposicionFuerzas disposicion = new DisposicionFuerzas(n, origen, destino, iteraciones, hilos);
+    lado = disposicion.getLado();
+    int i = 0;
+    for(T elemento : graf){
+      Punto p = new Punto(disposicion.getX(i), disposicion.getY(i), elemento);
+      p.indice = i++;
+      listaPuntos.agrega(p);
+    }
+    return listaPuntos;
+  }
+  /**
+  * Método que asigna las coordenadas en x, y a cada punto sobre una circunferencia
+  * @return lista puntos
+  */
+  public Lista<Punto> asignaCoordenadasCircunferencia(){
+    lado = DisposicionFuerzas.LADO_MINIMO;
     Lista<Punto> listaPuntos = new Lista<>();
     double angulo_por_vertice = 360 / graf.getElementos();
     double angulo, x, y;
@@ -150,7 +240,9 @@ public class DibujaGrafica<T extends Comparable<T>>{
     for(T elemento : graf){
       x = radio * Math.cos(Math.toRadians(angulo)) + xInicial;
       y = radio * Math.sin(Math.toRadians(angulo)) + yInicial;
-      listaPuntos.agrega(new Punto(x, y, elemento));
+      Punto p = new Punto(x, y, elemento);
+      p.indice = listaPuntos.getLongitud();
+      listaPuntos.agrega(p);
       angulo+=angulo_por_vertice;
     }
     return listaPuntos;
@@ -164,6 +256,16 @@ public class DibujaGrafica<T extends Comparable<T>>{
       graf.conecta(elemento1, elemento2);
     }catch(IllegalArgumentException e){}
   }
+  /** Método que conecta a dos elementos de la gráfica con una arista de cierto peso
+  * @param T elemento 1
+  * @param T elemento 2
+  * @param double peso de la arista
+  **/
+  public void conecta(T elemento1, T elemento2, double peso){
+    try{
+      graf.conecta(elemento1, elemento2, peso);
+    }catch(IllegalArgumentException e){}
+  }
   /**
   * Método para agregar elementos a la gráfica
   * @param T elemento
@@ -180,12 +282,28 @@ public class DibujaGrafica<T extends Comparable<T>>{
   * @return String representación en svg de la gráfica
   */
   public String dibujaGrafica(){
-    if(graf.getElementos() == 0) return "";
-    estableceDimensiones(650, 650);
+    StringBuilder estructuraSVG = new StringBuilder();
+    try{
+      EscritorSVG svg = new EscritorSVG(estructuraSVG);
+      escribeGrafica(svg);
+      svg.vacia();
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return estructuraSVG.toString();
+  }
+  /**
+  * Método que escribe la representación en svg de la gráfica
+  * @param EscritorSVG svg en donde se dibuja
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribeGrafica(EscritorSVG svg) throws IOException{
+    if(graf.getElementos() == 0) return;
     Lista<Punto> listaPuntos = asignaCoordenadas();
-    String svgPuntos = dibujaPuntos(listaPuntos);
-    String svgAristas = dibujaAristas(listaPuntos);
-    return estructuraSVG+svgPuntos+svgAristas+"</svg>";
+    estableceDimensiones(svg, lado, lado);
+    dibujaPuntos(svg, listaPuntos);
+    dibujaAristas(svg, listaPuntos);
+    svg.append("</svg>");
   }
 
 }
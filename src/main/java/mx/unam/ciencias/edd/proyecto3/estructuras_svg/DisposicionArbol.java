@@ -0,0 +1,177 @@
+package mx.unam.ciencias.edd.proyecto3.estructuras_svg;
+import mx.unam.ciencias.edd.*;
+
+/**
+* Clase que calcula en dónde se dibuja cada vértice de un árbol binario. La coordenada en x
+* de un vértice es su posición en el recorrido in-orden (el número de vértices a su izquierda)
+* y la coordenada en y es su profundidad, así que los subárboles nunca se enciman.
+*
+* Todo se calcula en tiempo lineal y sin recursión: un recorrido pre-orden con una {@link Pila}
+* numera los vértices, los tamaños de los subárboles se acumulan recorriendo esa numeración al
+* revés (post-orden) y las posiciones in-orden se reparten de la raíz hacia las hojas.
+*/
+public class DisposicionArbol{
+  /* Separación horizontal entre vértices consecutivos */
+  public static final int SEPARACION = 40;
+  /* Separación vertical entre niveles */
+  public static final int NIVEL = 40;
+  /* Coordenada en y de la raíz */
+  private static final int MARGEN_SUPERIOR = 30;
+
+  /* Vértices en pre-orden */
+  private VerticeArbolBinario<?>[] vertices;
+  /* Índice del padre de cada vértice; -1 para la raíz */
+  private int[] padre;
+  /* Si cada vértice es hijo izquierdo de su padre */
+  private boolean[] izquierdo;
+  /* Coordenada en x de cada vértice */
+  private int[] x;
+  /* Coordenada en y de cada vértice */
+  private int[] y;
+  /* Número de vértices */
+  private int n;
+  /* Profundidad máxima */
+  private int profundidad;
+
+  /**
+  * Constructor de la clase DisposicionArbol
+  * @param ArbolBinario<?> árbol que se va a dibujar
+  */
+  public DisposicionArbol(ArbolBinario<?> arbol){
+    int elementos = arbol.getElementos();
+    vertices = new VerticeArbolBinario<?>[elementos];
+    padre = new int[elementos];
+    izquierdo = new boolean[elementos];
+    x = new int[elementos];
+    y = new int[elementos];
+    if(arbol.esVacia()) return;
+    numera(arbol.raiz());
+    posiciona();
+  }
+
+  /* Numera los vértices en pre-orden y guarda el padre y el lado de cada uno. En la pila van
+   * los vértices pendientes junto con el índice de su padre (por dos, más uno si es derecho). */
+  private void numera(VerticeArbolBinario<?> raiz){
+    Pila<VerticeArbolBinario<?>> pendientes = new Pila<>();
+    Pila<Integer> padres = new Pila<>();
+    pendientes.mete(raiz);
+    padres.mete(-1);
+    while(!pendientes.esVacia()){
+      VerticeArbolBinario<?> v = pendientes.saca();
+      int p = padres.saca();
+      int i = n++;
+      vertices[i] = v;
+      padre[i] = p < 0 ? -1 : p >> 1;
+      izquierdo[i] = p >= 0 && (p & 1) == 0;
+      if(v.hayDerecho()){
+        pendientes.mete(v.derecho());
+        padres.mete(2*i + 1);
+      }
+      if(v.hayIzquierdo()){
+        pendientes.mete(v.izquierdo());
+        padres.mete(2*i);
+      }
+    }
+  }
+
+  /* Calcula el tamaño de cada subárbol y con él la posición in-orden y la profundidad de cada
+   * vértice. En pre-orden el padre siempre va antes que sus hijos. */
+  private void posiciona(){
+    int[] tamano = new int[n];
+    int[] hijoIzquierdo = new int[n];
+    for(int i = 0; i < n; i++){
+      tamano[i] = 1;
+      hijoIzquierdo[i] = -1;
+    }
+    for(int i = n-1; i > 0; i--){
+      tamano[padre[i]] += tamano[i];
+      if(izquierdo[i])
+        hijoIzquierdo[padre[i]] = i;
+    }
+    /* inicio[i] es la primera posición in-orden del subárbol de i */
+    int[] inicio = new int[n];
+    int[] nivel = new int[n];
+    for(int i = 0; i < n; i++){
+      if(i > 0){
+        int p = padre[i];
+        nivel[i] = nivel[p] + 1;
+        inicio[i] = izquierdo[i] ? inicio[p] : x[p] + 1;
+      }
+      x[i] = inicio[i] + (hijoIzquierdo[i] >= 0 ? tamano[hijoIzquierdo[i]] : 0);
+      if(nivel[i] > profundidad) profundidad = nivel[i];
+    }
+    for(int i = 0; i < n; i++){
+      x[i] = x[i]*SEPARACION + SEPARACION;
+      y[i] = nivel[i]*NIVEL + MARGEN_SUPERIOR;
+    }
+  }
+
+  /**
+  * Regresa el número de vértices
+  * @return int número de vértices
+  */
+  public int getVertices(){
+    return n;
+  }
+
+  /**
+  * Regresa el i-ésimo vértice en pre-orden
+  * @param int índice del vértice
+  * @return VerticeArbolBinario<?> vértice
+  */
+  public VerticeArbolBinario<?> getVertice(int i){
+    return vertices[i];
+  }
+
+  /**
+  * Regresa el índice del padre de un vértice
+  * @param int índice del vértice
+  * @return int índice del padre; -1 si es la raíz
+  */
+  public int getPadre(int i){
+    return padre[i];
+  }
+
+  /**
+  * Nos dice si un vértice es hijo izquierdo de su padre
+  * @param int índice del vértice
+  * @return true si es hijo izquierdo
+  */
+  public boolean esIzquierdo(int i){
+    return izquierdo[i];
+  }
+
+  /**
+  * Regresa la coordenada en x de un vértice
+  * @param int índice del vértice
+  * @return int coordenada en x
+  */
+  public int getX(int i){
+    return x[i];
+  }
+
+  /**
+  * Regresa la coordenada en y de un vértice
+  * @param int índice del vértice
+  * @return int coordenada en y
+  */
+  public int getY(int i){
+    return y[i];
+  }
+
+  /**
+  * Regresa el ancho necesario para dibujar el árbol
+  * @return int ancho
+  */
+  public int getAncho(){
+    return (n + 1)*SEPARACION;
+  }
+
+  /**
+  * Regresa el alto necesario para dibujar el árbol
+  * @return int alto
+  */
+  public int getAlto(){
+    return n == 0 ? 0 : profundidad*NIVEL + MARGEN_SUPERIOR + NIVEL;
+  }
+}
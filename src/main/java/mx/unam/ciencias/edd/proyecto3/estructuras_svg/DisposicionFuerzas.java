@@ -0,0 +1,311 @@
+package mx.unam.ciencias.edd.proyecto3.estructuras_svg;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+* Clase que acomoda los vértices de una gráfica simulando fuerzas (Fruchterman–Reingold): las
+* aristas atraen a sus extremos y todos los vértices se repelen entre sí, de modo que los grupos
+* de archivos parecidos quedan juntos y separados de los demás.
+*
+* La repulsión entre todos los pares se aproxima con un árbol de cuadrantes (Barnes–Hut): un
+* cuadrante lo bastante lejano se trata como un solo vértice con la masa de todos los suyos,
+* así que cada iteración cuesta O(n log n) en lugar de O(n²). Las fuerzas de cada vértice se
+* pueden acumular en varios hilos; cada uno sólo lee el árbol y escribe las de sus vértices, así
+* que el resultado es el mismo sin importar el número de hilos. Las posiciones iniciales son
+* fijas, por lo que la misma gráfica siempre se acomoda igual.
+*/
+public class DisposicionFuerzas{
+  /* Iteraciones por omisión */
+  public static final int ITERACIONES = 100;
+  /* Lado mínimo del lienzo */
+  public static final int LADO_MINIMO = 650;
+  /* Espacio que le toca a cada vértice en el lienzo */
+  private static final int ESPACIO_VERTICE = 150;
+  /* Margen alrededor de la gráfica; deja lugar al radio de los nodos */
+  private static final int MARGEN = 40;
+  /* Un cuadrante de ancho w a distancia d se aproxima si w/d < THETA */
+  private static final double THETA = 0.8;
+  /* Intensidad de la atracción hacia el centro, relativa a la de una arista */
+  private static final double GRAVEDAD = 0.1;
+  /* Profundidad máxima del árbol de cuadrantes; evita dividir sin fin vértices encimados */
+  private static final int PROFUNDIDAD_MAXIMA = 48;
+  /* Número de vértices a partir del cual conviene usar varios hilos */
+  private static final int MINIMO_PARALELO = 512;
+  /* Número de vértices que acumula cada tarea */
+  private static final int VERTICES_TAREA = 256;
+
+  /* Nodo del árbol de cuadrantes */
+  private static class Cuadrante{
+    /* Esquina y lado del cuadrante */
+    double x, y, lado;
+    /* Masa (número de vértices) y centro de masa */
+    double masa, cx, cy;
+    /* Vértice del cuadrante, si es hoja con uno solo; -1 si no */
+    int vertice = -1;
+    /* Hijos; null si es hoja */
+    Cuadrante[] hijos;
+
+    Cuadrante(double x, double y, double lado){
+      this.x = x;
+      this.y = y;
+      this.lado = lado;
+    }
+  }
+
+  /* Tarea que acumula la repulsión de un rango de vértices */
+  private class TareaRepulsion extends RecursiveAction{
+    /* Rango de vértices [inicio, fin) */
+    private int inicio, fin;
+    /* Raíz del árbol de cuadrantes */
+    private Cuadrante raiz;
+
+    TareaRepulsion(Cuadrante raiz, int inicio, int fin){
+      this.raiz = raiz;
+      this.inicio = inicio;
+      this.fin = fin;
+    }
+
+    @Override protected void compute(){
+      if(fin - inicio <= VERTICES_TAREA){
+        for(int i = inicio; i < fin; i++)
+          repulsion(raiz, i);
+        return;
+      }
+      int mitad = (inicio + fin) >>> 1;
+      invokeAll(new TareaRepulsion(raiz, inicio, mitad), new TareaRepulsion(raiz, mitad, fin));
+    }
+  }
+
+  /* Número de vértices */
+  private int n;
+  /* Extremos de las aristas */
+  private int[] origen, destino;
+  /* Posiciones */
+  private double[] x, y;
+  /* Desplazamientos de la iteración actual */
+  private double[] dx, dy;
+  /* Distancia ideal entre vértices */
+  private double k;
+  /* Lado del lienzo */
+  private int lado;
+
+  /**
+  * Constructor de la clase DisposicionFuerzas; acomoda la gráfica en ese momento
+  * @param int número de vértices
+  * @param int[] vértice de origen de cada arista
+  * @param int[] vértice de destino de cada arista
+  * @param int número de iteraciones
+  * @param int número de hilos con los que se acumulan las fuerzas
+  */
+  public DisposicionFuerzas(int n, int[] origen, int[] destino, int iteraciones, int hilos){
+    if(iteraciones < 0) throw new IllegalArgumentException("Número de iteraciones inválido: "+iteraciones);
+    if(hilos < 1) throw new IllegalArgumentException("Número de hilos inválido: "+hilos);
+    this.n = n;
+    this.origen = origen;
+    this.destino = destino;
+    this.lado = Math.max(LADO_MINIMO, (int)Math.ceil(Math.sqrt(n)) * ESPACIO_VERTICE);
+    this.x = new double[n];
+    this.y = new double[n];
+    this.dx = new double[n];
+    this.dy = new double[n];
+    double area = (double)(lado - 2*MARGEN) * (lado - 2*MARGEN);
+    this.k = Math.sqrt(area / Math.max(n, 1));
+    posicionesIniciales();
+    ForkJoinPool alberca = hilos > 1 && n >= MINIMO_PARALELO ? new ForkJoinPool(hilos) : null;
+    try{
+      double temperatura = lado / 10.0;
+      for(int i = 0; i < iteraciones; i++)
+        itera(alberca, temperatura * (1 - (double)i / iteraciones));
+    }finally{
+      if(alberca != null) alberca.shutdown();
+    }
+    ajusta();
+  }
+
+  /* Coloca los vértices en una espiral (ángulo áureo) que ya ocupa el lienzo. */
+  private void posicionesIniciales(){
+    double angulo = Math.PI * (3 - Math.sqrt(5));
+    double radio = (lado - 2*MARGEN) / 2.0;
+    for(int i = 0; i < n; i++){
+      double r = radio * Math.sqrt((i + 0.5) / n);
+      x[i] = r * Math.cos(i * angulo);
+      y[i] = r * Math.sin(i * angulo);
+    }
+  }
+
+  /* Una iteración: repulsión, atracción y desplazamiento limitado por la temperatura. */
+  private void itera(ForkJoinPool alberca, double temperatura){
+    Cuadrante raiz = construyeArbol();
+    if(alberca == null)
+      for(int i = 0; i < n; i++)
+        repulsion(raiz, i);
+    else
+      alberca.invoke(new TareaRepulsion(raiz, 0, n));
+    for(int a = 0; a < origen.length; a++){
+      int u = origen[a], v = destino[a];
+      double ex = x[u] - x[v], ey = y[u] - y[v];
+      double d = Math.max(Math.sqrt(ex*ex + ey*ey), 0.01);
+      double f = d / k;
+      dx[u] -= ex * f;
+      dy[u] -= ey * f;
+      dx[v] += ex * f;
+      dy[v] += ey * f;
+    }
+    double limite = (lado - 2*MARGEN) / 2.0;
+    for(int i = 0; i < n; i++){
+      // Una gravedad débil hacia el centro evita que los vértices aislados se alejen sin fin
+      double r = Math.sqrt(x[i]*x[i] + y[i]*y[i]);
+      dx[i] -= x[i] * GRAVEDAD * r / k;
+      dy[i] -= y[i] * GRAVEDAD * r / k;
+      double d = Math.sqrt(dx[i]*dx[i] + dy[i]*dy[i]);
+      if(d > 0){
+        double m = Math.min(d, temperatura) / d;
+        x[i] = Math.max(-limite, Math.min(limite, x[i] + dx[i] * m));
+        y[i] = Math.max(-limite, Math.min(limite, y[i] + dy[i] * m));
+      }
+    }
+  }
+
+  /* Construye el árbol de cuadrantes con las posiciones actuales. */
+  private Cuadrante construyeArbol(){
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for(int i = 0; i < n; i++){
+      minX = Math.min(minX, x[i]);
+      minY = Math.min(minY, y[i]);
+      maxX = Math.max(maxX, x[i]);
+      maxY = Math.max(maxY, y[i]);
+    }
+    Cuadrante raiz = new Cuadrante(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), 1) * 1.0001);
+    for(int i = 0; i < n; i++)
+      inserta(raiz, i);
+    return raiz;
+  }
+
+  /* Inserta un vértice en el árbol sin recursión, actualizando masas y centros de masa. */
+  private void inserta(Cuadrante c, int i){
+    int profundidad = 0;
+    while(true){
+      double masa = c.masa + 1;
+      c.cx = (c.cx * c.masa + x[i]) / masa;
+      c.cy = (c.cy * c.masa + y[i]) / masa;
+      c.masa = masa;
+      if(c.hijos == null){
+        if(masa == 1){
+          c.vertice = i;
+          return;
+        }
+        // Los vértices encimados a gran profundidad se quedan juntos en la hoja
+        if(profundidad >= PROFUNDIDAD_MAXIMA){
+          c.vertice = -1;
+          return;
+        }
+        int anterior = c.vertice;
+        c.vertice = -1;
+        c.hijos = new Cuadrante[4];
+        if(anterior >= 0){
+          Cuadrante h = hijo(c, anterior);
+          h.masa = 1;
+          h.cx = x[anterior];
+          h.cy = y[anterior];
+          h.vertice = anterior;
+        }
+      }
+      c = hijo(c, i);
+      profundidad++;
+    }
+  }
+
+  /* Regresa (creándolo si hace falta) el hijo del cuadrante en donde cae un vértice. */
+  private Cuadrante hijo(Cuadrante c, int i){
+    double mitad = c.lado / 2;
+    int derecha = x[i] >= c.x + mitad ? 1 : 0;
+    int abajo = y[i] >= c.y + mitad ? 1 : 0;
+    int k = abajo * 2 + derecha;
+    if(c.hijos[k] == null)
+      c.hijos[k] = new Cuadrante(c.x + derecha * mitad, c.y + abajo * mitad, mitad);
+    return c.hijos[k];
+  }
+
+  /* Calcula la repulsión que recibe un vértice recorriendo el árbol con una pila explícita. */
+  private void repulsion(Cuadrante raiz, int i){
+    double fx = 0, fy = 0;
+    double k2 = k * k;
+    Cuadrante[] pila = new Cuadrante[4 * PROFUNDIDAD_MAXIMA + 4];
+    int tope = 0;
+    pila[tope++] = raiz;
+    while(tope > 0){
+      Cuadrante c = pila[--tope];
+      if(c.vertice == i) continue;
+      double ex = x[i] - c.cx, ey = y[i] - c.cy;
+      double d2 = ex*ex + ey*ey;
+      if(c.hijos == null || c.lado * c.lado < THETA * THETA * d2){
+        double masa = c.masa;
+        // Un vértice no se repele a sí mismo si comparte una hoja encimada
+        if(c.hijos == null && c.vertice < 0 && c.cx == x[i] && c.cy == y[i])
+          masa -= 1;
+        if(masa <= 0) continue;
+        if(d2 < 1e-4){
+          // Vértices encimados: se separan en una dirección fija que depende del índice
+          ex = Math.cos(i);
+          ey = Math.sin(i);
+          d2 = 1e-4;
+        }
+        double f = masa * k2 / d2;
+        fx += ex * f;
+        fy += ey * f;
+      }else{
+        for(Cuadrante h : c.hijos)
+          if(h != null) pila[tope++] = h;
+      }
+    }
+    dx[i] = fx;
+    dy[i] = fy;
+  }
+
+  /* Escala y traslada las posiciones para que la gráfica ocupe el lienzo. */
+  private void ajusta(){
+    if(n == 0) return;
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for(int i = 0; i < n; i++){
+      minX = Math.min(minX, x[i]);
+      minY = Math.min(minY, y[i]);
+      maxX = Math.max(maxX, x[i]);
+      maxY = Math.max(maxY, y[i]);
+    }
+    double util = lado - 2*MARGEN;
+    double escala = util / Math.max(Math.max(maxX - minX, maxY - minY), 1e-9);
+    double desplazaX = (util - (maxX - minX) * escala) / 2, desplazaY = (util - (maxY - minY) * escala) / 2;
+    for(int i = 0; i < n; i++){
+      x[i] = n == 1 ? lado / 2.0 : MARGEN + desplazaX + (x[i] - minX) * escala;
+      y[i] = n == 1 ? lado / 2.0 : MARGEN + desplazaY + (y[i] - minY) * escala;
+    }
+  }
+
+  /**
+  * Regresa la coordenada en x de un vértice
+  * @param int índice del vértice
+  * @return double coordenada en x
+  */
+  public double getX(int i){
+    return x[i];
+  }
+
+  /**
+  * Regresa la coordenada en y de un vértice
+  * @param int índice del vértice
+  * @return double coordenada en y
+  */
+  public double getY(int i){
+    return y[i];
+  }
+
+  /**
+  * Regresa el lado del lienzo (cuadrado), que crece con el número de vértices
+  * @return int lado del lienzo
+  */
+  public int getLado(){
+    return lado;
+  }
+}
@@ -0,0 +1,178 @@
+package mx.unam.ciencias.edd.proyecto3.estructuras_svg;
+import java.io.IOException;
+import java.nio.CharBuffer;
+/**
+* Clase en la que escriben todos los dibujos en SVG (gráficas, árboles y gráficas de archivos).
+* Los fragmentos y los números se copian a un búfer de caracteres que se reutiliza y que se
+* vacía a la salida cuando se llena, así que dibujar un elemento no construye cadenas intermedias.
+* Los números con punto decimal se escriben con a lo más {@link #DECIMALES} decimales sin
+* pasar por Double.toString.
+* En modo compacto los dibujos usan clases de CSS definidas una vez en un bloque &lt;style&gt;
+* por SVG en lugar de repetir los estilos en cada elemento, y los números se escriben con a lo
+* más {@link #DECIMALES_COMPACTO} decimales.
+*/
+public class EscritorSVG implements Appendable{
+  /* Tamaño del búfer de caracteres */
+  public static final int TAMANO_BUFER = 1 << 13;
+  /* Número máximo de decimales con los que se escriben las coordenadas */
+  public static final int DECIMALES = 4;
+  /* Número máximo de decimales en modo compacto */
+  public static final int DECIMALES_COMPACTO = 1;
+  /* Salida en donde se escribe el SVG */
+  private Appendable salida;
+  /* Búfer de caracteres */
+  private char[] bufer;
+  /* Vista del búfer que se entrega a la salida */
+  private CharBuffer vista;
+  /* Número de caracteres ocupados en el búfer */
+  private int ocupados;
+  /* Espacio para los dígitos de un número */
+  private char[] digitos;
+  /* Si se escribe en modo compacto */
+  private boolean compacto;
+  /* Número máximo de decimales */
+  private int decimales;
+  /* Factor para redondear a ese número de decimales */
+  private long escala;
+
+  /**
+  * Constructor de la clase EscritorSVG
+  * @param Appendable salida en donde se escribirá el SVG
+  */
+  public EscritorSVG(Appendable salida){
+    this(salida, false);
+  }
+
+  /**
+  * Constructor de la clase EscritorSVG que puede escribir en modo compacto
+  * @param Appendable salida en donde se escribirá el SVG
+  * @param boolean true para usar clases de CSS y menos decimales
+  */
+  public EscritorSVG(Appendable salida, boolean compacto){
+    this.salida = salida;
+    this.bufer = new char[TAMANO_BUFER];
+    this.vista = CharBuffer.wrap(bufer);
+    this.digitos = new char[20];
+    this.compacto = compacto;
+    this.decimales = compacto ? DECIMALES_COMPACTO : DECIMALES;
+    this.escala = pow10(decimales);
+  }
+
+  /**
+  * Nos dice si se escribe en modo compacto
+  * @return true si los dibujos usan clases de CSS
+  */
+  public boolean esCompacto(){
+    return compacto;
+  }
+
+  /**
+  * Método que escribe un fragmento del SVG
+  * @param CharSequence fragmento
+  * @return el mismo escritor
+  */
+  @Override public EscritorSVG append(CharSequence fragmento) throws IOException{
+    if(fragmento == null) fragmento = "null";
+    return append(fragmento, 0, fragmento.length());
+  }
+
+  /**
+  * Método que escribe una parte de un fragmento del SVG
+  * @param CharSequence fragmento
+  * @param int inicio
+  * @param int fin
+  * @return el mismo escritor
+  */
+  @Override public EscritorSVG append(CharSequence fragmento, int inicio, int fin) throws IOException{
+    if(fragmento == null) fragmento = "null";
+    while(inicio < fin){
+      if(ocupados == bufer.length) vacia();
+      int n = Math.min(fin - inicio, bufer.length - ocupados);
+      if(fragmento instanceof String)
+        ((String)fragmento).getChars(inicio, inicio + n, bufer, ocupados);
+      else
+        for(int i = 0; i < n; i++)
+          bufer[ocupados + i] = fragmento.charAt(inicio + i);
+      ocupados += n;
+      inicio += n;
+    }
+    return this;
+  }
+
+  /**
+  * Método que escribe un carácter del SVG
+  * @param char carácter
+  * @return el mismo escritor
+  */
+  @Override public EscritorSVG append(char c) throws IOException{
+    if(ocupados == bufer.length) vacia();
+    bufer[ocupados++] = c;
+    return this;
+  }
+
+  /**
+  * Método que escribe un entero en base diez
+  * @param long número
+  * @return el mismo escritor
+  */
+  public EscritorSVG numero(long n) throws IOException{
+    if(n == Long.MIN_VALUE) return append(Long.toString(n));
+    if(n < 0){
+      append('-');
+      n = -n;
+    }
+    int i = digitos.length;
+    do{
+      digitos[--i] = (char)('0' + n % 10);
+      n /= 10;
+    }while(n > 0);
+    while(i < digitos.length) append(digitos[i++]);
+    return this;
+  }
+
+  /**
+  * Método que escribe un número con a lo más {@link #DECIMALES} decimales (o
+  * {@link #DECIMALES_COMPACTO} en modo compacto), sin ceros sobrantes a la derecha
+  * @param double número
+  * @return el mismo escritor
+  */
+  public EscritorSVG numero(double x) throws IOException{
+    if(Double.isNaN(x) || Double.isInfinite(x) || Math.abs(x) >= (double)(Long.MAX_VALUE / escala))
+      return append(Double.toString(x));
+    long escalado = Math.round(Math.abs(x) * escala);
+    if(x < 0 && escalado != 0) append('-');
+    numero(escalado / escala);
+    long fraccion = escalado % escala;
+    if(fraccion == 0) return this;
+    int decimales = this.decimales;
+    while(fraccion % 10 == 0){
+      fraccion /= 10;
+      decimales--;
+    }
+    append('.');
+    for(long d = pow10(decimales - 1); d > 0; d /= 10){
+      append((char)('0' + fraccion / d));
+      fraccion %= d;
+    }
+    return this;
+  }
+
+  /* Regresa 10 elevado a la n. */
+  private static long pow10(int n){
+    long p = 1;
+    while(n-- > 0) p *= 10;
+    return p;
+  }
+
+  /**
+  * Método que entrega a la salida todo lo que hay en el búfer
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void vacia() throws IOException{
+    if(ocupados == 0) return;
+    vista.clear();
+    vista.limit(ocupados);
+    salida.append(vista);
+    ocupados = 0;
+  }
+}
@@ -0,0 +1,63 @@
+package mx.unam.ciencias.edd.proyecto3.estructuras_svg;
+import mx.unam.ciencias.edd.*;
+
+/**
+* Clase que identifica un fragmento de SVG ya dibujado: el tipo de estructura, si se escribió
+* en modo compacto y los elementos con los que se construyó, en orden. Muchos archivos tienen
+* las mismas palabras con más apariciones, así que sus árboles son idénticos y el fragmento se
+* puede reutilizar. La dispersión se calcula una vez; la igualdad compara los elementos uno
+* por uno para que dos listas distintas con la misma dispersión no se confundan.
+*/
+public class LlaveFragmento{
+  /* Tipo de estructura */
+  private EstructuraDatos estructura;
+  /* Si el fragmento está en modo compacto */
+  private boolean compacto;
+  /* Elementos de la estructura, en orden */
+  private Object[] elementos;
+  /* Dispersión de la llave */
+  private int dispersion;
+
+  /**
+  * Constructor de la clase LlaveFragmento
+  * @param EstructuraDatos tipo de estructura
+  * @param boolean si el fragmento está en modo compacto
+  * @param Lista<?> elementos de la estructura, en orden
+  */
+  public LlaveFragmento(EstructuraDatos estructura, boolean compacto, Lista<?> elementos){
+    this.estructura = estructura;
+    this.compacto = compacto;
+    this.elementos = new Object[elementos.getLongitud()];
+    int h = 31 * estructura.hashCode() + (compacto ? 1 : 0);
+    int i = 0;
+    for(Object e : elementos){
+      this.elementos[i++] = e;
+      h = 31 * h + e.hashCode();
+    }
+    this.dispersion = h;
+  }
+
+  /**
+  * Dos llaves son iguales si son del mismo tipo de estructura y modo, con elementos iguales
+  * en el mismo orden
+  * @param Object objeto con el que se compara
+  * @return true si son iguales
+  */
+  @Override public boolean equals(Object objeto){
+    if(!(objeto instanceof LlaveFragmento)) return false;
+    LlaveFragmento otra = (LlaveFragmento)objeto;
+    if(dispersion != otra.dispersion || estructura != otra.estructura || compacto != otra.compacto ||
+       elementos.length != otra.elementos.length)
+      return false;
+    for(int i = 0; i < elementos.length; i++)
+      if(!elementos[i].equals(otra.elementos[i])) return false;
+    return true;
+  }
+
+  /**
+  * @return int dispersión de la llave
+  */
+  @Override public int hashCode(){
+    return dispersion;
+  }
+}
@@ -0,0 +1,107 @@
+package mx.unam.ciencias.edd.proyecto3.graficas;
+import mx.unam.ciencias.edd.*;
+import java.util.Arrays;
+import java.util.Iterator;
+/**
+* Clase para ordenar las palabras de un diccionario por sus apariciones, de la de más a la de
+* menos, sin comparaciones: las apariciones son enteros no negativos y casi todas son chicas,
+* así que se ordenan por conteo en tiempo O(n + máximo). Si el máximo es mucho mayor que el
+* número de palabras se ordenan por residuos (radix), byte por byte, para no pedir un arreglo
+* del tamaño del máximo.
+* Los dos ordenamientos son estables: las palabras que empatan quedan en el orden del diccionario.
+*/
+public class ClasificaFrecuencias{
+  /* Bits de cada dígito del ordenamiento por residuos */
+  private static final int BITS = 8;
+  /* Cubetas de cada dígito */
+  private static final int CUBETAS = 1 << BITS;
+
+  /* Constructor privado para que no se pueda instanciar */
+  private ClasificaFrecuencias(){}
+
+  /**
+  * Regresa las palabras del diccionario de la de más apariciones a la de menos
+  * @param Diccionario<String, Integer> palabras con sus apariciones
+  * @return Palabra[] palabras en orden
+  * @throws IllegalArgumentException si alguna palabra tiene apariciones negativas
+  */
+  public static Palabra[] ordena(Diccionario<String, Integer> diccionario){
+    return ordena(diccionario, diccionario.getElementos());
+  }
+
+  /**
+  * Regresa las k palabras del diccionario con más apariciones, de la de más a la de menos; se
+  * ordenan todas pero sólo se crean las k primeras
+  * @param Diccionario<String, Integer> palabras con sus apariciones
+  * @param int número de palabras, a lo más las del diccionario
+  * @return Palabra[] palabras en orden
+  * @throws IllegalArgumentException si k no es válido o alguna palabra tiene apariciones negativas
+  */
+  public static Palabra[] ordena(Diccionario<String, Integer> diccionario, int k){
+    int n = diccionario.getElementos();
+    if(k < 0 || k > n) throw new IllegalArgumentException("Número de palabras inválido: "+k);
+    String[] palabras = new String[n];
+    int[] llaves = new int[n];
+    int maximo = 0;
+    Iterator<String> iteradorLlaves = diccionario.iteradorLlaves();
+    for(int i = 0; i < n; i++){
+      palabras[i] = iteradorLlaves.next();
+      llaves[i] = diccionario.get(palabras[i]);
+      if(llaves[i] < 0)
+        throw new IllegalArgumentException("Apariciones negativas: "+palabras[i]);
+      if(llaves[i] > maximo) maximo = llaves[i];
+    }
+    // La llave es lo que le falta para el máximo, así el orden ascendente es de más a menos
+    for(int i = 0; i < n; i++)
+      llaves[i] = maximo - llaves[i];
+    int[] orden = maximo <= 4 * n + CUBETAS ? porConteo(llaves, maximo) : porResiduos(llaves, maximo);
+    Palabra[] ordenadas = new Palabra[k];
+    for(int i = 0; i < k; i++)
+      ordenadas[i] = new Palabra(palabras[orden[i]], maximo - llaves[orden[i]]);
+    return ordenadas;
+  }
+
+  /* Ordena los índices por su llave, entre 0 y el máximo, con una cubeta por llave. */
+  private static int[] porConteo(int[] llaves, int maximo){
+    int[] cubetas = new int[maximo + 1];
+    for(int llave : llaves)
+      cubetas[llave]++;
+    int inicio = 0;
+    for(int c = 0; c <= maximo; c++){
+      int tamano = cubetas[c];
+      cubetas[c] = inicio;
+      inicio += tamano;
+    }
+    int[] orden = new int[llaves.length];
+    for(int i = 0; i < llaves.length; i++)
+      orden[cubetas[llaves[i]]++] = i;
+    return orden;
+  }
+
+  /* Ordena los índices por su llave, del dígito menos significativo al más significativo. */
+  private static int[] porResiduos(int[] llaves, int maximo){
+    int n = llaves.length;
+    int[] orden = new int[n];
+    int[] auxiliar = new int[n];
+    for(int i = 0; i < n; i++)
+      orden[i] = i;
+    int[] cubetas = new int[CUBETAS];
+    for(int corrimiento = 0; corrimiento < 32 && (maximo >>> corrimiento) != 0; corrimiento += BITS){
+      Arrays.fill(cubetas, 0);
+      for(int i : orden)
+        cubetas[(llaves[i] >>> corrimiento) & (CUBETAS - 1)]++;
+      int inicio = 0;
+      for(int c = 0; c < CUBETAS; c++){
+        int tamano = cubetas[c];
+        cubetas[c] = inicio;
+        inicio += tamano;
+      }
+      for(int i : orden)
+        auxiliar[cubetas[(llaves[i] >>> corrimiento) & (CUBETAS - 1)]++] = i;
+      int[] t = orden;
+      orden = auxiliar;
+      auxiliar = t;
+    }
+    return orden;
+  }
+}
@@ -1,6 +1,7 @@
 package mx.unam.ciencias.edd.proyecto3.graficas;
 import mx.unam.ciencias.edd.*;
 import mx.unam.ciencias.edd.proyecto3.*;
+import mx.unam.ciencias.edd.proyecto3.estructuras_svg.EscritorSVG;
 import java.io.IOException;
 /**
 * Clase para dibujar las gráficas de barras
@@ -32,6 +33,12 @@ public class GraficaBarras{
     }
 
   }
+  /* Estilos del modo compacto */
+  private static final String ESTILO = "<style>.br{stroke:black;stroke-width:1}"+
+    ".bt{text-anchor:middle;font-family:'Fira Mono';font-size:12px;fill:white}.bc{font-size:10px}"+
+    ".bh{font-size:15px;fill:black}</style>\n";
+  /* Colores de las barras */
+  private static final String[] COLORES = {"#FF4F38", "#AF74E8", "#8CDEFF", "#74E875", "#FFE980", "#FFE580", "#B069EB", "#8CDEFF", "#FF5838"};
   /* Lista con los puntos que se graficarán */
   private Lista<Punto> puntos;
   /* Coordenada en X donde iniciará la gŕafica  */
@@ -44,8 +51,6 @@ public class GraficaBarras{
   private int longitudBarras = 800;
   /* Longitud por cuadrado */
   private double longitudXcuadrado = 0;
-  /* String con la representación de la gráfica en SVG*/
-  private String cadena = "<svg width = 900 height = 550 >\n";
 
   /* Método que construye los puntos en la gráfica de acuerdo a los datos  */
   public GraficaBarras(Lista<Palabra> palabras, int totalApariciones){
@@ -76,39 +81,57 @@ public class GraficaBarras{
   * @return String representación en svg de la gráfica de pastel
   */
   public String barras(){
+    StringBuilder cadena = new StringBuilder();
+    try{
+      EscritorSVG svg = new EscritorSVG(cadena);
+      escribeBarras(svg);
+      svg.vacia();
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return cadena.toString();
+  }
+  /**
+  * Método que escribe la representación en svg de la gráfica de barras
+  * @param EscritorSVG svg en donde se escribe la gráfica
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribeBarras(EscritorSVG svg) throws IOException{
+    if(svg.esCompacto()) svg.append("<svg width='900' height='550'>").append(ESTILO);
+    else svg.append("<svg width = 900 height = 550 >\n");
     // Vamos a agregarle el título
-    cadena+=dibujaEncabezado("Reporte de apariciones de palabras (Gráfica de Barras)");
-    cadena+=dibujaCuadrado(inicioX, inicioY+40, alturaBarras, longitudBarras);
-    String cuadrado, etiqueta;
+    dibujaEncabezado(svg, "Reporte de apariciones de palabras (Gráfica de Barras)");
+    dibujaCuadrado(svg, inicioX, inicioY+40, alturaBarras, longitudBarras, "");
     for(Punto punto : puntos){
-      cuadrado= dibujaCuadrado(punto.x, punto.y, punto.height, longitudXcuadrado);
-      etiqueta = dibujaEtiqueta(punto);
-      cadena+=cuadrado+etiqueta;
+      dibujaCuadrado(svg, punto.x, punto.y, punto.height, longitudXcuadrado, punto.dato);
+      dibujaEtiqueta(svg, punto);
     }
-    cadena+="</svg>\n";
-    return cadena;
+    svg.append("</svg>\n");
   }
   /**
   * Método para dibujar un cículo
-  * @return Círculo en Svg
+  * @param EscritorSVG svg en donde se dibuja
+  * @param String dato del que depende el color del cuadrado
   */
-  public String dibujaCuadrado(double x1, double y1, double height, double width){
-    String[] colores = {"#FF4F38", "#AF74E8", "#8CDEFF", "#74E875", "#FFE980", "#FFE580", "#B069EB", "#8CDEFF", "#FF5838"};
-    String color = colores[(int)(Math.random()*colores.length)];
+  public void dibujaCuadrado(EscritorSVG svg, double x1, double y1, double height, double width, String dato) throws IOException{
+    String color = Paleta.color(dato, COLORES);
     double coorY = inicioY-height;
     if(width > longitudXcuadrado) color = "transparent";
-    return "<rect x = '"+x1 +"' y='"+coorY +"'width='"+ width +"' height='"+ height+"' style='fill:"+ color +";stroke-width:1;stroke:black' />";
+    if(svg.esCompacto()){
+      svg.append("<rect class='br' x='").numero(x1).append("' y='").numero(coorY).append("' width='").numero(width)
+         .append("' height='").numero(height).append("' fill='").append(color).append("'/>\n");
+      return;
+    }
+    svg.append("<rect x = '").numero(x1).append("' y='").numero(coorY).append("'width='").numero(width)
+       .append("' height='").numero(height).append("' style='fill:").append(color).append(";stroke-width:1;stroke:black' />");
   }
   /**
   * Método para dibujar la etiqueta del dato
-  * @param String dato
-  * @param double porcentaje
-  * @param double x1
-  * @param double y1
-  * @return representación en svg de la etiqueta del dato
+  * @param EscritorSVG svg en donde se dibuja
+  * @param Punto punto con el dato y su porcentaje
   */
 
-  public String dibujaEtiqueta(Punto punto){
+  public void dibujaEtiqueta(EscritorSVG svg, Punto punto) throws IOException{
     double coorX = punto.x + (longitudXcuadrado)/2;
     double coordY = inicioY-punto.height-10;
     double cY = punto.y + 10;
@@ -117,20 +140,32 @@ public class GraficaBarras{
 	tamano = "10px";
     else
 	tamano = "12px"; 
-    String etiquetaPorcentaje = "<text x= '"+coorX+"' y= '"+coordY+"' text-anchor='middle' fill='white' font-size='12px' font-family='Fira Mono' dy='0.5em'>"+
-    punto.porcentaje + "%"+"</text>\n";
-    return etiquetaPorcentaje+"<text x= '"+coorX+"' y= '"+cY+"' text-anchor='middle' fill='white' font-size='"+tamano+"' font-family='Fira Mono' dy='0.5em'>"+
-    punto.dato+"</text>\n";
+    if(svg.esCompacto()){
+      svg.append("<text class='bt' x='").numero(coorX).append("' y='").numero(coordY).append("' dy='.5em'>")
+         .numero(punto.porcentaje).append("%</text>\n<text class='").append(punto.dato.length() > 10 ? "bt bc" : "bt")
+         .append("' x='").numero(coorX).append("' y='").numero(cY).append("' dy='.5em'>").append(punto.dato).append("</text>\n");
+      return;
+    }
+    svg.append("<text x= '").numero(coorX).append("' y= '").numero(coordY)
+       .append("' text-anchor='middle' fill='white' font-size='12px' font-family='Fira Mono' dy='0.5em'>")
+       .numero(punto.porcentaje).append("%</text>\n");
+    svg.append("<text x= '").numero(coorX).append("' y= '").numero(cY).append("' text-anchor='middle' fill='white' font-size='")
+       .append(tamano).append("' font-family='Fira Mono' dy='0.5em'>").append(punto.dato).append("</text>\n");
   }
   /**
   * Método para dibujar encabezado
-  * @param String títul o
-  * @param String representación en svg del título
+  * @param EscritorSVG svg en donde se dibuja
+  * @param String título
   */
-  public String dibujaEncabezado(String tit){
+  public void dibujaEncabezado(EscritorSVG svg, String tit) throws IOException{
     double coordY = inicioY - alturaBarras-20;
     double coordX = inicioX + longitudBarras / 2;
-    return "<text x= '"+coordX+"' y= '"+coordY+"' text-anchor='middle' fill='black' font-size='15px' font-family='Fira Mono' dy='0.5em'>"+
-    tit+"</text>\n";
+    if(svg.esCompacto()){
+      svg.append("<text class='bt bh' x='").numero(coordX).append("' y='").numero(coordY).append("' dy='.5em'>")
+         .append(tit).append("</text>\n");
+      return;
+    }
+    svg.append("<text x= '").numero(coordX).append("' y= '").numero(coordY)
+       .append("' text-anchor='middle' fill='black' font-size='15px' font-family='Fira Mono' dy='0.5em'>").append(tit).append("</text>\n");
   }
 }
@@ -1,6 +1,7 @@
 package mx.unam.ciencias.edd.proyecto3.graficas;
 import mx.unam.ciencias.edd.*;
 import mx.unam.ciencias.edd.proyecto3.*;
+import mx.unam.ciencias.edd.proyecto3.estructuras_svg.EscritorSVG;
 import java.io.IOException;
 /**
 * Clase para dibujar las gráficas de pastel
@@ -21,19 +22,28 @@ public class GraficaPastel{
     double x_etiqueta;
     /* Coordenada en y para la etiqueta */
     double y_etiqueta;
+    /* Ángulo (en grados) en el que termina la rebanada */
+    double angulo;
     /* Constructor de la clase Punto */
-    public Punto(double x, double y, String dato, double porcentaje, double xe, double ye){
+    public Punto(double x, double y, String dato, double porcentaje, double xe, double ye, double angulo){
       this.x = x;
       this.y = y;
       this.dato = dato;
       this.porcentaje = porcentaje;
       this.x_etiqueta = xe;
       this.y_etiqueta = ye;
+      this.angulo = angulo;
     }
     public String toString(){
       return dato;
     }
   }
+  /* Estilos del modo compacto */
+  private static final String ESTILO = "<style>.pr{fill:#006CA8;stroke:white;stroke-width:1}"+
+    ".pb{fill:none;stroke:red;stroke-width:3}.pt{text-anchor:middle;font-family:'Fira Mono';font-size:15px}"+
+    ".pc{font-size:10px}.ph{fill:white}</style>\n";
+  /* Colores de las etiquetas */
+  private static final String[] COLORES = {"orange", "#ECFF14","#FA4BEA", "#46FA5B", "pink", "white","#D2F2FF"};
   /* Lista con los puntos que se graficarán */
   private Lista<Punto> puntos;
   /* Centro trasladado en X */
@@ -42,8 +52,6 @@ public class GraficaPastel{
   private int nuevoCentroY = 270;
   /* Radio de la Circunferencia */
   private int radio = 200;
-  /* String con la representación de la gráfica en SVG*/
-  private String cadena = "<?xml    version = \'1.0\' encoding = \'utf-8\' ?>\n<svg width = 590 height = 560 >\n";
 
   /* Método que construye los puntos en la gráfica de acuerdo a los datos  */
   public GraficaPastel(Lista<Palabra> palabras, int totalApariciones){
@@ -63,7 +71,7 @@ public class GraficaPastel{
       xe = radio * Math.cos(Math.toRadians(angulo_etiqueta)) + nuevoCentroX;
       ye = radio * Math.sin(Math.toRadians(angulo_etiqueta)) + nuevoCentroY;
       porcentaje = ((float)palabra.getApariciones()/(float)totalApariciones) * 100;
-      puntos.agrega(new Punto(x, y, palabra.getPalabra(), Math.floor(porcentaje), xe, ye)); 
+      puntos.agrega(new Punto(x, y, palabra.getPalabra(), Math.floor(porcentaje), xe, ye, angulo));
       angulo_pasado = angulo;
     }
   }
@@ -75,67 +83,133 @@ public class GraficaPastel{
   * @return String representación en svg de la gráfica de pastel
   */
   public String pastel(){
-    String linea, etiqueta;
+    StringBuilder cadena = new StringBuilder();
+    try{
+      EscritorSVG svg = new EscritorSVG(cadena);
+      escribePastel(svg);
+      svg.vacia();
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return cadena.toString();
+  }
+  /**
+  * Método que escribe la representación en svg de la gráfica de pastel
+  * @param EscritorSVG svg en donde se escribe la gráfica
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribePastel(EscritorSVG svg) throws IOException{
+    if(svg.esCompacto()){
+      escribePastelCompacto(svg);
+      return;
+    }
     int i = 0;
-    cadena+=dibujaEncabezado("Reporte de apariciones de palabras (Gráfica de Pastel)");
-    cadena+=dibujaCirculo();
+    svg.append("<?xml    version = \'1.0\' encoding = \'utf-8\' ?>\n<svg width = 590 height = 560 >\n");
+    dibujaEncabezado(svg, "Reporte de apariciones de palabras (Gráfica de Pastel)");
+    dibujaCirculo(svg);
     for(Punto punto : puntos){
-      linea= dibujaLinea(punto.x, punto.y);
-      etiqueta = dibujaEtiqueta(punto.dato, punto.porcentaje, punto.x_etiqueta, punto.y_etiqueta, i++);
-      if(punto.porcentaje > 0)
-         cadena+=linea+etiqueta;
+      if(punto.porcentaje > 0){
+        dibujaLinea(svg, punto.x, punto.y);
+        dibujaEtiqueta(svg, punto.dato, punto.porcentaje, punto.x_etiqueta, punto.y_etiqueta, i);
+      }
+      i++;
     }
-    cadena+=dibujaLinea(nuevoCentroX+radio, nuevoCentroY);
-    cadena+="\n</svg>\n";
-    return cadena;
+    dibujaLinea(svg, nuevoCentroX+radio, nuevoCentroY);
+    svg.append("\n</svg>\n");
+  }
+  /**
+  * Método que escribe la gráfica de pastel en modo compacto: cada rebanada es un solo arco
+  * &lt;path&gt; y los estilos son clases de CSS. Las rebanadas se cortan en los mismos ángulos
+  * en los que la gráfica normal dibuja sus líneas.
+  * @param EscritorSVG svg en donde se escribe la gráfica
+  * @throws IOException si no se puede escribir en la salida
+  */
+  private void escribePastelCompacto(EscritorSVG svg) throws IOException{
+    svg.append("<svg width='590' height='560'>").append(ESTILO);
+    svg.append("<text class='pt ph' x='").numero(nuevoCentroX).append("' y='").numero(nuevoCentroY-radio-50)
+       .append("' dy='.5em'>Reporte de apariciones de palabras (Gráfica de Pastel)</text>\n");
+    double inicio = 0;
+    for(Punto punto : puntos)
+      if(punto.porcentaje > 0 && punto.angulo > inicio && punto.angulo < 360){
+        dibujaRebanada(svg, inicio, punto.angulo);
+        inicio = punto.angulo;
+      }
+    if(inicio == 0)
+      svg.append("<circle class='pr' cx='").numero(nuevoCentroX).append("' cy='").numero(nuevoCentroY)
+         .append("' r='").numero(radio).append("'/>\n");
+    else
+      dibujaRebanada(svg, inicio, 360);
+    svg.append("<circle class='pb' cx='").numero(nuevoCentroX).append("' cy='").numero(nuevoCentroY)
+       .append("' r='").numero(radio).append("'/>\n");
+    int i = 0;
+    for(Punto punto : puntos){
+      if(punto.porcentaje > 0){
+        double y = punto.y_etiqueta + (i % 2 == 0 ? -20 : 20);
+        svg.append("<text class='").append(punto.dato.length() > 9 ? "pt pc" : "pt").append("' x='").numero(punto.x_etiqueta)
+           .append("' y='").numero(y).append("' fill='").append(Paleta.color(punto.dato, COLORES)).append("' dy='.3em'>")
+           .append(punto.dato).append(' ').numero((long)punto.porcentaje).append("%</text>\n");
+      }
+      i++;
+    }
+    svg.append("</svg>\n");
+  }
+  /* Dibuja la rebanada entre dos ángulos (en grados) como un arco. */
+  private void dibujaRebanada(EscritorSVG svg, double desde, double hasta) throws IOException{
+    double a = Math.toRadians(desde), b = Math.toRadians(hasta);
+    svg.append("<path class='pr' d='M").numero(nuevoCentroX).append(',').numero(nuevoCentroY)
+       .append('L').numero(nuevoCentroX + radio * Math.cos(a)).append(',').numero(nuevoCentroY + radio * Math.sin(a))
+       .append('A').numero(radio).append(',').numero(radio).append(" 0 ").append(hasta - desde > 180 ? '1' : '0').append(",1 ")
+       .numero(nuevoCentroX + radio * Math.cos(b)).append(',').numero(nuevoCentroY + radio * Math.sin(b)).append("Z'/>\n");
   }
   /**
   * Método para dibujar una línea en svg
+  * @param EscritorSVG svg en donde se dibuja
   * @param double x1
   * @param double y1
-  * @return Representación en SVG de una línea
   */
-  public String dibujaLinea(double x1, double y1){
-    return "<line x1='"+x1+"' y1='"+y1+"' x2= '"+nuevoCentroX+"' y2='" + nuevoCentroY +"' style='stroke:white; stroke-width:1'></line>\n";
+  public void dibujaLinea(EscritorSVG svg, double x1, double y1) throws IOException{
+    svg.append("<line x1='").numero(x1).append("' y1='").numero(y1).append("' x2= '").numero(nuevoCentroX)
+       .append("' y2='").numero(nuevoCentroY).append("' style='stroke:white; stroke-width:1'></line>\n");
   }
   /**
   * Método para dibujar un cículo
-  * @return Círculo en Svg
+  * @param EscritorSVG svg en donde se dibuja
   */
-  public String dibujaCirculo(){
-    return "<circle cx="+ nuevoCentroX +" cy="+ nuevoCentroY +" r="+ radio +" stroke='red' stroke-width='3' fill='#006CA8' />\n";
+  public void dibujaCirculo(EscritorSVG svg) throws IOException{
+    svg.append("<circle cx=").numero(nuevoCentroX).append(" cy=").numero(nuevoCentroY).append(" r=").numero(radio)
+       .append(" stroke='red' stroke-width='3' fill='#006CA8' />\n");
   }
   /**
   * Método para dibujar la etiqueta del dato
+  * @param EscritorSVG svg en donde se dibuja
   * @param String dato
   * @param double porcentaje
   * @param double x1
   * @param double y1
-  * @return representación en svg de la etiqueta del dato
   */
 
-  public String dibujaEtiqueta(String dato, double porcentaje, double x1, double y1, int i){
+  public void dibujaEtiqueta(EscritorSVG svg, String dato, double porcentaje, double x1, double y1, int i) throws IOException{
     if(i % 2 == 0) y1-=20;
     else y1+=20;
-    String[] colores = {"orange", "#ECFF14","#FA4BEA", "#46FA5B", "pink", "white","#D2F2FF"};
-    String color = colores[(int)(Math.random()*colores.length)];
+    String color = Paleta.color(dato, COLORES);
     String tamanio;
     if(dato.length() > 9)
 	tamanio = "10px";
     else
 	tamanio = "15px"; 
-    return "<text x= '"+x1+"' y= '"+y1+"' text-anchor='middle' fill='"+ color +"' font-size='"+tamanio+"' font-family='Fira Mono' dy='.3em'>"+
-    dato+ " "+(int)porcentaje+"% "+"</text>\n";
+    svg.append("<text x= '").numero(x1).append("' y= '").numero(y1).append("' text-anchor='middle' fill='").append(color)
+       .append("' font-size='").append(tamanio).append("' font-family='Fira Mono' dy='.3em'>")
+       .append(dato).append(' ').numero((long)porcentaje).append("% </text>\n");
   }
   /**
   * Método para dibujar encabezado
+  * @param EscritorSVG svg en donde se dibuja
   * @param String título
-  * @param String representación en svg del título
   */
-  public String dibujaEncabezado(String tit){
+  public void dibujaEncabezado(EscritorSVG svg, String tit) throws IOException{
     double coordY = nuevoCentroY-radio-50;
     double coordX = nuevoCentroX;
-    return "<text x= '"+coordX+"' y= '"+coordY+"' text-anchor='middle' fill='white' font-size='15px' font-family='Fira Mono' dy='0.5em'>"+
-    tit+"</text>\n";
+    svg.append("<text x= '").numero(coordX).append("' y= '").numero(coordY)
+       .append("' text-anchor='middle' fill='white' font-size='15px' font-family='Fira Mono' dy='0.5em'>").append(tit).append("</text>\n");
   }
 }
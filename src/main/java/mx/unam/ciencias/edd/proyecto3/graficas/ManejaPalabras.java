@@ -8,42 +8,217 @@ import java.util.Iterator;
 * Clase para manejar las palabras que se ingresen y de ahí mandarlas a graficar en barras o en pastel
 */
 public class ManejaPalabras{
+  /* Inicio de la página, hasta antes de las gráficas */
+  private static final Plantilla ENCABEZADO = new Plantilla("<!DOCTYPE html>\n<html lang='en'>\n<title>Archivo</title>\n<meta charset='UTF-8'>\n"+
+    "\n<link rel='stylesheet' href='https://www.w3schools.com/w3css/4/w3.css'>"+
+    "\n<link rel='stylesheet' href='https://fonts.googleapis.com/css?family=Lato'>"+
+    "\n<link rel='stylesheet' href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/4.7.0/css/font-awesome.min.css'>"+
+    "\n<body>\n<div class='w3-container w3-display-container w3-padding-16'>\n<h3 class='w3-wide'><b>Estructuras de Datos</b></h3>\n</div>"+
+    "\n<div class='w3-content' style='max-width:2000px;'><div class='w3-container w3-content w3-center w3-padding-64' style='max-width:1000px' id='band'>"+
+    "\n<h2 class='w3-wide'><a href='");
+  /* Resto del inicio de la página, después del enlace al index */
+  private static final Plantilla ENCABEZADO_GRAFICAS = new Plantilla("'>Analizador de Palabras</a></h2>\n<p class='w3-opacity'><i>Ciencias de la Computación: Estructuras de Datos</i></p>\n"+
+    "\n<br><div style = 'display: table-cell'>\n"+
+    "\n</ol>\n</div>\n<div class='w3-black' id='tour'>\n<div class='w3-container w3-content w3-padding-64' style='max-width:800px'>"+
+    "\n<h2 class='w3-wide w3-center'>Porcentaje de apariciones: las palabras con mayor frecuencia</h2>"+
+    "\n<p class='w3-opacity w3-center'><i>A continuación se presentan los análisis graficados</i></p><br>");
+  /* Fragmento entre las gráficas y la lista de palabras */
+  private static final Plantilla LISTA_PALABRAS = new Plantilla("\n</div></div></div>"+
+    "<div style='margin-left: 20px; margin-bottom: 30px; margin-right: 20px; border: 3px font-family: Garamond'> Lista de palabras: ");
+  /* Cierre de la página */
+  private static final Plantilla CIERRE = new Plantilla("<br><br></div></body></html>");
+  /* Inicio de una página de la lista de palabras, hasta antes del enlace a la página del archivo */
+  private static final Plantilla ENCABEZADO_LISTA = new Plantilla("<!DOCTYPE html>\n<html lang='en'>\n<title>Lista de palabras</title>\n<meta charset='UTF-8'>\n"+
+    "\n<link rel='stylesheet' href='https://www.w3schools.com/w3css/4/w3.css'>"+
+    "\n<body>\n<div class='w3-container w3-padding-16'>\n<h3 class='w3-wide'><a href='");
+  /* Número de palabras por omisión en cada página de la lista */
+  public static final int PALABRAS_POR_PAGINA = 1000;
+  /* Candidata a estar entre las palabras con más apariciones, para el montículo */
+  private static class Candidata implements ComparableIndexable<Candidata>{
+    /* Palabra */
+    String palabra;
+    /* Apariciones de la palabra */
+    int apariciones;
+    /* Posición de la palabra en el diccionario, para desempatar */
+    int orden;
+    /* Índice en el montículo */
+    int indice = -1;
+
+    /* Crea una candidata. */
+    Candidata(String palabra, int apariciones, int orden){
+      this.palabra = palabra;
+      this.apariciones = apariciones;
+      this.orden = orden;
+    }
+
+    /* Regresa el índice. */
+    @Override public int getIndice(){
+      return indice;
+    }
+
+    /* Define el índice. */
+    @Override public void setIndice(int indice){
+      this.indice = indice;
+    }
+
+    /* Es menor la de menos apariciones; si empatan, la que va después en el diccionario. */
+    @Override public int compareTo(Candidata candidata){
+      return compara(apariciones, orden, candidata.apariciones, candidata.orden);
+    }
+
+    /* Compara dos candidatas dadas por sus apariciones y su orden. */
+    static int compara(int apariciones1, int orden1, int apariciones2, int orden2){
+      if(apariciones1 != apariciones2) return apariciones1 < apariciones2 ? -1 : 1;
+      return Integer.compare(orden2, orden1);
+    }
+  }
+
   /* Lista con las palabras */
   private Lista<Palabra> palabras;
+  /* Diccionario con las palabras, para elegir las de los árboles si no están en el listado */
+  private Diccionario<String, Integer> diccionario;
   /* total de palabras (equivalente al tamaño del diccionario )*/
   private int total_palabras;
   /* total de apariciones de todas las palabras */
   private int apariciones_total;
   /* Variable que nos indica el porcentaje de palabras que se tomará sobre el total para graficar */
   int porcentajeDePalabras;
+  /* Nombre de la página del index a la que regresa el enlace del encabezado */
+  private String indice = "index.html";
+  /* Número máximo de palabras en los árboles; 0 para todas */
+  private int palabrasArbol = 15;
+  /* Palabras que se listan (el porcentaje con más apariciones), en orden */
+  private Palabra[] listado;
+  /* Número de palabras en cada página de la lista; la primera va en la página del archivo */
+  private int palabrasPorPagina = PALABRAS_POR_PAGINA;
+  /* Página del archivo, a la que regresan las páginas de la lista */
+  private String paginaArchivo = "";
+  /* Árboles ya dibujados que se pueden reutilizar; null si no se guardan */
+  private CacheLRU<LlaveFragmento, String> fragmentos;
+  /* Si los dibujos se escriben en modo compacto */
+  private boolean svgCompacto;
+  /* Nombre de las páginas de la lista: prefijo, número de página y sufijo */
+  private String prefijoLista = "palabras";
+  private String sufijoLista = ".html";
   /** Constructor de la clase que recibe datos para graficarlos
   *  @param Diccionario<String, Integer> diccionario con las palabras
   *  @param int porcentaje de palabras que se graficará
   */
   public ManejaPalabras(Diccionario<String, Integer> diccionario, int porcentaje){
     porcentajeDePalabras = porcentaje;
-    Lista<Palabra> palabrasTotales = new Lista<>();
+    this.diccionario = diccionario;
     palabras  = new Lista<>();
     // Iteramos sobre las llaves del diccionario para obtener las apariciones por palabra
     Iterator<String> iteradorLlaves = diccionario.iteradorLlaves();
-    while (iteradorLlaves.hasNext()) {
-        String s = iteradorLlaves.next();
-        apariciones_total+=diccionario.get(s);  // PORCENTAJE ABSOLUTO ALL 100% DE LAS APARICIONES
-        palabrasTotales.agrega(new Palabra(s, diccionario.get(s)));
-    }
+    while (iteradorLlaves.hasNext())
+        apariciones_total+=diccionario.get(iteradorLlaves.next());  // PORCENTAJE ABSOLUTO ALL 100% DE LAS APARICIONES
     total_palabras = diccionario.getElementos();
-    /* Ordenamos la lista de palabras de acuerdo a las apariciones que tienen para facilitar su gráfica */
-    palabrasTotales = palabrasTotales.mergeSort((a, b) -> b.compareTo(a));
     // Aquí tengo que determinar un corte (N% de las palabras que utilizaremos)
     int corte_palabras = (diccionario.getElementos() > 20) ? (int)Math.ceil((diccionario.getElementos() * porcentajeDePalabras) / 100) : diccionario.getElementos();
-    Iterator<Palabra> iterador = palabrasTotales.iterator();
-    int i = 0;
-    while(iterador.hasNext() && i < corte_palabras){
-      Palabra pal = iterador.next();
-      //apariciones_total+=pal.getApariciones(); // PORCENTAJE RELATIVO AL 15% DE LAS APARICIONES
+    /* Sólo se ordenan las palabras del corte, de la de más apariciones a la de menos */
+    listado = mayores(Math.min(corte_palabras, total_palabras));
+    for(Palabra pal : listado)
       palabras.agrega(pal);
-      i++;
+  }
+  /**
+  * Regresa las k palabras con más apariciones del diccionario, de la de más a la de menos; las
+  * que empatan quedan en el orden del diccionario. Si son pocas se recorre el diccionario una
+  * vez con un montículo mínimo de a lo más k candidatas, cuya raíz es la menor de las elegidas,
+  * así que toma tiempo O(n log k) y sólo se crean O(k) objetos; si son muchas (por ejemplo,
+  * todas) se ordenan por sus apariciones con {@link ClasificaFrecuencias}, sin comparaciones
+  * @param int número de palabras
+  * @return Palabra[] palabras con más apariciones, en orden
+  */
+  private Palabra[] mayores(int k){
+    if(k > total_palabras / 4) return ClasificaFrecuencias.ordena(diccionario, k);
+    Palabra[] mayores = new Palabra[k];
+    if(k == 0) return mayores;
+    MonticuloMinimo<Candidata> monticulo = new MonticuloMinimo<>();
+    Iterator<String> iteradorLlaves = diccionario.iteradorLlaves();
+    int orden = 0;
+    while(iteradorLlaves.hasNext()){
+      String s = iteradorLlaves.next();
+      int apariciones = diccionario.get(s);
+      if(monticulo.getElementos() < k){
+        monticulo.agrega(new Candidata(s, apariciones, orden++));
+        continue;
+      }
+      // Si supera a la menor de las elegidas, la reemplaza
+      Candidata menor = monticulo.get(0);
+      if(Candidata.compara(apariciones, orden, menor.apariciones, menor.orden) > 0){
+        menor.palabra = s;
+        menor.apariciones = apariciones;
+        menor.orden = orden;
+        monticulo.reordena(menor);
+      }
+      orden++;
     }
+    for(int i = monticulo.getElementos() - 1; i >= 0; i--){
+      Candidata c = monticulo.elimina();
+      mayores[i] = new Palabra(c.palabra, c.apariciones);
+    }
+    return mayores;
+  }
+  /**
+  * Método para definir cuántas palabras se listan en cada página; la primera página va al
+  * final de la página del archivo y las demás en páginas aparte, con
+  * {@link #escribePaginaPalabras(int, Appendable)}
+  * @param int número de palabras por página
+  */
+  public void setPalabrasPorPagina(int palabrasPorPagina){
+    if(palabrasPorPagina < 1) throw new IllegalArgumentException("Número de palabras inválido: "+palabrasPorPagina);
+    this.palabrasPorPagina = palabrasPorPagina;
+  }
+  /**
+  * Método para definir los nombres de las páginas de la lista de palabras; el de la página k
+  * es prefijo + k + sufijo
+  * @param String página del archivo, a la que regresan
+  * @param String prefijo del nombre
+  * @param String sufijo del nombre
+  */
+  public void setPaginasPalabras(String paginaArchivo, String prefijo, String sufijo){
+    this.paginaArchivo = paginaArchivo;
+    this.prefijoLista = prefijo;
+    this.sufijoLista = sufijo;
+  }
+  /**
+  * Regresa el número de páginas de la lista de palabras, contando la que va en la página
+  * del archivo
+  * @return int número de páginas
+  */
+  public int getPaginasPalabras(){
+    return Math.max(1, (listado.length + palabrasPorPagina - 1) / palabrasPorPagina);
+  }
+  /**
+  * Método para definir cuántas de las palabras con más apariciones se dibujan en los árboles
+  * @param int número máximo de palabras; 0 para todas las del archivo
+  */
+  public void setPalabrasArbol(int palabrasArbol){
+    if(palabrasArbol < 0) throw new IllegalArgumentException("Número de palabras inválido: "+palabrasArbol);
+    this.palabrasArbol = palabrasArbol;
+  }
+  /**
+  * Método para definir en dónde se guardan los árboles ya dibujados, para reutilizarlos en
+  * las páginas de otros archivos con las mismas palabras
+  * @param CacheLRU<LlaveFragmento, String> fragmentos; null para dibujar siempre
+  */
+  public void setFragmentos(CacheLRU<LlaveFragmento, String> fragmentos){
+    this.fragmentos = fragmentos;
+  }
+  /**
+  * Método para definir si las gráficas y los árboles se escriben en SVG compacto (clases de
+  * CSS, arcos para las rebanadas del pastel y menos decimales)
+  * @param boolean true para el modo compacto
+  */
+  public void setSVGCompacto(boolean svgCompacto){
+    this.svgCompacto = svgCompacto;
+  }
+  /**
+  * Método para definir la página del index a la que regresa el enlace del encabezado
+  * @param String nombre de la página del index
+  */
+  public void setIndice(String indice){
+    this.indice = indice;
   }
   /** Método que imprime la gráfica de pastel
   * @return Representación en cadena (svg) de la gráfica de pastel
@@ -67,16 +242,7 @@ public class ManejaPalabras{
   */
   public String obtieneRojinegro(){
     if(palabras == null || palabras.getLongitud() == 0) return "";
-    // Tengo que generar la lista de mayores apariciones
-    Lista<Palabra> mayoresApariciones = new Lista<>();
-    Iterator<Palabra> iterador = palabras.iterator();
-    int i = 0;
-    while(iterador.hasNext() && i < 15){
-      Palabra pal = iterador.next();
-      mayoresApariciones.agrega(pal);
-      i++;
-    }
-    DibujaArbol ar = new DibujaArbol(mayoresApariciones);
+    DibujaArbol<Palabra> ar = new DibujaArbol<>(mayoresApariciones());
     return ar.dibujaArbol(EstructuraDatos.ARBOLROJINEGRO);
   }
   /**
@@ -86,54 +252,122 @@ public class ManejaPalabras{
   */
   public String obtieneAVL(){
     if(palabras == null || palabras.getLongitud() == 0) return "";
-    // Tengo que generar la lista de mayores apariciones
-    Lista<Palabra> mayoresApariciones = new Lista<>();
-    Iterator<Palabra> iterador = palabras.iterator();
-    int i = 0;
-    while(iterador.hasNext() && i < 15){
-      Palabra pal = iterador.next();
-      mayoresApariciones.agrega(pal);
-      i++;
-    }
-    DibujaArbol ab = new DibujaArbol(mayoresApariciones);
+    DibujaArbol<Palabra> ab = new DibujaArbol<>(mayoresApariciones());
     return ab.dibujaArbol(EstructuraDatos.ARBOLAVL);
   }
   /**
+  * Método que escribe la representación en svg de un árbol con las palabras de mayores apariciones
+  * @param EscritorSVG svg en donde se dibuja
+  * @param EstructuraDatos tipo de árbol
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribeArbol(EscritorSVG svg, EstructuraDatos estructura) throws IOException{
+    if(palabras == null || palabras.getLongitud() == 0) return;
+    DibujaArbol<Palabra> dibujo = new DibujaArbol<>(mayoresApariciones());
+    dibujo.setFragmentos(fragmentos);
+    dibujo.escribeArbol(svg, estructura);
+  }
+  /* Regresa las (a lo más palabrasArbol) palabras con más apariciones */
+  private Lista<Palabra> mayoresApariciones(){
+    int k = palabrasArbol == 0 ? total_palabras : Math.min(palabrasArbol, total_palabras);
+    // Normalmente son las primeras del listado; si no, se eligen del diccionario
+    Palabra[] elegidas = k <= listado.length ? listado : mayores(k);
+    Lista<Palabra> mayoresApariciones = new Lista<>();
+    for(int i = 0; i < k; i++)
+      mayoresApariciones.agrega(elegidas[i]);
+    return mayoresApariciones;
+  }
+  /**
   * Método que genera el archivo html en cadena String
   * @return String representación en cadena del reporte en html
   */
   public String generaHTML(){
-    String ap = "<!DOCTYPE html>\n<html lang='en'>\n<title>Archivo</title>\n<meta charset='UTF-8'>\n"+
-    "\n<link rel='stylesheet' href='https://www.w3schools.com/w3css/4/w3.css'>"+
-    "\n<link rel='stylesheet' href='https://fonts.googleapis.com/css?family=Lato'>"+
-    "\n<link rel='stylesheet' href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/4.7.0/css/font-awesome.min.css'>"+
-    "\n<body>\n<div class='w3-container w3-display-container w3-padding-16'>\n<h3 class='w3-wide'><b>Estructuras de Datos</b></h3>\n</div>"+
-    "\n<div class='w3-content' style='max-width:2000px;'><div class='w3-container w3-content w3-center w3-padding-64' style='max-width:1000px' id='band'>"+
-    "\n<h2 class='w3-wide'><a href='index.html'>Analizador de Palabras</a></h2>\n<p class='w3-opacity'><i>Ciencias de la Computación: Estructuras de Datos</i></p>\n";
-
-    ap+= "\n<br><div style = 'display: table-cell'>\n";
-    ap+="\n</ol>\n</div>\n<div class='w3-black' id='tour'>\n<div class='w3-container w3-content w3-padding-64' style='max-width:800px'>"+
-    "\n<h2 class='w3-wide w3-center'>Porcentaje de apariciones: las palabras con mayor frecuencia</h2>"+
-    "\n<p class='w3-opacity w3-center'><i>A continuación se presentan los análisis graficados</i></p><br>";
-    ap+=imprimePastel();
-    ap+="\n<h2 class='w3-wide w3-center'>Gráfica de Barras</h2>";
-    ap+=imprimeBarras();
-    ap+="\n<h2 class='w3-wide w3-center'>Árbol Autobalanceable (AVL)</h2>";
-    ap+=obtieneAVL();
-    ap+="\n<h2 class='w3-wide w3-center'>Árbol Rojinegro</h2>";
-    ap+=obtieneRojinegro();
-    ap+="\n</div></div></div>";
-    ap+="<div style='margin-left: 20px; margin-bottom: 30px; margin-right: 20px; border: 3px font-family: Garamond'> Lista de palabras: "+ imprimePalabras()+"<br><br></div></body></html>";
-    return ap;
+    StringBuilder ap = new StringBuilder();
+    try{
+      escribeHTML(ap);
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return ap.toString();
+  }
+  /**
+  * Método que escribe el reporte en html conforme se va generando
+  * @param Appendable salida en donde se escribe el reporte
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribeHTML(Appendable ap) throws IOException{
+    ENCABEZADO.escribe(ap);
+    ap.append(indice);
+    ENCABEZADO_GRAFICAS.escribe(ap);
+    EscritorSVG svg = new EscritorSVG(ap, svgCompacto);
+    new GraficaPastel(palabras, apariciones_total).escribePastel(svg);
+    svg.append("\n<h2 class='w3-wide w3-center'>Gráfica de Barras</h2>");
+    new GraficaBarras(palabras, apariciones_total).escribeBarras(svg);
+    svg.append("\n<h2 class='w3-wide w3-center'>Árbol Autobalanceable (AVL)</h2>");
+    escribeArbol(svg, EstructuraDatos.ARBOLAVL);
+    svg.append("\n<h2 class='w3-wide w3-center'>Árbol Rojinegro</h2>");
+    escribeArbol(svg, EstructuraDatos.ARBOLROJINEGRO);
+    svg.vacia();
+    LISTA_PALABRAS.escribe(ap);
+    escribePalabras(ap);
+    CIERRE.escribe(ap);
   }
   /**
   * Método para imprimir las palabras con las apariciones que cada una tiene:
   * @return String
   */
   public  String imprimePalabras(){
-    String res = "";
-    for(Palabra palabra : palabras)
-      res+= palabra.toString_info()+", ";
-    return res; 
+    StringBuilder res = new StringBuilder();
+    try{
+      escribePalabras(res);
+    }catch(IOException e){
+      // StringBuilder no lanza IOException
+    }
+    return res.toString();
+  }
+  /**
+  * Método para escribir las palabras con las apariciones que cada una tiene
+  * @param Appendable salida en donde se escriben las palabras
+  * @throws IOException si no se puede escribir en la salida
+  */
+  public void escribePalabras(Appendable res) throws IOException{
+    escribePalabras(res, 0);
+    int paginas = getPaginasPalabras();
+    if(paginas == 1) return;
+    res.append("<br><br>Más palabras:");
+    for(int k = 1; k < paginas; k++)
+      res.append(" <a href='").append(prefijoLista).append(String.valueOf(k)).append(sufijoLista).append("'>")
+         .append(String.valueOf(k + 1)).append("</a>");
+  }
+  /* Escribe las palabras de una página de la lista. */
+  private void escribePalabras(Appendable res, int pagina) throws IOException{
+    int fin = Math.min(listado.length, (pagina + 1) * palabrasPorPagina);
+    for(int i = pagina * palabrasPorPagina; i < fin; i++)
+      res.append(listado[i].toString_info()).append(", ");
+  }
+  /**
+  * Método que escribe una de las páginas aparte de la lista de palabras, con enlaces a la
+  * anterior y a la siguiente
+  * @param int número de página, de 1 a getPaginasPalabras() - 1
+  * @param Appendable salida en donde se escribe la página
+  * @throws IOException si no se puede escribir en la salida
+  * @throws ExcepcionIndiceInvalido si no existe la página
+  */
+  public void escribePaginaPalabras(int pagina, Appendable res) throws IOException{
+    if(pagina < 1 || pagina >= getPaginasPalabras())
+      throw new ExcepcionIndiceInvalido("No existe la página de palabras: "+pagina);
+    ENCABEZADO_LISTA.escribe(res);
+    res.append(paginaArchivo).append("'>Lista de palabras</a> (").append(String.valueOf(pagina * palabrasPorPagina + 1))
+       .append(" a ").append(String.valueOf(Math.min(listado.length, (pagina + 1) * palabrasPorPagina))).append(" de ")
+       .append(String.valueOf(listado.length)).append(")</h3>\n<p>");
+    escribePalabras(res, pagina);
+    res.append("</p>\n<p>");
+    if(pagina > 1)
+      res.append("<a href='").append(prefijoLista).append(String.valueOf(pagina - 1)).append(sufijoLista).append("'>Anterior</a> ");
+    else
+      res.append("<a href='").append(paginaArchivo).append("'>Anterior</a> ");
+    if(pagina + 1 < getPaginasPalabras())
+      res.append("<a href='").append(prefijoLista).append(String.valueOf(pagina + 1)).append(sufijoLista).append("'>Siguiente</a>");
+    res.append("</p>\n</div></body></html>");
   }
 }
@@ -23,7 +23,7 @@ public class Palabra implements Comparable<Palabra>{
   * @return String
   */
   @Override public String toString(){
-    return String.format("%s", palabra);
+    return palabra;
   }
   /**
   * @return String
@@ -31,6 +31,22 @@ public class Palabra implements Comparable<Palabra>{
   public String toString_info(){
     return String.format("  '%s' con %d apariciones  ", palabra, apariciones);
   }
+  /**
+  * Dos palabras son iguales si son la misma palabra con las mismas apariciones
+  * @param Object objeto con el que se compara
+  * @return true si son iguales
+  */
+  @Override public boolean equals(Object objeto){
+    if(!(objeto instanceof Palabra)) return false;
+    Palabra otra = (Palabra)objeto;
+    return apariciones == otra.apariciones && palabra.equals(otra.palabra);
+  }
+  /**
+  * @return int dispersión de la palabra y sus apariciones
+  */
+  @Override public int hashCode(){
+    return 31 * palabra.hashCode() + apariciones;
+  }
   /* Método para comparar dos palabras (de acuerdo a su número de apariciones )*/
   @Override
   public int compareTo(Palabra palabra){
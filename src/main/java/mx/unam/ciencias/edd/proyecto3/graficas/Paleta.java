@@ -0,0 +1,21 @@
+package mx.unam.ciencias.edd.proyecto3.graficas;
+import mx.unam.ciencias.edd.Dispersores;
+import java.nio.charset.StandardCharsets;
+/**
+* Clase para elegir el color con el que se dibuja una palabra. El color depende sólo de la
+* palabra (de su dispersión), así que los mismos datos siempre producen las mismas gráficas.
+*/
+public class Paleta{
+  /* Constructor privado para que no se pueda instanciar */
+  private Paleta(){}
+  /**
+  * Método que elige el color de una palabra
+  * @param String palabra
+  * @param String[] colores de los que se elige
+  * @return String color de la palabra
+  */
+  public static String color(String palabra, String[] colores){
+    int dispersion = Dispersores.dispersaDJB(palabra.getBytes(StandardCharsets.UTF_8));
+    return colores[(dispersion & 0x7fffffff) % colores.length];
+  }
+}
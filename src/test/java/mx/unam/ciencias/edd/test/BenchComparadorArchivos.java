@@ -0,0 +1,98 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.proyecto3.Archivo;
+import mx.unam.ciencias.edd.proyecto3.ComparadorArchivos;
+import mx.unam.ciencias.edd.proyecto3.Vocabulario;
+
+/**
+ * <p>Banco de pruebas (no es una prueba unitaria) para medir cómo escala
+ * {@link ComparadorArchivos} con el número de hilos.</p>
+ *
+ * <p>Genera un corpus sintético con una distribución de Zipf y compara todos
+ * los pares de archivos con 1, 2, 4, ... hasta el número de procesadores (al
+ * menos 4) hilos. Se ejecuta con:</p>
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes \
+ *     mx.unam.ciencias.edd.test.BenchComparadorArchivos [archivos] [palabras]
+ * </pre>
+ */
+public class BenchComparadorArchivos {
+
+    /* Número de repeticiones por configuración. */
+    private static final int REPETICIONES = 5;
+
+    /* Constructor privado para evitar instanciación. */
+    private BenchComparadorArchivos() {}
+
+    /**
+     * Punto de entrada del banco de pruebas.
+     * @param args el número de archivos y de palabras por archivo.
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 800;
+        int palabras = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        Archivo[] archivos = generaCorpus(n, palabras, new Random(2020));
+        int procesadores = Runtime.getRuntime().availableProcessors();
+        int maximo = Math.max(4, procesadores);
+        System.out.printf("archivos=%d palabras/archivo=%d procesadores=%d%n",
+                          n, palabras, procesadores);
+        /* Calentamiento: el primer número de hilos no debe pagar la
+         * compilación JIT de los demás. */
+        for (int hilos = 1; hilos <= maximo; hilos *= 2)
+            new ComparadorArchivos(archivos, hilos).compara();
+        long base = 0;
+        for (int hilos = 1; hilos <= maximo; hilos *= 2) {
+            ComparadorArchivos comparador = new ComparadorArchivos(archivos, hilos);
+            int relaciones = comparador.compara().getLongitud();
+            long[] tiempos = new long[REPETICIONES];
+            for (int r = 0; r < REPETICIONES; r++) {
+                long inicio = System.nanoTime();
+                comparador.compara();
+                tiempos[r] = System.nanoTime() - inicio;
+            }
+            java.util.Arrays.sort(tiempos);
+            long mediana = tiempos[REPETICIONES / 2];
+            if (hilos == 1)
+                base = mediana;
+            System.out.printf("hilos=%2d mediana=%8.1f ms aceleracion=%5.2fx relaciones=%d%n",
+                              hilos, mediana / 1e6, (double)base / mediana, relaciones);
+        }
+    }
+
+    /* Genera n archivos con palabras tomadas de un vocabulario con
+     * distribución de Zipf. */
+    private static Archivo[] generaCorpus(int n, int palabras, Random random) {
+        int tamanoVocabulario = 50000;
+        double[] acumulada = new double[tamanoVocabulario];
+        double suma = 0;
+        for (int k = 0; k < tamanoVocabulario; k++) {
+            suma += 1.0 / (k + 1);
+            acumulada[k] = suma;
+        }
+        Vocabulario vocabulario = new Vocabulario();
+        Archivo[] archivos = new Archivo[n];
+        for (int i = 0; i < n; i++) {
+            Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+            for (int p = 0; p < palabras; p++) {
+                double u = random.nextDouble() * suma;
+                int a = 0, b = tamanoVocabulario - 1;
+                while (a < b) {
+                    int m = (a + b) / 2;
+                    if (acumulada[m] < u)
+                        a = m + 1;
+                    else
+                        b = m;
+                }
+                String palabra = String.format("palabra%05d", a);
+                d.agrega(palabra, d.contiene(palabra) ? d.get(palabra) + 1 : 1);
+            }
+            archivos[i] = new Archivo("archivo" + i + ".html", d,
+                                      "archivo" + i + ".txt", vocabulario);
+        }
+        return archivos;
+    }
+}
@@ -0,0 +1,166 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.proyecto3.AgrupadorDuplicados;
+import mx.unam.ciencias.edd.proyecto3.Archivo;
+import mx.unam.ciencias.edd.proyecto3.SimHash;
+import mx.unam.ciencias.edd.proyecto3.Vocabulario;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link AgrupadorDuplicados}.
+ */
+public class TestAgrupadorDuplicados {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestAgrupadorDuplicados() {
+        random = new Random();
+    }
+
+    /* Regresa una huella con los bits de inicio a fin - 1 prendidos. */
+    private static long bits(int inicio, int fin) {
+        long huella = 0;
+        for (int b = inicio; b < fin; b++)
+            huella |= 1L << b;
+        return huella;
+    }
+
+    /* Verifica que los representantes sean los esperados. */
+    private void verifica(int[] representantes, int... esperados) {
+        Assert.assertTrue(representantes.length == esperados.length);
+        for (int i = 0; i < esperados.length; i++)
+            Assert.assertTrue(representantes[i] == esperados[i]);
+    }
+
+    /* Calcula los grupos sin bandas: cada huella se compara con todos los
+     * representantes anteriores. */
+    private int[] esperados(long[] huellas, int umbral) {
+        int[] representantes = new int[huellas.length];
+        for (int i = 0; i < huellas.length; i++) {
+            representantes[i] = i;
+            int mejor = umbral + 1;
+            for (int r = 0; r < i; r++) {
+                if (representantes[r] != r)
+                    continue;
+                int d = SimHash.distancia(huellas[i], huellas[r]);
+                if (d < mejor) {
+                    mejor = d;
+                    representantes[i] = r;
+                }
+            }
+        }
+        return representantes;
+    }
+
+    /**
+     * Prueba unitaria para {@link AgrupadorDuplicados#agrupa} con una cadena
+     * de huellas: A se parece a B y B a C, pero A no se parece a C, así que
+     * C no entra al grupo de A.
+     */
+    @Test public void testCadena() {
+        long a = 0, b = bits(0, 3), c = bits(0, 6);
+        verifica(new AgrupadorDuplicados(new long[] { a, b, c }, 3).agrupa(),
+                 0, 0, 2);
+        verifica(new AgrupadorDuplicados(new long[] { a, b, c }, 6).agrupa(),
+                 0, 0, 0);
+        verifica(new AgrupadorDuplicados(new long[] { b, a, c }, 3).agrupa(),
+                 0, 0, 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link AgrupadorDuplicados#agrupa}: cada archivo
+     * se une al representante más cercano y, a igual distancia, al de menor
+     * índice.
+     */
+    @Test public void testRepresentanteCercano() {
+        long r0 = 0, r1 = bits(0, 8);
+        long x = bits(0, 6);           // a 6 de r0 y a 2 de r1
+        long y = bits(0, 4);           // a 4 de r0 y a 4 de r1
+        long z = bits(60, 64);         // a 4 de r0 y a 12 de r1
+        long[] huellas = { r0, r1, x, y, z, r0, r1 };
+        verifica(new AgrupadorDuplicados(huellas, 4).agrupa(),
+                 0, 1, 1, 0, 0, 0, 1);
+        verifica(new AgrupadorDuplicados(huellas, 2).agrupa(),
+                 0, 1, 1, 3, 4, 0, 1);
+        verifica(new AgrupadorDuplicados(huellas, 0).agrupa(),
+                 0, 1, 2, 3, 4, 0, 1);
+        verifica(new AgrupadorDuplicados(huellas, 63).agrupa(),
+                 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link AgrupadorDuplicados#agrupa} con huellas
+     * aleatorias cerca de unos cuantos centros: los grupos son los mismos
+     * que comparando con todos los representantes, y cada archivo está a lo
+     * más a la distancia umbral de su representante.
+     */
+    @Test public void testAleatorio() {
+        long[] centros = new long[1 + random.nextInt(6)];
+        for (int c = 0; c < centros.length; c++)
+            centros[c] = random.nextLong();
+        long[] huellas = new long[50 + random.nextInt(200)];
+        for (int i = 0; i < huellas.length; i++) {
+            huellas[i] = centros[random.nextInt(centros.length)];
+            for (int k = random.nextInt(8); k > 0; k--)
+                huellas[i] ^= 1L << random.nextInt(64);
+        }
+        for (int umbral = 0; umbral <= 8; umbral++) {
+            int[] representantes = new AgrupadorDuplicados(huellas, umbral).agrupa();
+            verifica(representantes, esperados(huellas, umbral));
+            for (int i = 0; i < huellas.length; i++) {
+                int r = representantes[i];
+                Assert.assertTrue(r <= i && representantes[r] == r);
+                Assert.assertTrue(SimHash.distancia(huellas[i], huellas[r]) <= umbral);
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link AgrupadorDuplicados#agrupa} con archivos:
+     * los que tienen las mismas palabras quedan juntos y las entradas null se
+     * ignoran.
+     */
+    @Test public void testArchivos() {
+        Vocabulario vocabulario = new Vocabulario();
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        Diccionario<String, Integer> e = new Diccionario<String, Integer>();
+        for (int i = 0; i < 50; i++) {
+            d.agrega("palabra" + i, 1 + random.nextInt(10));
+            e.agrega("distinta" + i, 1 + random.nextInt(10));
+        }
+        Archivo[] archivos = {
+            new Archivo("archivo0.html", d, "a.txt", vocabulario), null,
+            new Archivo("archivo2.html", d, "b.txt", vocabulario),
+            new Archivo("archivo3.html", e, "c.txt", vocabulario)
+        };
+        int[] representantes = new AgrupadorDuplicados(archivos, 0).agrupa();
+        Assert.assertTrue(representantes[0] == 0 && representantes[1] == -1 &&
+                          representantes[2] == 0);
+        Assert.assertTrue(representantes[3] ==
+                          (archivos[3].getHuella() == archivos[0].getHuella() ? 0 : 3));
+    }
+
+    /**
+     * Prueba unitaria para {@link AgrupadorDuplicados#AgrupadorDuplicados}
+     * con umbrales inválidos.
+     */
+    @Test public void testUmbralInvalido() {
+        for (int umbral : new int[] { -1, 64 })
+            try {
+                new AgrupadorDuplicados(new long[] { 0 }, umbral);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+    }
+}
@@ -128,6 +128,39 @@ public class TestArbolAVL {
         Assert.assertTrue(arbol.getElementos() == total);
     }
 
+    /**
+     * Prueba unitaria para {@link ArbolAVL#getBalance}.
+     */
+    @Test public void testGetBalance() {
+        for (int i = 0; i < total; i++)
+            arbol.agrega(random.nextInt(total));
+        Cola<VerticeArbolBinario<Integer>> cola =
+            new Cola<VerticeArbolBinario<Integer>>();
+        cola.mete(arbol.raiz());
+        while (!cola.esVacia()) {
+            VerticeArbolBinario<Integer> v = cola.saca();
+            int aIzq = -1, aDer = -1;
+            if (v.hayIzquierdo()) {
+                aIzq = v.izquierdo().altura();
+                cola.mete(v.izquierdo());
+            }
+            if (v.hayDerecho()) {
+                aDer = v.derecho().altura();
+                cola.mete(v.derecho());
+            }
+            int balance = arbol.getBalance(v);
+            Assert.assertTrue(balance == aIzq - aDer);
+            Assert.assertTrue(v.toString().endsWith(v.altura() + "/" + balance));
+        }
+        ArbolBinarioCompleto<Integer> completo =
+            new ArbolBinarioCompleto<Integer>();
+        completo.agrega(1);
+        try {
+            arbol.getBalance(completo.raiz());
+            Assert.fail();
+        } catch (ClassCastException cce) {}
+    }
+
     /**
      * Prueba unitaria para {@link ArbolAVL#elimina}.
      */
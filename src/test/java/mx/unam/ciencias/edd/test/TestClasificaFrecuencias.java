@@ -0,0 +1,140 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.proyecto3.graficas.ClasificaFrecuencias;
+import mx.unam.ciencias.edd.proyecto3.graficas.Palabra;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ClasificaFrecuencias}.
+ */
+public class TestClasificaFrecuencias {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Apariciones grandes, para que se ordene por residuos. */
+    private static final int[] GRANDES = {
+        Integer.MAX_VALUE, Integer.MAX_VALUE - 1, 1 << 30, (1 << 24) + 1,
+        123456789, 65536, 255, 256, 1, 0
+    };
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número de palabras. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios y un número de palabras para
+     * cada prueba.
+     */
+    public TestClasificaFrecuencias() {
+        random = new Random();
+        total = 50 + random.nextInt(450);
+    }
+
+    /* Regresa un diccionario con n palabras distintas y apariciones
+     * aleatorias en [0, rango), con muchos empates. */
+    private Diccionario<String, Integer> chicas(int n, int rango) {
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        for (int i = 0; i < n; i++)
+            d.agrega("p" + i, random.nextInt(rango));
+        return d;
+    }
+
+    /* Regresa un diccionario con n palabras distintas y apariciones tomadas
+     * de GRANDES, con muchos empates. */
+    private Diccionario<String, Integer> grandes(int n) {
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        for (int i = 0; i < n; i++)
+            d.agrega("p" + i, GRANDES[random.nextInt(GRANDES.length)]);
+        return d;
+    }
+
+    /* Regresa las palabras del diccionario ordenadas con un ordenamiento
+     * estable de la de más apariciones a la de menos. */
+    static Lista<Palabra> esperadas(Diccionario<String, Integer> d) {
+        Lista<Palabra> l = new Lista<Palabra>();
+        Iterator<String> i = d.iteradorLlaves();
+        while (i.hasNext()) {
+            String s = i.next();
+            l.agregaFinal(new Palabra(s, d.get(s)));
+        }
+        return l.mergeSort((a, b) -> b.compareTo(a));
+    }
+
+    /* Verifica que las palabras sean las primeras k esperadas, en orden. */
+    private void verifica(Diccionario<String, Integer> d, int k) {
+        Palabra[] ordenadas = ClasificaFrecuencias.ordena(d, k);
+        Assert.assertTrue(ordenadas.length == k);
+        int i = 0;
+        for (Palabra p : esperadas(d)) {
+            if (i == k)
+                break;
+            Assert.assertTrue(p.getPalabra().equals(ordenadas[i].getPalabra()));
+            Assert.assertTrue(p.getApariciones() == ordenadas[i].getApariciones());
+            i++;
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ClasificaFrecuencias#ordena(Diccionario)}
+     * con apariciones chicas (ordenamiento por conteo).
+     */
+    @Test public void testOrdenaConteo() {
+        Diccionario<String, Integer> d = chicas(total, 10);
+        verifica(d, total);
+        Assert.assertTrue(ClasificaFrecuencias.ordena(d).length == total);
+        verifica(chicas(total, 4 * total), total);
+    }
+
+    /**
+     * Prueba unitaria para {@link ClasificaFrecuencias#ordena(Diccionario)}
+     * con apariciones grandes (ordenamiento por residuos).
+     */
+    @Test public void testOrdenaResiduos() {
+        verifica(grandes(total), total);
+        verifica(chicas(total, 4 * total + 1000), total);
+    }
+
+    /**
+     * Prueba unitaria para {@link ClasificaFrecuencias#ordena(Diccionario,int)}
+     * con sólo las primeras k palabras.
+     */
+    @Test public void testOrdenaPrimeras() {
+        for (int r = 0; r < 10; r++) {
+            int k = random.nextInt(total + 1);
+            verifica(chicas(total, 10), k);
+            verifica(grandes(total), k);
+        }
+        verifica(chicas(total, 10), 0);
+        verifica(new Diccionario<String, Integer>(), 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link ClasificaFrecuencias#ordena(Diccionario,int)}
+     * con argumentos inválidos.
+     */
+    @Test public void testOrdenaInvalido() {
+        Diccionario<String, Integer> d = chicas(total, 10);
+        try {
+            ClasificaFrecuencias.ordena(d, total + 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            ClasificaFrecuencias.ordena(d, -1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        d.agrega("negativa", -1);
+        try {
+            ClasificaFrecuencias.ordena(d);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+}
@@ -0,0 +1,299 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.proyecto3.Archivo;
+import mx.unam.ciencias.edd.proyecto3.ComparadorArchivos;
+import mx.unam.ciencias.edd.proyecto3.ComparadorArchivos.Relacion;
+import mx.unam.ciencias.edd.proyecto3.MedidaSimilitud;
+import mx.unam.ciencias.edd.proyecto3.Vocabulario;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ComparadorArchivos}.
+ */
+public class TestComparadorArchivos {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número de archivos; abarcan entre tres y cuatro bloques de mosaicos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios y un número de archivos para
+     * cada prueba.
+     */
+    public TestComparadorArchivos() {
+        random = new Random();
+        total = 2 * ComparadorArchivos.TAMANO_MOSAICO + 1 +
+            random.nextInt(2 * ComparadorArchivos.TAMANO_MOSAICO);
+    }
+
+    /* Regresa archivos con palabras tomadas de un vocabulario chico, para que
+     * muchos pares compartan palabras; algunas entradas son null. */
+    private Archivo[] corpus() {
+        Vocabulario vocabulario = new Vocabulario();
+        Archivo[] archivos = new Archivo[total];
+        for (int i = 0; i < total; i++) {
+            if (random.nextInt(10) == 0)
+                continue;
+            Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+            int n = 1 + random.nextInt(30);
+            for (int p = 0; p < n; p++)
+                d.agrega(String.format("palabra%03d", random.nextInt(120)),
+                         1 + random.nextInt(5));
+            archivos[i] = new Archivo("archivo" + i + ".html", d,
+                                      "archivo" + i + ".txt", vocabulario);
+        }
+        return archivos;
+    }
+
+    /* Verifica que dos listas de relaciones sean iguales, relación por
+     * relación, y que estén en orden (i, j). */
+    private void iguales(Lista<Relacion> a, Lista<Relacion> b) {
+        Assert.assertTrue(a.getLongitud() == b.getLongitud());
+        Iterator<Relacion> ib = b.iterator();
+        Relacion anterior = null;
+        for (Relacion r : a) {
+            Relacion s = ib.next();
+            Assert.assertTrue(r.getPrimero() == s.getPrimero());
+            Assert.assertTrue(r.getSegundo() == s.getSegundo());
+            Assert.assertTrue(r.getSimilitud() == s.getSimilitud());
+            Assert.assertTrue(r.getPalabras().equals(s.getPalabras()));
+            Assert.assertTrue(r.getTotalPalabras() == s.getTotalPalabras());
+            Assert.assertTrue(r.getPrimero() < r.getSegundo());
+            if (anterior != null)
+                Assert.assertTrue(anterior.getPrimero() < r.getPrimero() ||
+                                  (anterior.getPrimero() == r.getPrimero() &&
+                                   anterior.getSegundo() < r.getSegundo()));
+            anterior = r;
+        }
+    }
+
+    /* Compara los archivos con un hilo y con cuatro y verifica que el
+     * resultado sea el mismo. */
+    private Lista<Relacion> compara(Archivo[] archivos, MedidaSimilitud medida,
+                                    int vecinos, double umbral, boolean esqueleto,
+                                    int relacionesPorArchivo, int palabrasPorPar) {
+        Lista<Relacion> serie = null;
+        for (int hilos = 1; hilos <= 4; hilos *= 4) {
+            ComparadorArchivos c = new ComparadorArchivos(archivos, hilos, medida, vecinos);
+            c.setUmbral(umbral);
+            c.setEsqueleto(esqueleto);
+            c.setRelacionesPorArchivo(relacionesPorArchivo);
+            c.setPalabrasPorPar(palabrasPorPar);
+            Lista<Relacion> relaciones = c.compara();
+            if (serie == null)
+                serie = relaciones;
+            else
+                iguales(serie, relaciones);
+        }
+        return serie;
+    }
+
+    /* Regresa archivos con las palabras dadas, una cadena por archivo; cada
+     * letra es una palabra distinta. */
+    private Archivo[] sinteticos(String... letras) {
+        Vocabulario vocabulario = new Vocabulario();
+        Archivo[] archivos = new Archivo[letras.length];
+        for (int i = 0; i < letras.length; i++) {
+            Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+            for (char c : letras[i].toCharArray())
+                d.agrega("palabra" + c, 1);
+            archivos[i] = new Archivo("archivo" + i + ".html", d,
+                                      "archivo" + i + ".txt", vocabulario);
+        }
+        return archivos;
+    }
+
+    /* Verifica que las relaciones sean exactamente los pares dados, como
+     * {i, j}, en orden. */
+    private void pares(Lista<Relacion> relaciones, int[][] esperados) {
+        Assert.assertTrue(relaciones.getLongitud() == esperados.length);
+        int k = 0;
+        for (Relacion r : relaciones) {
+            Assert.assertTrue(r.getPrimero() == esperados[k][0]);
+            Assert.assertTrue(r.getSegundo() == esperados[k][1]);
+            k++;
+        }
+    }
+
+    /* Regresa la similitud de un par en una lista de relaciones. */
+    private double similitud(Lista<Relacion> relaciones, int i, int j) {
+        for (Relacion r : relaciones)
+            if (r.getPrimero() == i && r.getSegundo() == j)
+                return r.getSimilitud();
+        Assert.fail();
+        return 0;
+    }
+
+    /* Calcula sin mosaicos los pares que están entre los N vecinos más
+     * parecidos de alguno de sus archivos; a igual similitud se prefiere el
+     * vecino de menor índice. Regresa los pares como {i, j}, en orden. */
+    private Lista<int[]> vecinosEsperados(Archivo[] archivos, MedidaSimilitud medida,
+                                          int vecinos) {
+        int n = archivos.length;
+        boolean[][] seleccionado = new boolean[n][n];
+        for (int f = 0; f < n; f++) {
+            if (archivos[f] == null)
+                continue;
+            Lista<Integer> otros = new Lista<Integer>();
+            for (int g = 0; g < n; g++)
+                if (g != f && archivos[g] != null &&
+                    archivos[f].similitud(archivos[g], medida) > 0)
+                    otros.agregaFinal(g);
+            final int a = f;
+            otros = otros.mergeSort((x, y) -> {
+                    double sx = archivos[a].similitud(archivos[x], medida);
+                    double sy = archivos[a].similitud(archivos[y], medida);
+                    if (sx != sy)
+                        return sx > sy ? -1 : 1;
+                    return x - y;
+                });
+            int k = 0;
+            for (int g : otros) {
+                if (k++ == vecinos)
+                    break;
+                seleccionado[Math.min(f, g)][Math.max(f, g)] = true;
+            }
+        }
+        Lista<int[]> esperados = new Lista<int[]>();
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+                if (seleccionado[i][j])
+                    esperados.agregaFinal(new int[] { i, j });
+        return esperados;
+    }
+
+    /* Verifica los vecinos contra el cálculo sin mosaicos. */
+    private void verificaVecinos(Archivo[] archivos, MedidaSimilitud medida,
+                                 int vecinos) {
+        Lista<int[]> esperados = vecinosEsperados(archivos, medida, vecinos);
+        int[][] arreglo = new int[esperados.getLongitud()][];
+        int k = 0;
+        for (int[] par : esperados)
+            arreglo[k++] = par;
+        pares(compara(archivos, medida, vecinos, 0, false, 0, 0), arreglo);
+    }
+
+    /**
+     * Prueba unitaria para {@link ComparadorArchivos#compara} con todos los
+     * pares: con uno y con cuatro hilos se obtienen las mismas relaciones, y
+     * son todos los pares que comparten palabras, en orden (i, j).
+     */
+    @Test public void testComparaHilos() {
+        Archivo[] archivos = corpus();
+        Lista<Relacion> relaciones = compara(archivos, MedidaSimilitud.COMPARTIDAS,
+                                             0, 0, false, 0, 0);
+        Iterator<Relacion> it = relaciones.iterator();
+        for (int i = 0; i < total; i++)
+            for (int j = i + 1; j < total; j++) {
+                if (archivos[i] == null || archivos[j] == null ||
+                    archivos[i].palabrasEnComun(archivos[j]) == 0)
+                    continue;
+                Relacion r = it.next();
+                Assert.assertTrue(r.getPrimero() == i && r.getSegundo() == j);
+                Assert.assertTrue(r.getTotalPalabras() ==
+                                  archivos[i].palabrasEnComun(archivos[j]));
+            }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link ComparadorArchivos#compara} con vecinos,
+     * umbral y reducción de detalle: con uno y con cuatro hilos se obtienen
+     * las mismas relaciones.
+     */
+    @Test public void testComparaHilosDetalle() {
+        Archivo[] archivos = corpus();
+        for (MedidaSimilitud medida : MedidaSimilitud.values()) {
+            compara(archivos, medida, 1 + random.nextInt(4), 0, false, 0, 0);
+            compara(archivos, medida, 0, 0, true, 0, 3);
+            compara(archivos, medida, 2, 0, false, 3, 0);
+        }
+        compara(archivos, MedidaSimilitud.COMPARTIDAS, 3, 2, false, 0, 1);
+        compara(archivos, MedidaSimilitud.JACCARD, 0, 0.2, true, 2, 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link ComparadorArchivos#compara} con similitudes
+     * conocidas: el archivo i (de 1 a 4) tiene las primeras i palabras del
+     * archivo 0, que tiene cinco.
+     */
+    @Test public void testSimilitudes() {
+        Archivo[] archivos = sinteticos("abcde", "a", "ab", "abc", "abcd");
+        Lista<Relacion> todas = compara(archivos, MedidaSimilitud.JACCARD, 0, 0, false, 0, 0);
+        Assert.assertTrue(todas.getLongitud() == 10);
+        Assert.assertTrue(similitud(todas, 0, 4) == 4.0 / 5);
+        Assert.assertTrue(similitud(todas, 3, 4) == 3.0 / 4);
+        Assert.assertTrue(similitud(todas, 1, 3) == 1.0 / 3);
+        todas = compara(archivos, MedidaSimilitud.TRASLAPE, 0, 0, false, 0, 0);
+        for (Relacion r : todas)
+            Assert.assertTrue(r.getSimilitud() == 1);
+        todas = compara(archivos, MedidaSimilitud.COMPARTIDAS, 0, 0, false, 0, 0);
+        Assert.assertTrue(similitud(todas, 0, 3) == 3);
+        Assert.assertTrue(similitud(todas, 2, 4) == 2);
+    }
+
+    /**
+     * Prueba unitaria para {@link ComparadorArchivos#compara} con un número
+     * de vecinos: cada archivo conserva a lo más N pares, los de mayor
+     * similitud.
+     */
+    @Test public void testVecinosPorArchivo() {
+        Archivo[] archivos = sinteticos("abcde", "a", "ab", "abc", "abcd");
+        pares(compara(archivos, MedidaSimilitud.JACCARD, 1, 0, false, 0, 0),
+              new int[][] { { 0, 4 }, { 1, 2 }, { 2, 3 }, { 3, 4 } });
+        pares(compara(archivos, MedidaSimilitud.COMPARTIDAS, 2, 0, false, 0, 0),
+              new int[][] { { 0, 1 }, { 0, 2 }, { 0, 3 }, { 0, 4 },
+                            { 1, 2 }, { 2, 3 }, { 3, 4 } });
+        for (MedidaSimilitud medida : MedidaSimilitud.values())
+            for (int vecinos = 1; vecinos <= 4; vecinos++)
+                verificaVecinos(archivos, medida, vecinos);
+    }
+
+    /**
+     * Prueba unitaria para {@link ComparadorArchivos#compara} con empates: a
+     * igual similitud se conserva el vecino de menor índice.
+     */
+    @Test public void testVecinosEmpates() {
+        Archivo[] archivos = sinteticos("a", "a", "a", "a");
+        pares(compara(archivos, MedidaSimilitud.COMPARTIDAS, 1, 0, false, 0, 0),
+              new int[][] { { 0, 1 }, { 0, 2 }, { 0, 3 } });
+        pares(compara(archivos, MedidaSimilitud.JACCARD, 2, 0, false, 0, 0),
+              new int[][] { { 0, 1 }, { 0, 2 }, { 0, 3 }, { 1, 2 }, { 1, 3 } });
+        archivos = sinteticos("abcde", "a", "ab", "abc", "abcd");
+        pares(compara(archivos, MedidaSimilitud.TRASLAPE, 1, 0, false, 0, 0),
+              new int[][] { { 0, 1 }, { 0, 2 }, { 0, 3 }, { 0, 4 } });
+    }
+
+    /**
+     * Prueba unitaria para {@link ComparadorArchivos#compara} con vecinos
+     * entre varios mosaicos: el descarte dentro de cada mosaico no pierde
+     * pares que están entre los mejores de todos. Los mejores vecinos del
+     * archivo 0 están en otro mosaico, detrás de muchos empates en el suyo.
+     */
+    @Test public void testVecinosMosaicos() {
+        String[] letras = new String[2 * ComparadorArchivos.TAMANO_MOSAICO + 5];
+        letras[0] = "abc";
+        for (int i = 1; i < letras.length; i++)
+            letras[i] = i < ComparadorArchivos.TAMANO_MOSAICO ? "a" : "abc";
+        Archivo[] archivos = sinteticos(letras);
+        Lista<Relacion> relaciones =
+            compara(archivos, MedidaSimilitud.COMPARTIDAS, 1, 0, false, 0, 0);
+        Assert.assertTrue(similitud(relaciones, 0, ComparadorArchivos.TAMANO_MOSAICO) == 3);
+        for (int vecinos = 1; vecinos <= 3; vecinos++) {
+            verificaVecinos(archivos, MedidaSimilitud.COMPARTIDAS, vecinos);
+            verificaVecinos(corpus(), MedidaSimilitud.values()[random.nextInt(3)],
+                            vecinos);
+        }
+    }
+}
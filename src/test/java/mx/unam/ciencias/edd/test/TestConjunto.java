@@ -196,6 +196,91 @@ public class TestConjunto {
             Assert.assertTrue(union.contiene(n));
     }
 
+    /**
+     * Prueba unitaria para {@link Conjunto#tamanoInterseccion}.
+     */
+    @Test public void testTamanoInterseccion() {
+        int ini = total + random.nextInt(total * 10);
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(ini + i - total/2);
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        Assert.assertTrue(conjunto.tamanoInterseccion(c2) == 0);
+        Assert.assertTrue(c2.tamanoInterseccion(conjunto) == 0);
+        total += (total % 2) == 1 ? 1 : 0;
+        for (int i = 0; i < total; i++)
+            c2.agrega(ini + i);
+        int tamano = conjunto.interseccion(c2).getElementos();
+        Assert.assertTrue(tamano == total/2);
+        Assert.assertTrue(conjunto.tamanoInterseccion(c2) == tamano);
+        Assert.assertTrue(c2.tamanoInterseccion(conjunto) == tamano);
+        Assert.assertTrue(conjunto.tamanoInterseccion(conjunto) ==
+                          conjunto.getElementos());
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#agregaTodos}.
+     */
+    @Test public void testAgregaTodos() {
+        int ini = total + random.nextInt(total * 10);
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(ini + i);
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        for (int i = total/2; i < total*2; i++)
+            c2.agrega(ini + i);
+        Conjunto<Integer> union = conjunto.union(c2);
+        conjunto.agregaTodos(c2);
+        Assert.assertTrue(conjunto.getElementos() == total*2);
+        Assert.assertTrue(conjunto.equals(union));
+        Assert.assertTrue(c2.getElementos() == total*2 - total/2);
+        conjunto.agregaTodos(conjunto);
+        Assert.assertTrue(conjunto.getElementos() == total*2);
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#retenTodos}.
+     */
+    @Test public void testRetenTodos() {
+        int ini = total + random.nextInt(total * 10);
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(ini + i);
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        for (int i = total/2; i < total*2; i++)
+            c2.agrega(ini + i);
+        Conjunto<Integer> interseccion = conjunto.interseccion(c2);
+        conjunto.retenTodos(c2);
+        Assert.assertTrue(conjunto.getElementos() == total - total/2);
+        Assert.assertTrue(conjunto.equals(interseccion));
+        for (Integer n : conjunto)
+            Assert.assertTrue(c2.contiene(n));
+        conjunto.retenTodos(new Conjunto<Integer>());
+        Assert.assertTrue(conjunto.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#eliminaTodos}.
+     */
+    @Test public void testEliminaTodos() {
+        int ini = total + random.nextInt(total * 10);
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(ini + i);
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        for (int i = total/2; i < total*2; i++)
+            c2.agrega(ini + i);
+        Conjunto<Integer> c3 = new Conjunto<Integer>();
+        for (int i = 0; i < 3; i++)
+            c3.agrega(ini + i);
+        conjunto.eliminaTodos(c2);
+        Assert.assertTrue(conjunto.getElementos() == total/2);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(conjunto.contiene(ini + i) == (i < total/2));
+        conjunto.eliminaTodos(c3);
+        Assert.assertTrue(conjunto.getElementos() == total/2 - 3);
+        for (Integer n : c3)
+            Assert.assertFalse(conjunto.contiene(n));
+        conjunto.eliminaTodos(conjunto);
+        Assert.assertTrue(conjunto.esVacia());
+    }
+
     /**
      * Prueba unitaria para {@link Conjunto#toString}.
      */
@@ -0,0 +1,296 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Conjunto;
+import mx.unam.ciencias.edd.ConjuntoBits;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ConjuntoBits}.
+ */
+public class TestConjuntoBits {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El conjunto. */
+    private ConjuntoBits conjunto;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba, un
+     * número total de elementos para nuestro conjunto, y un conjunto.
+     */
+    public TestConjuntoBits() {
+        random = new Random();
+        total = 10 + random.nextInt(90);
+        conjunto = new ConjuntoBits();
+    }
+
+    /* Llena un conjunto de bits y un conjunto con n enteros aleatorios en
+     * [0, rango). */
+    private void llena(ConjuntoBits cb, Conjunto<Integer> c, int n, int rango) {
+        for (int i = 0; i < n; i++) {
+            int e = random.nextInt(rango);
+            cb.agrega(e);
+            c.agrega(e);
+        }
+    }
+
+    /* Verifica que el conjunto de bits tenga los mismos elementos que el
+     * conjunto. */
+    private void verifica(ConjuntoBits cb, Conjunto<Integer> c) {
+        Assert.assertTrue(cb.getElementos() == c.getElementos());
+        for (Integer n : c)
+            Assert.assertTrue(cb.contiene(n));
+        int anterior = -1;
+        int contados = 0;
+        for (Integer n : cb) {
+            Assert.assertTrue(c.contiene(n));
+            Assert.assertTrue(n > anterior);
+            anterior = n;
+            contados++;
+        }
+        Assert.assertTrue(contados == c.getElementos());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#ConjuntoBits}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(conjunto.esVacia());
+        Assert.assertTrue(conjunto.getElementos() == 0);
+        int[] a = { 5, 1, 70000, 5, 3 };
+        conjunto = new ConjuntoBits(a);
+        Assert.assertTrue(conjunto.getElementos() == 4);
+        for (int n : a)
+            Assert.assertTrue(conjunto.contiene(n));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#agrega}.
+     */
+    @Test public void testAgrega() {
+        try {
+            conjunto.agrega((Integer)null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        int ini = random.nextInt(1 << 20);
+        for (int i = 0; i < total; i++) {
+            conjunto.agrega(ini + i * 1000);
+            Assert.assertTrue(conjunto.getElementos() == i + 1);
+            conjunto.agrega(ini + i * 1000);
+            Assert.assertTrue(conjunto.getElementos() == i + 1);
+        }
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(conjunto.contiene(ini + i * 1000));
+        Assert.assertFalse(conjunto.contiene(ini - 1));
+        conjunto.agrega(-1);
+        Assert.assertTrue(conjunto.contiene(-1));
+        Assert.assertTrue(conjunto.getElementos() == total + 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#agrega} cuando un bloque se
+     * vuelve denso y para {@link ConjuntoBits#elimina} cuando vuelve a ser
+     * disperso.
+     */
+    @Test public void testBloqueDenso() {
+        int n = ConjuntoBits.MAXIMO_ARREGLO * 2;
+        for (int i = 0; i < n; i++)
+            conjunto.agrega(i * 3);
+        Assert.assertTrue(conjunto.getElementos() == n);
+        for (int i = 0; i < n * 3; i++)
+            Assert.assertTrue(conjunto.contiene(i) == (i % 3 == 0));
+        for (int i = 0; i < n; i += 2)
+            conjunto.elimina(i * 3);
+        Assert.assertTrue(conjunto.getElementos() == n / 2);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(conjunto.contiene(i * 3) == (i % 2 == 1));
+        int anterior = -1;
+        for (Integer e : conjunto) {
+            Assert.assertTrue(e > anterior);
+            anterior = e;
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#elimina}.
+     */
+    @Test public void testElimina() {
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        llena(conjunto, c, total * 100, 1 << 18);
+        for (Integer n : c) {
+            Assert.assertTrue(conjunto.contiene(n));
+            conjunto.elimina(n);
+            Assert.assertFalse(conjunto.contiene(n));
+        }
+        Assert.assertTrue(conjunto.esVacia());
+        conjunto.elimina((Integer)null);
+        conjunto.elimina(random.nextInt());
+        Assert.assertTrue(conjunto.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#limpia}.
+     */
+    @Test public void testLimpia() {
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(i);
+        Assert.assertFalse(conjunto.esVacia());
+        conjunto.limpia();
+        Assert.assertTrue(conjunto.esVacia());
+        Assert.assertTrue(conjunto.getElementos() == 0);
+        Assert.assertFalse(conjunto.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#interseccion} y {@link
+     * ConjuntoBits#tamanoInterseccion}.
+     */
+    @Test public void testInterseccion() {
+        for (int densidad = 1; densidad <= 3; densidad++) {
+            ConjuntoBits cb1 = new ConjuntoBits(), cb2 = new ConjuntoBits();
+            Conjunto<Integer> c1 = new Conjunto<Integer>();
+            Conjunto<Integer> c2 = new Conjunto<Integer>();
+            llena(cb1, c1, total * 50 * densidad, 1 << 17);
+            llena(cb2, c2, total * 30 * densidad * densidad, 1 << 17);
+            ConjuntoBits interseccion = cb1.interseccion(cb2);
+            verifica(interseccion, c1.interseccion(c2));
+            Assert.assertTrue(cb1.tamanoInterseccion(cb2) ==
+                              interseccion.getElementos());
+            Assert.assertTrue(cb2.tamanoInterseccion(cb1) ==
+                              interseccion.getElementos());
+            verifica(cb1, c1);
+            verifica(cb2, c2);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#union} y {@link
+     * ConjuntoBits#tamanoUnion}.
+     */
+    @Test public void testUnion() {
+        for (int densidad = 1; densidad <= 3; densidad++) {
+            ConjuntoBits cb1 = new ConjuntoBits(), cb2 = new ConjuntoBits();
+            Conjunto<Integer> c1 = new Conjunto<Integer>();
+            Conjunto<Integer> c2 = new Conjunto<Integer>();
+            llena(cb1, c1, total * 40 * densidad, 1 << 18);
+            llena(cb2, c2, total * 20 * densidad * densidad, 1 << 17);
+            ConjuntoBits union = cb1.union(cb2);
+            verifica(union, c1.union(c2));
+            Assert.assertTrue(cb1.tamanoUnion(cb2) == union.getElementos());
+            verifica(cb1, c1);
+            verifica(cb2, c2);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#diferencia}.
+     */
+    @Test public void testDiferencia() {
+        for (int densidad = 1; densidad <= 3; densidad++) {
+            ConjuntoBits cb1 = new ConjuntoBits(), cb2 = new ConjuntoBits();
+            Conjunto<Integer> c1 = new Conjunto<Integer>();
+            Conjunto<Integer> c2 = new Conjunto<Integer>();
+            llena(cb1, c1, total * 60 * densidad * densidad, 1 << 17);
+            llena(cb2, c2, total * 30 * densidad, 1 << 18);
+            ConjuntoBits diferencia = cb1.diferencia(cb2);
+            Conjunto<Integer> c = c1.union(new Conjunto<Integer>());
+            c.eliminaTodos(c2);
+            verifica(diferencia, c);
+            verifica(cb1, c1);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#aArreglo}.
+     */
+    @Test public void testAArreglo() {
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        llena(conjunto, c, total * 100, 1 << 20);
+        int[] a = conjunto.aArreglo();
+        Assert.assertTrue(a.length == c.getElementos());
+        int i = 0;
+        for (Integer n : conjunto)
+            Assert.assertTrue(a[i++] == n);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#toString}.
+     */
+    @Test public void testToString() {
+        Assert.assertTrue(conjunto.toString().equals("{}"));
+        String s = "{ ";
+        for (int i = 0; i < total; i++) {
+            conjunto.agrega(i * 7);
+            s += (i * 7) + (i < total - 1 ? ", " : " ");
+        }
+        Assert.assertTrue(conjunto.toString().equals(s + "}"));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#equals}.
+     */
+    @Test public void testEquals() {
+        ConjuntoBits c2 = new ConjuntoBits();
+        Assert.assertTrue(conjunto.equals(c2));
+        Assert.assertFalse(conjunto.equals(null));
+        for (int i = 0; i < total * 100; i++) {
+            int n = random.nextInt(1 << 18);
+            conjunto.agrega(n);
+            Assert.assertFalse(conjunto.equals(c2) && !c2.contiene(n));
+            c2.agrega(n);
+            Assert.assertTrue(conjunto.equals(c2));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#hashCode}.
+     */
+    @Test public void testHashCode() {
+        ConjuntoBits c2 = new ConjuntoBits();
+        Assert.assertTrue(conjunto.hashCode() == c2.hashCode());
+        int[] a = new int[total * 100];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt(1 << 18);
+            conjunto.agrega(a[i]);
+        }
+        /* Los mismos elementos en otro orden, pasando por bloques densos
+         * que luego vuelven a ser arreglos. */
+        for (int i = a.length - 1; i >= 0; i--)
+            c2.agrega(a[i]);
+        for (int i = 0; i < 5000; i++)
+            c2.agrega(1 << 17 | i);
+        for (int i = 0; i < 5000; i++)
+            if (!conjunto.contiene(1 << 17 | i))
+                c2.elimina(1 << 17 | i);
+        Assert.assertTrue(conjunto.equals(c2));
+        Assert.assertTrue(conjunto.hashCode() == c2.hashCode());
+        Assert.assertTrue(conjunto.hashCode() ==
+                          new ConjuntoBits(conjunto.aArreglo()).hashCode());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#iterator}.
+     */
+    @Test public void testIterator() {
+        Iterator<Integer> iterador = conjunto.iterator();
+        Assert.assertFalse(iterador.hasNext());
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        llena(conjunto, c, total * 100, 1 << 19);
+        verifica(conjunto, c);
+    }
+}
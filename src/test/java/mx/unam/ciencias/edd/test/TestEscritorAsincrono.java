@@ -0,0 +1,90 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import mx.unam.ciencias.edd.proyecto3.EscritorAsincrono;
+import mx.unam.ciencias.edd.proyecto3.EscritorReporte;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link EscritorAsincrono}.
+ */
+public class TestEscritorAsincrono {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /** Directorio temporal de cada prueba. */
+    @Rule public TemporaryFolder directorio = new TemporaryFolder();
+
+    /* Abre un archivo para escribirlo. */
+    private FileChannel abre(File archivo) throws IOException {
+        return FileChannel.open(archivo.toPath(), StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE);
+    }
+
+    /* Regresa un escritor al que ya le falló una escritura. */
+    private EscritorAsincrono fallido() throws Exception {
+        EscritorAsincrono asincrono = new EscritorAsincrono(16);
+        FileChannel cerrado = abre(directorio.newFile("cerrado"));
+        cerrado.close();
+        ByteBuffer b = asincrono.bufer();
+        b.put((byte)1).flip();
+        asincrono.escribe(cerrado, b);
+        while (!asincrono.fallo())
+            Thread.sleep(1);
+        return asincrono;
+    }
+
+    /**
+     * Prueba unitaria para {@link EscritorAsincrono#cierra} después de un
+     * error: el canal se cierra y la acción de error se ejecuta en el hilo
+     * que llama.
+     */
+    @Test public void testCierraDespuesDeError() throws Exception {
+        EscritorAsincrono asincrono = fallido();
+        File temporal = directorio.newFile("pagina.html.tmp");
+        FileChannel canal = abre(temporal);
+        boolean[] movido = { false };
+        try {
+            asincrono.cierra(canal, () -> movido[0] = true,
+                             () -> temporal.delete());
+            Assert.fail();
+        } catch (IOException ioe) {}
+        Assert.assertFalse(canal.isOpen());
+        Assert.assertFalse(movido[0]);
+        Assert.assertFalse(temporal.exists());
+        try {
+            asincrono.close();
+            Assert.fail();
+        } catch (IOException ioe) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link EscritorReporte#close} con un escritor
+     * al que ya le falló una escritura: la página no deja abierto su
+     * archivo ni su temporal.
+     */
+    @Test public void testReporteDespuesDeError() throws Exception {
+        EscritorAsincrono asincrono = fallido();
+        File archivo = new File(directorio.getRoot(), "pagina.html");
+        for (int i = 0; i < 3; i++) {
+            EscritorReporte er = new EscritorReporte(archivo, asincrono, true, 6);
+            er.append("página");
+            try {
+                er.close();
+                Assert.fail();
+            } catch (IOException ioe) {}
+        }
+        Assert.assertFalse(archivo.exists());
+        Assert.assertFalse(new File(archivo.getPath() + ".tmp").exists());
+        Assert.assertFalse(new File(archivo.getPath() + ".gz.tmp").exists());
+    }
+}
@@ -0,0 +1,241 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.proyecto3.EscritorAsincrono;
+import mx.unam.ciencias.edd.proyecto3.EscritorReporte;
+import mx.unam.ciencias.edd.proyecto3.GeneraIndexHTML;
+import mx.unam.ciencias.edd.proyecto3.graficas.ManejaPalabras;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link EscritorReporte}.
+ */
+public class TestEscritorReporte {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /** Directorio temporal de cada prueba. */
+    @Rule public TemporaryFolder directorio = new TemporaryFolder();
+
+    /* Sílabas de las palabras; ocupan de uno a cuatro bytes en UTF-8 (la
+     * clave de sol es un par sustituto en UTF-16). */
+    private static final String[] SILABAS = {
+        "ma", "ño", "pé", "gü", "ción", "日本", "語", "𝄞", "ß", "ça"
+    };
+
+    /* Generador de números aleatorios. */
+    private Random random;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestEscritorReporte() {
+        random = new Random();
+    }
+
+    /* Regresa una palabra aleatoria de al menos siete caracteres. */
+    private String palabra() {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 7 || random.nextBoolean())
+            sb.append(SILABAS[random.nextInt(SILABAS.length)]);
+        return sb.toString();
+    }
+
+    /* Lee un archivo como UTF-8. */
+    static String lee(File archivo) throws IOException {
+        return new String(Files.readAllBytes(archivo.toPath()),
+                          StandardCharsets.UTF_8);
+    }
+
+    /* Lee un archivo gzip como UTF-8. */
+    static String leeGzip(File archivo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new FileInputStream(archivo))) {
+            byte[] bufer = new byte[4096];
+            int n;
+            while ((n = in.read(bufer)) > 0)
+                bytes.write(bufer, 0, n);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /* Escribe una página completa, con su versión comprimida. */
+    private void escribe(File archivo, EscritorAsincrono asincrono,
+                         String contenido) throws IOException {
+        EscritorReporte er = new EscritorReporte(archivo, asincrono, true, 6);
+        er.append(contenido);
+        er.close();
+    }
+
+    /* Nos dice si una cadena tiene caracteres fuera de ASCII. */
+    private static boolean noAscii(String s) {
+        for (int i = 0; i < s.length(); i++)
+            if (s.charAt(i) > 127)
+                return true;
+        return false;
+    }
+
+    /* Escribe una página con un escritor en este hilo y otra con un hilo
+     * escritor y verifica que ambas (y sus versiones comprimidas) tengan
+     * el contenido. */
+    private void transmite(String contenido, Escritura escritura) throws IOException {
+        File archivo = new File(directorio.getRoot(), "pagina.html");
+        EscritorReporte er = new EscritorReporte(archivo, null, true, 6);
+        escritura.escribe(er);
+        er.close();
+        verifica(archivo, contenido);
+        EscritorAsincrono asincrono =
+            new EscritorAsincrono(EscritorReporte.tamanoBytes());
+        File otro = new File(directorio.getRoot(), "otra.html");
+        er = new EscritorReporte(otro, asincrono, true, 6);
+        escritura.escribe(er);
+        er.close();
+        asincrono.close();
+        verifica(otro, contenido);
+    }
+
+    /* Interfaz para escribir una página en un escritor. */
+    private interface Escritura {
+        void escribe(EscritorReporte er) throws IOException;
+    }
+
+    /* Verifica que la página y su versión comprimida tengan el contenido y
+     * que no queden temporales. */
+    private void verifica(File archivo, String contenido) throws IOException {
+        Assert.assertTrue(lee(archivo).equals(contenido));
+        Assert.assertTrue(leeGzip(new File(archivo.getPath() + ".gz")).equals(contenido));
+        Assert.assertFalse(new File(archivo.getPath() + ".tmp").exists());
+        Assert.assertFalse(new File(archivo.getPath() + ".gz.tmp").exists());
+    }
+
+    /**
+     * Prueba unitaria para {@link EscritorReporte#close} que reemplaza la
+     * página anterior.
+     */
+    @Test public void testClose() throws IOException {
+        File archivo = directorio.newFile("pagina.html");
+        escribe(archivo, null, "vieja");
+        verifica(archivo, "vieja");
+        escribe(archivo, null, "nueva ñ");
+        verifica(archivo, "nueva ñ");
+    }
+
+    /**
+     * Prueba unitaria para {@link EscritorReporte#descarta}: la página
+     * anterior se queda en su lugar.
+     */
+    @Test public void testDescarta() throws IOException {
+        File archivo = directorio.newFile("pagina.html");
+        escribe(archivo, null, "vieja");
+        EscritorReporte er = new EscritorReporte(archivo, null, true, 6);
+        er.append("a medias");
+        er.descarta();
+        er.close();
+        verifica(archivo, "vieja");
+    }
+
+    /**
+     * Prueba unitaria para {@link EscritorReporte#descarta} con un
+     * {@link EscritorAsincrono}.
+     */
+    @Test public void testDescartaAsincrono() throws IOException {
+        File archivo = directorio.newFile("pagina.html");
+        escribe(archivo, null, "vieja");
+        EscritorAsincrono asincrono =
+            new EscritorAsincrono(EscritorReporte.tamanoBytes());
+        EscritorReporte er = new EscritorReporte(archivo, asincrono, true, 6);
+        for (int i = 0; i < EscritorReporte.TAMANO_BUFER; i++)
+            er.append("a medias ");
+        er.descarta();
+        asincrono.close();
+        verifica(archivo, "vieja");
+    }
+
+    /**
+     * Prueba unitaria para {@link EscritorReporte#append}: lo que se escribe
+     * es lo mismo que la cadena, aunque un carácter de varios bytes o un par
+     * sustituto quede partido entre dos búferes.
+     */
+    @Test public void testAppendFrontera() throws IOException {
+        for (String c : new String[] { "ñ", "語", "𝄞" }) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < EscritorReporte.TAMANO_BUFER - 1; i++)
+                sb.append('x');
+            String relleno = sb.toString();
+            String contenido = relleno + c + relleno + c + c;
+            transmite(contenido, er -> {
+                    er.append(relleno).append(c).append(relleno);
+                    er.append(c + c, 0, c.length());
+                    er.append(c.charAt(0));
+                    if (c.length() > 1)
+                        er.append(c.charAt(1));
+                });
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ManejaPalabras#escribeHTML}: la página
+     * escrita con un {@link EscritorReporte} es la misma que regresa
+     * {@link ManejaPalabras#generaHTML}, con palabras de varios bytes y más
+     * larga que el búfer; lo mismo para una página de la lista de palabras.
+     */
+    @Test public void testPaginaArchivo() throws IOException {
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        for (int i = 0; i < 3000; i++)
+            d.agrega(palabra(), 1 + random.nextInt(50));
+        ManejaPalabras mp = new ManejaPalabras(d, 100);
+        mp.setPalabrasPorPagina(2000);
+        String contenido = mp.generaHTML();
+        Assert.assertTrue(contenido.length() > EscritorReporte.TAMANO_BUFER);
+        Assert.assertTrue(noAscii(contenido));
+        transmite(contenido, er -> mp.escribeHTML(er));
+        StringBuilder lista = new StringBuilder();
+        mp.escribePaginaPalabras(1, lista);
+        transmite(lista.toString(), er -> mp.escribePaginaPalabras(1, er));
+    }
+
+    /**
+     * Prueba unitaria para {@link GeneraIndexHTML#escribeIndexHTML}: el
+     * index escrito con un {@link EscritorReporte} es el mismo que regresa
+     * {@link GeneraIndexHTML#generaIndexHTML}, con palabras de varios bytes
+     * y más largo que el búfer.
+     */
+    @Test public void testIndex() throws IOException {
+        String[] comunes = new String[200];
+        for (int i = 0; i < comunes.length; i++)
+            comunes[i] = palabra();
+        Lista<String> archivos = new Lista<String>();
+        for (int f = 0; f < 40; f++) {
+            File archivo = directorio.newFile("texto" + f + ".txt");
+            StringBuilder texto = new StringBuilder();
+            for (int i = 0; i < 400; i++)
+                texto.append(comunes[random.nextInt(comunes.length)]).append(' ');
+            Files.write(archivo.toPath(), texto.toString().getBytes(StandardCharsets.UTF_8));
+            archivos.agregaFinal(archivo.getPath());
+        }
+        GeneraIndexHTML gen =
+            new GeneraIndexHTML(archivos, directorio.newFolder("reporte").getPath());
+        gen.setCache(false);
+        gen.setUmbralDuplicados(-1);
+        gen.analiza();
+        String contenido = gen.generaIndexHTML();
+        Assert.assertTrue(contenido.length() > EscritorReporte.TAMANO_BUFER);
+        Assert.assertTrue(noAscii(contenido));
+        transmite(contenido, er -> gen.escribeIndexHTML(er));
+    }
+}
@@ -0,0 +1,357 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.proyecto3.Archivo;
+import mx.unam.ciencias.edd.proyecto3.ExportadorDatos;
+import mx.unam.ciencias.edd.proyecto3.Vocabulario;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ExportadorDatos}: lo que
+ * escribe se vuelve a leer con un lector estricto de JSON Lines y otro de
+ * CSV (RFC 4180).
+ */
+public class TestExportadorDatos {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /** Directorio temporal de cada prueba. */
+    @Rule public TemporaryFolder directorio = new TemporaryFolder();
+
+    /* Cadenas con todo lo que hay que escapar en JSON o en CSV. */
+    private static final String[] TRAMPAS = {
+        "comilla\"adentro", "\"entre comillas\"", "diagonal\\invertida",
+        "termina en diagonal\\", "coma,en,medio", "salto\nde línea",
+        "retorno\r\ncarro", "solo\rretorno", "tabulador\t", "control\u0000\u0001\u001f\u007f",
+        "ñandú 日本 𝄞", "  espacios  ", "\\u0041 no es escape", ",\"\n\\"
+    };
+
+    /* Generador de números aleatorios. */
+    private Random random;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestExportadorDatos() {
+        random = new Random();
+    }
+
+    /* Lector de un documento JSON; lanza AssertionError si no es válido. */
+    private static class LectorJSON {
+        /* Texto que se lee. */
+        private String texto;
+        /* Posición actual. */
+        private int i;
+
+        /* Crea un lector para un texto. */
+        LectorJSON(String texto) {
+            this.texto = texto;
+        }
+
+        /* Lee un documento completo. */
+        Object documento() {
+            Object valor = valor();
+            espacios();
+            Assert.assertTrue(i == texto.length());
+            return valor;
+        }
+
+        /* Salta espacios. */
+        private void espacios() {
+            while (i < texto.length() && " \t\r\n".indexOf(texto.charAt(i)) != -1)
+                i++;
+        }
+
+        /* Consume un carácter esperado. */
+        private void espera(char c) {
+            Assert.assertTrue(i < texto.length() && texto.charAt(i) == c);
+            i++;
+        }
+
+        /* Lee un valor: objeto, arreglo, cadena o número. */
+        private Object valor() {
+            espacios();
+            Assert.assertTrue(i < texto.length());
+            char c = texto.charAt(i);
+            if (c == '{')
+                return objeto();
+            if (c == '[')
+                return arreglo();
+            if (c == '"')
+                return cadena();
+            return numero();
+        }
+
+        /* Lee un objeto. */
+        private Diccionario<String, Object> objeto() {
+            Diccionario<String, Object> objeto = new Diccionario<String, Object>();
+            espera('{');
+            espacios();
+            if (texto.charAt(i) == '}') {
+                i++;
+                return objeto;
+            }
+            while (true) {
+                espacios();
+                String llave = cadena();
+                espacios();
+                espera(':');
+                Assert.assertFalse(objeto.contiene(llave));
+                objeto.agrega(llave, valor());
+                espacios();
+                if (texto.charAt(i) == '}') {
+                    i++;
+                    return objeto;
+                }
+                espera(',');
+            }
+        }
+
+        /* Lee un arreglo. */
+        private Lista<Object> arreglo() {
+            Lista<Object> arreglo = new Lista<Object>();
+            espera('[');
+            espacios();
+            if (texto.charAt(i) == ']') {
+                i++;
+                return arreglo;
+            }
+            while (true) {
+                arreglo.agregaFinal(valor());
+                espacios();
+                if (texto.charAt(i) == ']') {
+                    i++;
+                    return arreglo;
+                }
+                espera(',');
+            }
+        }
+
+        /* Lee una cadena; los caracteres de control deben venir escapados. */
+        private String cadena() {
+            espera('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                Assert.assertTrue(i < texto.length());
+                char c = texto.charAt(i++);
+                Assert.assertTrue(c >= 0x20);
+                if (c == '"')
+                    return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = texto.charAt(i++);
+                int k = "\"\\/bfnrt".indexOf(e);
+                if (k != -1) {
+                    sb.append("\"\\/\b\f\n\r\t".charAt(k));
+                    continue;
+                }
+                Assert.assertTrue(e == 'u' && i + 4 <= texto.length());
+                sb.append((char)Integer.parseInt(texto.substring(i, i + 4), 16));
+                i += 4;
+            }
+        }
+
+        /* Lee un número. */
+        private Double numero() {
+            int inicio = i;
+            while (i < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(i)) != -1)
+                i++;
+            String numero = texto.substring(inicio, i);
+            Assert.assertTrue(numero.matches("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?"));
+            return Double.parseDouble(numero);
+        }
+    }
+
+    /* Lee un CSV según el RFC 4180: los campos con comas, comillas o saltos
+     * de línea van entre comillas y las comillas se duplican; lanza
+     * AssertionError si no es válido. */
+    private static Lista<Lista<String>> leeCSV(String texto) {
+        Lista<Lista<String>> renglones = new Lista<Lista<String>>();
+        Lista<String> renglon = new Lista<String>();
+        StringBuilder campo = new StringBuilder();
+        int i = 0;
+        while (i < texto.length()) {
+            if (texto.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    Assert.assertTrue(i < texto.length());
+                    char c = texto.charAt(i++);
+                    if (c != '"') {
+                        campo.append(c);
+                    } else if (i < texto.length() && texto.charAt(i) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+            } else {
+                while (i < texto.length() && ",\r\n".indexOf(texto.charAt(i)) == -1) {
+                    Assert.assertTrue(texto.charAt(i) != '"');
+                    campo.append(texto.charAt(i++));
+                }
+            }
+            renglon.agregaFinal(campo.toString());
+            campo.setLength(0);
+            Assert.assertTrue(i < texto.length());
+            char c = texto.charAt(i++);
+            if (c == ',')
+                continue;
+            if (c == '\r')
+                Assert.assertTrue(texto.charAt(i++) == '\n');
+            renglones.agregaFinal(renglon);
+            renglon = new Lista<String>();
+        }
+        return renglones;
+    }
+
+    /* Regresa una palabra con una trampa; todas tienen al menos siete
+     * caracteres para que cuenten en las relaciones. */
+    private String trampa(int k) {
+        return "palabra" + TRAMPAS[k % TRAMPAS.length] + k;
+    }
+
+    /* Exporta dos archivos con nombres y palabras con trampas y su relación;
+     * regresa los archivos. */
+    private Archivo[] exporta(Diccionario<String, Integer>[] ds) throws IOException {
+        Vocabulario vocabulario = new Vocabulario();
+        Archivo[] archivos = new Archivo[ds.length];
+        for (int a = 0; a < ds.length; a++) {
+            ds[a] = new Diccionario<String, Integer>();
+            for (int k = 0; k < 3 * TRAMPAS.length; k++)
+                if (a == 0 || random.nextBoolean())
+                    ds[a].agrega(trampa(k), 1 + random.nextInt(100));
+            archivos[a] = new Archivo("archivo" + a + ".html", ds[a],
+                                      "dir/" + TRAMPAS[(a + random.nextInt(TRAMPAS.length)) %
+                                                       TRAMPAS.length] + a,
+                                      vocabulario);
+        }
+        ExportadorDatos exportador =
+            new ExportadorDatos(directorio.getRoot(), null, true, true);
+        for (int a = 0; a < ds.length; a++)
+            exportador.exportaArchivo(archivos[a], ds[a]);
+        exportador.exportaRelacion(archivos[0], archivos[1], 0.5);
+        exportador.close();
+        return archivos;
+    }
+
+    /* Regresa el índice del archivo con un nombre. */
+    private int indice(Archivo[] archivos, String nombre) {
+        for (int a = 0; a < archivos.length; a++)
+            if (archivos[a].getNombre().equals(nombre))
+                return a;
+        Assert.fail();
+        return -1;
+    }
+
+    /**
+     * Prueba unitaria para la salida JSON Lines de {@link ExportadorDatos}:
+     * cada renglón es un objeto JSON válido y las cadenas se leen igual que
+     * se escribieron.
+     */
+    @SuppressWarnings("unchecked")
+    @Test public void testJSON() throws IOException {
+        Diccionario<String, Integer>[] ds = new Diccionario[2];
+        Archivo[] archivos = exporta(ds);
+        String texto = TestEscritorReporte.lee(new File(directorio.getRoot(),
+                                                         ExportadorDatos.JSON));
+        Assert.assertTrue(texto.endsWith("\n"));
+        int[] palabras = new int[archivos.length];
+        int relaciones = 0, totales = 0;
+        for (String linea : texto.substring(0, texto.length() - 1).split("\n", -1)) {
+            Diccionario<String, Object> o =
+                (Diccionario<String, Object>)new LectorJSON(linea).documento();
+            String tipo = (String)o.get("tipo");
+            if (tipo.equals("archivo")) {
+                int a = indice(archivos, (String)o.get("archivo"));
+                Assert.assertTrue(o.get("pagina").equals(archivos[a].toString()));
+                Assert.assertTrue((Double)o.get("distintas") == ds[a].getElementos());
+                Assert.assertTrue((Double)o.get("palabras") == archivos[a].getTotalPalabras());
+            } else if (tipo.equals("palabra")) {
+                int a = indice(archivos, (String)o.get("archivo"));
+                String palabra = (String)o.get("palabra");
+                Assert.assertTrue(ds[a].contiene(palabra));
+                Assert.assertTrue((Double)o.get("apariciones") == ds[a].get(palabra).intValue());
+                palabras[a]++;
+            } else if (tipo.equals("relacion")) {
+                Assert.assertTrue(o.get("primero").equals(archivos[0].getNombre()));
+                Assert.assertTrue(o.get("segundo").equals(archivos[1].getNombre()));
+                Assert.assertTrue((Double)o.get("similitud") == 0.5);
+                Lista<Object> comunes = (Lista<Object>)o.get("palabras");
+                Assert.assertTrue(comunes.equals(archivos[0].comparaArchivo(archivos[1])));
+                relaciones++;
+            } else {
+                Assert.assertTrue(tipo.equals("totales"));
+                Assert.assertTrue((Double)o.get("archivos") == archivos.length);
+                totales++;
+            }
+        }
+        for (int a = 0; a < archivos.length; a++)
+            Assert.assertTrue(palabras[a] == ds[a].getElementos());
+        Assert.assertTrue(relaciones == 1 && totales == 1);
+    }
+
+    /**
+     * Prueba unitaria para la salida CSV de {@link ExportadorDatos}: los
+     * archivos son CSV válidos y los campos se leen igual que se escribieron.
+     */
+    @SuppressWarnings("unchecked")
+    @Test public void testCSV() throws IOException {
+        Diccionario<String, Integer>[] ds = new Diccionario[2];
+        Archivo[] archivos = exporta(ds);
+        File raiz = directorio.getRoot();
+
+        Lista<Lista<String>> renglones =
+            leeCSV(TestEscritorReporte.lee(new File(raiz, ExportadorDatos.CSV_ARCHIVOS)));
+        Iterator<Lista<String>> it = renglones.iterator();
+        Assert.assertTrue(it.next().getLongitud() == 4);
+        for (Archivo archivo : archivos) {
+            Lista<String> r = it.next();
+            Assert.assertTrue(r.getLongitud() == 4);
+            Assert.assertTrue(r.get(0).equals(archivo.getNombre()));
+            Assert.assertTrue(r.get(1).equals(archivo.toString()));
+        }
+        Assert.assertFalse(it.hasNext());
+
+        renglones = leeCSV(TestEscritorReporte.lee(new File(raiz, ExportadorDatos.CSV_PALABRAS)));
+        Assert.assertTrue(renglones.getLongitud() ==
+                          1 + ds[0].getElementos() + ds[1].getElementos());
+        boolean encabezado = true;
+        for (Lista<String> r : renglones) {
+            Assert.assertTrue(r.getLongitud() == 3);
+            if (encabezado) {
+                encabezado = false;
+                continue;
+            }
+            int a = indice(archivos, r.get(0));
+            Assert.assertTrue(ds[a].contiene(r.get(1)));
+            Assert.assertTrue(Integer.parseInt(r.get(2)) == ds[a].get(r.get(1)));
+        }
+
+        renglones = leeCSV(TestEscritorReporte.lee(new File(raiz, ExportadorDatos.CSV_RELACIONES)));
+        Lista<String> comunes = archivos[0].comparaArchivo(archivos[1]);
+        Assert.assertTrue(renglones.getLongitud() == 1 + comunes.getLongitud());
+        it = renglones.iterator();
+        it.next();
+        for (String palabra : comunes) {
+            Lista<String> r = it.next();
+            Assert.assertTrue(r.getLongitud() == 4);
+            Assert.assertTrue(r.get(0).equals(archivos[0].getNombre()));
+            Assert.assertTrue(r.get(1).equals(archivos[1].getNombre()));
+            Assert.assertTrue(Double.parseDouble(r.get(2)) == 0.5);
+            Assert.assertTrue(r.get(3).equals(palabra));
+        }
+    }
+}
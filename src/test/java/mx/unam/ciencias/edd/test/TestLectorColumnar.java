@@ -0,0 +1,202 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.proyecto3.ExportadorColumnar;
+import mx.unam.ciencias.edd.proyecto3.LectorColumnar;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link LectorColumnar}, leyendo
+ * lo que escribe un {@link ExportadorColumnar}.
+ */
+public class TestLectorColumnar {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /** Directorio temporal de cada prueba. */
+    @Rule public TemporaryFolder directorio = new TemporaryFolder();
+
+    /* Raíces de las palabras; las de varios bytes comparten con otras el
+     * primer byte de un carácter ("ñ" y "ó" empiezan con 0xC3, "日" y "本"
+     * con 0xE6), así que el prefijo común en bytes parte el carácter. */
+    private static final String[] RAICES = {
+        "a", "añ", "aó", "añó", "ñu", "ño", "日本", "日曜", "本日", "𝄞", "𝄢",
+        "prefijo", "prefijos", "z"
+    };
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número de archivos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios y un número de archivos para
+     * cada prueba.
+     */
+    public TestLectorColumnar() {
+        random = new Random();
+        total = 2 + random.nextInt(4);
+    }
+
+    /* Regresa un diccionario con palabras que comparten prefijos largos y
+     * cortos; hay suficientes para llenar varios bloques. */
+    private Diccionario<String, Integer> llena() {
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        int n = 3 * ExportadorColumnar.BLOQUE + random.nextInt(100);
+        for (int i = 0; i < n; i++) {
+            String raiz = RAICES[random.nextInt(RAICES.length)];
+            d.agrega(raiz + random.nextInt(40), 1 + random.nextInt(20));
+        }
+        for (String raiz : RAICES)
+            if (random.nextBoolean())
+                d.agrega(raiz, 1 + random.nextInt(20));
+        return d;
+    }
+
+    /* Regresa el conteo total de varios diccionarios. */
+    private Diccionario<String, Integer> suma(Diccionario<String, Integer>[] ds) {
+        Diccionario<String, Integer> suma = new Diccionario<String, Integer>();
+        for (Diccionario<String, Integer> d : ds) {
+            Iterator<String> i = d.iteradorLlaves();
+            while (i.hasNext()) {
+                String s = i.next();
+                suma.agrega(s, d.get(s) + (suma.contiene(s) ? suma.get(s) : 0));
+            }
+        }
+        return suma;
+    }
+
+    /* Verifica que dos diccionarios tengan las mismas palabras con las
+     * mismas apariciones. */
+    private void iguales(Diccionario<String, Integer> a,
+                         Diccionario<String, Integer> b) {
+        Assert.assertTrue(a.getElementos() == b.getElementos());
+        Iterator<String> i = a.iteradorLlaves();
+        while (i.hasNext()) {
+            String s = i.next();
+            Assert.assertTrue(b.contiene(s));
+            Assert.assertTrue(a.get(s).equals(b.get(s)));
+        }
+    }
+
+    /* Escribe los diccionarios con un exportador y regresa el archivo. */
+    private File exporta(Diccionario<String, Integer>[] ds) throws IOException {
+        ExportadorColumnar exportador = new ExportadorColumnar();
+        for (int i = 0; i < ds.length; i++)
+            exportador.agrega("archivo ñ," + i, ds[i]);
+        File archivo = new File(directorio.getRoot(), ExportadorColumnar.ARCHIVO);
+        exportador.escribe(archivo);
+        return archivo;
+    }
+
+    /* Regresa varios diccionarios llenos. */
+    @SuppressWarnings("unchecked")
+    private Diccionario<String, Integer>[] varios() {
+        Diccionario<String, Integer>[] ds = new Diccionario[total];
+        for (int i = 0; i < total; i++)
+            ds[i] = llena();
+        return ds;
+    }
+
+    /**
+     * Prueba unitaria para {@link LectorColumnar#getPalabra},
+     * {@link LectorColumnar#getConteo} y {@link LectorColumnar#busca}: el
+     * vocabulario se lee en orden, con los prefijos de cada bloque.
+     */
+    @Test public void testVocabulario() throws IOException {
+        Diccionario<String, Integer>[] ds = varios();
+        Diccionario<String, Integer> suma = suma(ds);
+        LectorColumnar lector = new LectorColumnar(exporta(ds));
+        Assert.assertTrue(lector.getPalabras() == suma.getElementos());
+        Assert.assertTrue(lector.getArchivos() == total);
+        Lista<String> ordenadas = new Lista<String>();
+        Iterator<String> it = suma.iteradorLlaves();
+        while (it.hasNext())
+            ordenadas.agregaFinal(it.next());
+        ordenadas = Lista.mergeSort(ordenadas);
+        int i = 0;
+        for (String s : ordenadas) {
+            Assert.assertTrue(lector.getPalabra(i).equals(s));
+            Assert.assertTrue(lector.getConteo(i) == suma.get(s));
+            Assert.assertTrue(lector.busca(s) == i);
+            i++;
+        }
+        String[] ausentes = { "", " ", "0", "ñ", "a-", "añ-", "prefij",
+                              "prefijo-", "zz", "日", "￿", "𝄞-" };
+        for (String s : ausentes)
+            if (!suma.contiene(s))
+                Assert.assertTrue(lector.busca(s) == -1);
+        for (String s : ordenadas)
+            if (!suma.contiene(s + "~"))
+                Assert.assertTrue(lector.busca(s + "~") == -1);
+    }
+
+    /**
+     * Prueba unitaria para {@link LectorColumnar#conteo(int)},
+     * {@link LectorColumnar#getNombre} y {@link LectorColumnar#acumula}.
+     */
+    @SuppressWarnings("unchecked")
+    @Test public void testConteo() throws IOException {
+        Diccionario<String, Integer>[] ds = varios();
+        LectorColumnar lector = new LectorColumnar(exporta(ds));
+        for (int i = 0; i < total; i++) {
+            iguales(lector.conteo(i), ds[i]);
+            Assert.assertTrue(lector.getNombre(i).equals("archivo ñ," + i));
+        }
+        iguales(lector.conteo(), suma(ds));
+        Diccionario<String, Integer> previo = llena();
+        Diccionario<String, Integer>[] conPrevio = new Diccionario[total + 1];
+        System.arraycopy(ds, 0, conPrevio, 0, total);
+        conPrevio[total] = previo;
+        Diccionario<String, Integer> acumulado = suma(new Diccionario[] { previo });
+        lector.acumula(acumulado);
+        iguales(acumulado, suma(conPrevio));
+    }
+
+    /* Cambia un entero del encabezado de un archivo. */
+    private void corrompe(File archivo, int posicion, int valor) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(archivo, "rw")) {
+            f.seek(posicion);
+            f.writeInt(valor);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link LectorColumnar#LectorColumnar} con
+     * encabezados corruptos: las columnas no caben antes de los nombres.
+     */
+    @Test public void testCorrupto() throws IOException {
+        Diccionario<String, Integer>[] ds = varios();
+        File archivo = exporta(ds);
+        LectorColumnar lector = new LectorColumnar(archivo);
+        int[][] corruptos = {
+            { 8, lector.getPalabras() + 1 }, { 8, -1 }, { 8, Integer.MAX_VALUE },
+            { 12, lector.getArchivos() + 1 }, { 12, -2 },
+            { 16, lector.getEntradas() + 1 }, { 16, Integer.MAX_VALUE },
+            { 20, 0 }, { 24, ExportadorColumnar.ENCABEZADO }, { 24, -1 }
+        };
+        for (int[] c : corruptos) {
+            File copia = directorio.newFile();
+            Files.copy(archivo.toPath(), copia.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+            corrompe(copia, c[0], c[1]);
+            try {
+                new LectorColumnar(copia);
+                Assert.fail();
+            } catch (IOException ioe) {}
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.proyecto3.graficas.ManejaPalabras;
+import mx.unam.ciencias.edd.proyecto3.graficas.Palabra;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la selección de las palabras con más
+ * apariciones en {@link ManejaPalabras}.
+ */
+public class TestManejaPalabras {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número de palabras; menos de las que caben en una página de la
+     * lista. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios y un número de palabras para
+     * cada prueba.
+     */
+    public TestManejaPalabras() {
+        random = new Random();
+        total = 21 + random.nextInt(ManejaPalabras.PALABRAS_POR_PAGINA - 21);
+    }
+
+    /* Regresa un diccionario con n palabras distintas y apariciones
+     * aleatorias en [0, rango), con muchos empates. */
+    private Diccionario<String, Integer> llena(int n, int rango) {
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        for (int i = 0; i < n; i++)
+            d.agrega("p" + i, random.nextInt(rango));
+        return d;
+    }
+
+    /* Verifica que la lista de palabras tenga las del corte, de la de más
+     * apariciones a la de menos y las que empatan en el orden del
+     * diccionario. */
+    private void verifica(Diccionario<String, Integer> d, int porcentaje) {
+        int n = d.getElementos();
+        int corte = n > 20 ? (int)Math.ceil((n * porcentaje) / 100) : n;
+        StringBuilder esperada = new StringBuilder();
+        int i = 0;
+        for (Palabra p : TestClasificaFrecuencias.esperadas(d)) {
+            if (i++ == corte)
+                break;
+            esperada.append(p.toString_info()).append(", ");
+        }
+        ManejaPalabras mp = new ManejaPalabras(d, porcentaje);
+        Assert.assertTrue(mp.imprimePalabras().equals(esperada.toString()));
+    }
+
+    /**
+     * Prueba unitaria para {@link ManejaPalabras#ManejaPalabras} cuando el
+     * corte es chico y se elige con un montículo.
+     */
+    @Test public void testCorteMonticulo() {
+        verifica(llena(total, 5), 20);
+        verifica(llena(total, 1000), 20);
+        verifica(llena(total, 1), 10);
+    }
+
+    /**
+     * Prueba unitaria para {@link ManejaPalabras#ManejaPalabras} cuando el
+     * corte tiene casi todas las palabras y se ordenan por apariciones.
+     */
+    @Test public void testCorteCompleto() {
+        verifica(llena(total, 5), 100);
+        verifica(llena(total, 5), 60);
+        verifica(llena(1 + random.nextInt(20), 3), 20);
+    }
+}